@@ -0,0 +1,91 @@
+package com.cms.payment.benchmark;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.cms.payment.cache.VerifiedTokenCache;
+import com.cms.payment.configuration.JwtValidator;
+import com.cms.payment.utills.Constants;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Per request overhead of the access token filter: the previous filter, which built the verifier and verified
+ * the token on every request, against the current filter with and without the verified token cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class JwtValidatorBenchmark {
+    private static final String KEY = "accessKey";
+
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private JwtValidator cachedValidator;
+    private JwtValidator uncachedValidator;
+
+    @Setup
+    public void setUp() {
+        token = JWT.create().withClaim("username", "benchmark")
+                .withClaim("authorities", List.of("ADMIN", "STAFF"))
+                .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+                .sign(Algorithm.HMAC256(KEY));
+        request = new MockHttpServletRequest("GET", "/payment/");
+        request.setServletPath("/payment/");
+        request.addHeader(Constants.TOKEN_HEADER, token);
+        response = new MockHttpServletResponse();
+        cachedValidator = new JwtValidator(KEY, new VerifiedTokenCache(10000, Clock.systemUTC()));
+        uncachedValidator = new JwtValidator(KEY, new VerifiedTokenCache(0, Clock.systemUTC()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public Object previousFilter() {
+        JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(KEY)).build();
+        DecodedJWT decodedJWT = jwtVerifier.verify(request.getHeader(Constants.TOKEN_HEADER));
+        String userName = decodedJWT.getClaim("username").toString();
+        var authorityList = decodedJWT.getClaim("authorities").asList(String.class).stream()
+                .map(SimpleGrantedAuthority::new).collect(Collectors.toList());
+        SecurityContextHolder.getContext()
+                .setAuthentication(new UsernamePasswordAuthenticationToken(userName, null, authorityList));
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Object uncachedFilter() throws ServletException, IOException {
+        return filter(uncachedValidator);
+    }
+
+    @Benchmark
+    public Object cachedFilter() throws ServletException, IOException {
+        return filter(cachedValidator);
+    }
+
+    private Object filter(JwtValidator jwtValidator) throws ServletException, IOException {
+        request.removeAttribute(jwtValidator.getClass().getName() + ".FILTERED");
+        jwtValidator.doFilter(request, response, new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
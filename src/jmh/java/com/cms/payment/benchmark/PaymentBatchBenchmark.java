@@ -0,0 +1,103 @@
+package com.cms.payment.benchmark;
+
+import com.cms.payment.CmsPaymentServiceApplication;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import com.cms.payment.domain.response.PaymentBatchResponseDto;
+import com.cms.payment.service.PaymentBatchService;
+import com.cms.payment.service.PaymentService;
+import com.cms.payment.support.StubStudentService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to make an upload of payments one by one through the single payment path against the batch path.
+ * The service runs on an in-memory H2 database in MySQL mode with the student service stubbed on a local port.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PaymentBatchBenchmark {
+    private static final String ACCESS_TOKEN = "benchmark-token";
+
+    @Param({"1000"})
+    private int uploadSize;
+
+    @Param({"0", "1"})
+    private long latencyMillis;
+
+    private StubStudentService studentService;
+    private ConfigurableApplicationContext context;
+    private PaymentService paymentService;
+    private PaymentBatchService paymentBatchService;
+    private int uploadCount;
+
+    @Setup
+    public void setUp() {
+        studentService = StubStudentService.start(0, 16, uploadSize, 10).withLatency(latencyMillis);
+        context = new SpringApplicationBuilder(CmsPaymentServiceApplication.class)
+                .run("--server.port=0",
+                        "--eureka.client.enabled=false",
+                        "--spring.datasource.url=jdbc:h2:mem:payment-batch;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+                        "--student.uri.baseUrl=" + studentService.getBaseUrl(),
+                        "--location.uri.baseUrl=" + studentService.getBaseUrl(),
+                        "--payment.batch.maxSize=" + uploadSize);
+        paymentService = context.getBean(PaymentService.class);
+        paymentBatchService = context.getBean(PaymentBatchService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        studentService.close();
+    }
+
+    @Benchmark
+    public int singlePayments() {
+        int paid = 0;
+        for (PaymentRequestDto paymentRequestDto : nextUpload()) {
+            paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN);
+            paid++;
+        }
+        return paid;
+    }
+
+    @Benchmark
+    public PaymentBatchResponseDto batchPayments() {
+        return paymentBatchService.makePayments(nextUpload(), ACCESS_TOKEN);
+    }
+
+    /**
+     * Every upload pays a new month for all the students, so none of them is rejected as already paid
+     *
+     * @return payment request dto list
+     */
+    private List<PaymentRequestDto> nextUpload() {
+        int count = uploadCount++;
+        var month = Month.of(count % 12 + 1).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        var paymentMonth = new PaymentMonthDto(month, 2000 + count / 12);
+        List<PaymentRequestDto> upload = new ArrayList<>(uploadSize);
+        for (int index = 0; index < uploadSize; index++) {
+            var paymentRequestDto = new PaymentRequestDto();
+            paymentRequestDto.setStudentId(StubStudentService.STUDENT_ID_PREFIX + index);
+            paymentRequestDto.setPaymentMonth(paymentMonth);
+            upload.add(paymentRequestDto);
+        }
+        return upload;
+    }
+}
@@ -0,0 +1,116 @@
+package com.cms.payment.benchmark;
+
+import com.cms.payment.utills.PaymentIdGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.sql.*;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert a batch of payments into a table already holding tableSize payments, keyed by random uuid text
+ * ids, time ordered uuid text ids or time ordered uuids stored as BINARY(16). The default is an in-memory H2
+ * database; pass -p jdbcUrl="jdbc:mysql://host/db?user=..&password=..&rewriteBatchedStatements=true" to run it
+ * against MySQL.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PaymentIdBenchmark {
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    @Param({"jdbc:h2:mem:payment-id;DB_CLOSE_DELAY=-1"})
+    private String jdbcUrl;
+
+    @Param({"500000"})
+    private int tableSize;
+
+    @Param({"RANDOM", "TIME_ORDERED", "TIME_ORDERED_BINARY"})
+    private IdScheme idScheme;
+
+    private Connection connection;
+    private PreparedStatement insertStatement;
+    private int rowCount;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS payment_id_benchmark");
+            statement.execute("CREATE TABLE payment_id_benchmark (payment_id " + idScheme.columnType
+                    + " NOT NULL PRIMARY KEY, student_id VARCHAR(50), payment_period INT, updated_at DATE)");
+            statement.execute("CREATE INDEX idx_payment_id_benchmark_student "
+                    + "ON payment_id_benchmark (student_id, payment_period)");
+        }
+        connection.setAutoCommit(false);
+        insertStatement = connection.prepareStatement("INSERT INTO payment_id_benchmark "
+                + "(payment_id, student_id, payment_period, updated_at) VALUES (?, ?, ?, ?)");
+        while (rowCount < tableSize) {
+            insertBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE payment_id_benchmark");
+        }
+        connection.commit();
+        connection.close();
+    }
+
+    @Benchmark
+    public int insertPayments() throws SQLException {
+        return insertBatch();
+    }
+
+    private int insertBatch() throws SQLException {
+        var updatedAt = new Date(System.currentTimeMillis());
+        for (int index = 0; index < INSERT_BATCH_SIZE; index++) {
+            int row = rowCount++;
+            idScheme.setId(insertStatement);
+            insertStatement.setString(2, "sid-" + (row % 10000));
+            insertStatement.setInt(3, 200001 + row / 10000);
+            insertStatement.setDate(4, updatedAt);
+            insertStatement.addBatch();
+        }
+        insertStatement.executeBatch();
+        connection.commit();
+        return INSERT_BATCH_SIZE;
+    }
+
+    public enum IdScheme {
+        RANDOM("VARCHAR(50)") {
+            @Override
+            void setId(PreparedStatement statement) throws SQLException {
+                statement.setString(1, PaymentIdGenerator.PREFIX + UUID.randomUUID());
+            }
+        },
+        TIME_ORDERED("VARCHAR(50)") {
+            @Override
+            void setId(PreparedStatement statement) throws SQLException {
+                statement.setString(1, PaymentIdGenerator.nextId());
+            }
+        },
+        TIME_ORDERED_BINARY("BINARY(16)") {
+            @Override
+            void setId(PreparedStatement statement) throws SQLException {
+                UUID uuid = PaymentIdGenerator.nextUuid();
+                statement.setBytes(1, ByteBuffer.allocate(16).putLong(uuid.getMostSignificantBits())
+                        .putLong(uuid.getLeastSignificantBits()).array());
+            }
+        };
+
+        private final String columnType;
+
+        IdScheme(String columnType) {
+            this.columnType = columnType;
+        }
+
+        abstract void setId(PreparedStatement statement) throws SQLException;
+    }
+}
@@ -0,0 +1,128 @@
+package com.cms.payment.benchmark;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.response.PaymentListResponseDto;
+import com.cms.payment.domain.response.PaymentReportListResponseDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.wrapper.SuccessResponseWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.sql.Date;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Assembly and serialization cost of the payment list and payment report responses for a roster of
+ * {@code studentCount} students, half of them paid for the month. Run with the gc profiler to see the allocation
+ * rate per response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class PaymentResponseBenchmark {
+    private static final int TUITION_CLASS_COUNT = 20;
+    private static final int PAYMENT_PERIOD = 202303;
+    private static final Date PAID_DATE = Date.valueOf("2023-03-15");
+
+    @Param({"1000", "10000", "100000"})
+    private int studentCount;
+
+    private Slice<Payment> paymentSlice;
+    private Set<String> paidStudentIds;
+    private Map<String, StudentResponseDto> studentMap;
+    private Map<String, TuitionClassResponseDto> tuitionClassMap;
+    private PaymentListResponseDto paymentListResponse;
+    private PaymentReportListResponseDto paymentReportResponse;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        tuitionClassMap = new HashMap<>();
+        for (int index = 0; index < TUITION_CLASS_COUNT; index++) {
+            var tuitionClass = new TuitionClassResponseDto();
+            tuitionClass.setTuitionClassId("tid-" + index);
+            tuitionClass.setLocationName("Location " + index);
+            tuitionClass.setAddress("Queen's Road, Duplication Road");
+            tuitionClass.setDistrict("Colombo");
+            tuitionClass.setProvince("Western");
+            tuitionClassMap.put(tuitionClass.getTuitionClassId(), tuitionClass);
+        }
+        studentMap = new HashMap<>();
+        paidStudentIds = new HashSet<>();
+        List<Payment> payments = new ArrayList<>();
+        for (int index = 0; index < studentCount; index++) {
+            var student = getSampleStudent(index);
+            studentMap.put(student.getStudentId(), student);
+            if (index % 2 == 0) {
+                paidStudentIds.add(student.getStudentId());
+                payments.add(getSamplePayment(index, student.getStudentId()));
+            }
+        }
+        paymentSlice = new SliceImpl<>(payments, PageRequest.of(0, payments.size()), true);
+        paymentListResponse = createPaymentListResponse();
+        paymentReportResponse = createPaymentReportResponse();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    @Benchmark
+    public PaymentListResponseDto createPaymentListResponse() {
+        return new PaymentListResponseDto(paymentSlice, studentMap, tuitionClassMap);
+    }
+
+    @Benchmark
+    public PaymentReportListResponseDto createPaymentReportResponse() {
+        return new PaymentReportListResponseDto(paymentSlice, paidStudentIds, studentMap, tuitionClassMap);
+    }
+
+    @Benchmark
+    public byte[] serializePaymentListResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new SuccessResponseWrapper(SuccessResponseStatus.READ_LIST_PAYMENT,
+                paymentListResponse, HttpStatus.OK));
+    }
+
+    @Benchmark
+    public byte[] serializePaymentReportResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(new SuccessResponseWrapper(
+                SuccessResponseStatus.READ_STUDENT_PAYMENT_REPORT, paymentReportResponse, HttpStatus.OK));
+    }
+
+    private StudentResponseDto getSampleStudent(int index) {
+        var student = new StudentResponseDto();
+        student.setStudentId("sid-" + index);
+        student.setFirstName("Danushan");
+        student.setLastName("Kanagasingam");
+        student.setAddress("A9 road, Vavuniya");
+        student.setGender("Male");
+        student.setAge(17);
+        student.setGrade(12);
+        student.setPhoneNumber(771109101);
+        student.setStudentStatus("ACTIVE");
+        student.setTuitionClassId("tid-" + index % TUITION_CLASS_COUNT);
+        student.setJoinedDate(PAID_DATE);
+        student.setUpdatedAt(PAID_DATE);
+        return student;
+    }
+
+    private Payment getSamplePayment(int index, String studentId) {
+        var payment = new Payment();
+        payment.setPaymentId("pid-" + index);
+        payment.setPaymentMonth("March 2023");
+        payment.setPaymentPeriod(PAYMENT_PERIOD);
+        payment.setPaidDate(PAID_DATE);
+        payment.setStudentId(studentId);
+        payment.setUpdatedAt(PAID_DATE);
+        return payment;
+    }
+}
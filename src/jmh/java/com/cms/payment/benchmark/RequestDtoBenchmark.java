@@ -0,0 +1,33 @@
+package com.cms.payment.benchmark;
+
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rendering a request as json for the debug logs of the invalid requests
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class RequestDtoBenchmark {
+
+    private PaymentRequestDto paymentRequestDto;
+
+    @Setup
+    public void setUp() {
+        paymentRequestDto = new PaymentRequestDto();
+        paymentRequestDto.setPaymentMonth(new PaymentMonthDto("March", 2023));
+        paymentRequestDto.setStudentId("sid-1254-7854-6485");
+    }
+
+    @Benchmark
+    public String toJson() {
+        return paymentRequestDto.toJson();
+    }
+}
@@ -0,0 +1,66 @@
+package com.cms.payment.benchmark;
+
+import com.cms.payment.configuration.RestTemplateConfig;
+import com.cms.payment.support.StubHttpServer;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the default rest template against the pooled keep-alive rest template on a local stub server
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(32)
+public class RestTemplateBenchmark {
+    private static final String STUDENT_BODY = "{\"message\":\"Student retrieved successfully\",\"statusCode\":200,"
+            + "\"data\":{\"studentId\":\"sid-1\",\"firstName\":\"Danushan\",\"tuitionClassId\":\"tid-1\"}}";
+
+    @Param({"0", "5"})
+    private long latencyMillis;
+
+    private StubHttpServer stubServer;
+    private String uri;
+    private RestTemplate simpleRestTemplate;
+    private RestTemplate pooledRestTemplate;
+    private CloseableHttpClient httpClient;
+
+    @Setup
+    public void setUp() {
+        stubServer = StubHttpServer.start(0, 64)
+                .withLatency(latencyMillis)
+                .route("/student", exchange -> StubHttpServer.StubResponse.ok(STUDENT_BODY));
+        uri = stubServer.getBaseUrl() + "student/api/v1/student/sid-1";
+        simpleRestTemplate = new RestTemplate();
+        var config = new RestTemplateConfig();
+        var connectionManager = config.httpClientConnectionManager(200, 50, Duration.ofMinutes(5),
+                Duration.ofSeconds(2));
+        httpClient = config.httpClient(connectionManager, Duration.ofSeconds(2), Duration.ofSeconds(5),
+                Duration.ofSeconds(1), Duration.ofSeconds(30));
+        pooledRestTemplate = config.restTemplate(httpClient);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        httpClient.close();
+        stubServer.close();
+    }
+
+    @Benchmark
+    public String simpleClientRequestFactory() {
+        return simpleRestTemplate.getForObject(uri, String.class);
+    }
+
+    @Benchmark
+    public String pooledHttpClient() {
+        return pooledRestTemplate.getForObject(uri, String.class);
+    }
+}
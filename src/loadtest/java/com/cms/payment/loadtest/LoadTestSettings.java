@@ -0,0 +1,47 @@
+package com.cms.payment.loadtest;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Settings of the load test, bound from the {@code loadtest} properties
+ */
+@Getter
+@Setter
+public class LoadTestSettings {
+    private int rosterSize;
+    private int tuitionClassCount;
+    private Duration latency;
+    private double errorRate;
+    private int threads;
+    private Duration warmup;
+    private Duration duration;
+    private String mix;
+    private int pageSize;
+    private String readPath;
+
+    /**
+     * Get the weight of every endpoint from the mix given as {@code endpoint:weight,...}
+     *
+     * @return endpoint weight map
+     */
+    public Map<Endpoint, Integer> getEndpointWeights() {
+        Map<Endpoint, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid load test mix entry : " + entry);
+            }
+            weights.put(Endpoint.valueOf(parts[0].trim().toUpperCase()), Integer.parseInt(parts[1].trim()));
+        }
+        return weights;
+    }
+
+    public enum Endpoint {
+        CREATE, UPDATE, LIST, REPORT
+    }
+}
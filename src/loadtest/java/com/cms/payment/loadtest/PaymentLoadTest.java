@@ -0,0 +1,303 @@
+package com.cms.payment.loadtest;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.cms.payment.CmsPaymentServiceApplication;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import com.cms.payment.domain.request.UpdatePaymentRequestDto;
+import com.cms.payment.loadtest.LoadTestSettings.Endpoint;
+import com.cms.payment.support.StubStudentService;
+import com.cms.payment.utills.Constants;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load test of the payment service.
+ * <p>
+ * The service is started with the {@code loadtest} profile on an in-memory H2 database in MySQL mode with Eureka
+ * disabled, and the student and tuition services are replaced by local stand-ins serving a generated roster with the
+ * configured latency and error rate. A fixed number of threads replay a weighted mix of create, update, list and
+ * report calls over http. Every option of {@code application-loadtest.yml} can be overridden as
+ * {@code --loadtest.<option>=<value>}, the other arguments are given to the service.
+ */
+public class PaymentLoadTest {
+    private static final String PAYMENT_URL = "/payment/api/v1/payment";
+    private static final String CONTEXT_PATH = "/payment/";
+    private static final String REPORT_PATH = "/student/report/##MONTH##/##YEAR##";
+    private static final int FIRST_YEAR = 2000;
+    private static final int FIRST_UPDATE_YEAR = 5000;
+    private static final int PAYMENT_SLOTS = 4096;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final String accessToken;
+    private final Endpoint[] schedule;
+    private final Map<Endpoint, EndpointStats> stats = new EnumMap<>(Endpoint.class);
+    private final AtomicInteger createCount = new AtomicInteger();
+    private final AtomicInteger updateCount = new AtomicInteger();
+    private final AtomicInteger paymentCount = new AtomicInteger();
+    private final AtomicReferenceArray<String[]> payments = new AtomicReferenceArray<>(PAYMENT_SLOTS);
+    private volatile long measureFrom;
+
+    public PaymentLoadTest(LoadTestSettings settings, String baseUrl, String accessToken) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.accessToken = accessToken;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.schedule = createSchedule(settings.getEndpointWeights());
+        for (Endpoint endpoint : Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        var settings = loadSettings(args);
+        try (var studentService = startStandIn(settings);
+             var tuitionService = startStandIn(settings)) {
+            List<String> applicationArgs = new ArrayList<>(List.of(args));
+            applicationArgs.add("--spring.profiles.active=loadtest");
+            applicationArgs.add("--student.uri.baseUrl=" + studentService.getBaseUrl());
+            applicationArgs.add("--location.uri.baseUrl=" + tuitionService.getBaseUrl());
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                    CmsPaymentServiceApplication.class).run(applicationArgs.toArray(new String[0]))) {
+                var environment = context.getEnvironment();
+                String baseUrl = "http://localhost:" + environment.getProperty("local.server.port");
+                String accessToken = createAccessToken(environment.getRequiredProperty("security.key"));
+                new PaymentLoadTest(settings, baseUrl, accessToken).run();
+            }
+        }
+    }
+
+    /**
+     * Run the warmup and the measurement, and print the report of the measurement
+     *
+     * @throws InterruptedException when the load test is interrupted
+     */
+    public void run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + settings.getWarmup().toNanos();
+        long end = measureFrom + settings.getDuration().toNanos();
+        System.out.printf("Running %d threads for %s after a warmup of %s%n", settings.getThreads(),
+                settings.getDuration(), settings.getWarmup());
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getThreads());
+        for (int index = 0; index < settings.getThreads(); index++) {
+            executor.execute(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    call(schedule[ThreadLocalRandom.current().nextInt(schedule.length)]);
+                }
+            });
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(end - start + TimeUnit.MINUTES.toNanos(1), TimeUnit.NANOSECONDS)) {
+            executor.shutdownNow();
+        }
+        printReport(settings.getDuration());
+    }
+
+    private void call(Endpoint endpoint) {
+        HttpRequest request;
+        String studentId = null;
+        switch (endpoint) {
+            case CREATE:
+                int count = createCount.getAndIncrement();
+                studentId = StubStudentService.STUDENT_ID_PREFIX + count % settings.getRosterSize();
+                request = createPaymentRequest(count, studentId);
+                break;
+            case UPDATE:
+                request = updatePaymentRequest();
+                if (request == null) {
+                    return;
+                }
+                break;
+            case LIST:
+                request = get(CONTEXT_PATH + settings.getReadPath() + "?size=" + settings.getPageSize());
+                break;
+            default:
+                request = reportRequest();
+        }
+        long callStart = System.nanoTime();
+        boolean succeeded;
+        try {
+            var response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            succeeded = response.statusCode() < 400;
+            if (succeeded && endpoint == Endpoint.CREATE) {
+                rememberPayment(response.body(), studentId);
+            }
+        } catch (IOException e) {
+            succeeded = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long callEnd = System.nanoTime();
+        if (callStart >= measureFrom) {
+            stats.get(endpoint).record(callEnd - callStart, succeeded);
+        }
+    }
+
+    /**
+     * Every create pays a new month for the next student of the roster, so none of them is rejected as already paid
+     *
+     * @param count     number of the create
+     * @param studentId student id
+     * @return HttpRequest
+     */
+    private HttpRequest createPaymentRequest(int count, String studentId) {
+        var paymentRequestDto = new PaymentRequestDto();
+        paymentRequestDto.setStudentId(studentId);
+        paymentRequestDto.setPaymentMonth(paymentMonth(FIRST_YEAR, count / settings.getRosterSize()));
+        return send("POST", PAYMENT_URL, paymentRequestDto.toJson());
+    }
+
+    /**
+     * Every update moves a recently made payment to a month not used by any other payment
+     *
+     * @return HttpRequest, null when no payment is made yet
+     */
+    private HttpRequest updatePaymentRequest() {
+        int filledSlots = Math.min(paymentCount.get(), PAYMENT_SLOTS);
+        if (filledSlots == 0) {
+            return null;
+        }
+        String[] payment = payments.get(ThreadLocalRandom.current().nextInt(filledSlots));
+        if (payment == null) {
+            return null;
+        }
+        var updatePaymentRequestDto = new UpdatePaymentRequestDto();
+        updatePaymentRequestDto.setPaymentId(payment[0]);
+        updatePaymentRequestDto.setStudentId(payment[1]);
+        updatePaymentRequestDto.setPaymentMonth(paymentMonth(FIRST_UPDATE_YEAR, updateCount.getAndIncrement()));
+        return send("PUT", PAYMENT_URL, updatePaymentRequestDto.toJson());
+    }
+
+    /**
+     * Report the month currently being paid
+     *
+     * @return HttpRequest
+     */
+    private HttpRequest reportRequest() {
+        var paymentMonth = paymentMonth(FIRST_YEAR, createCount.get() / settings.getRosterSize());
+        return get((CONTEXT_PATH + settings.getReadPath() + REPORT_PATH).replace("##MONTH##", paymentMonth.getMonth())
+                .replace("##YEAR##", String.valueOf(paymentMonth.getYear())) + "?size=" + settings.getPageSize());
+    }
+
+    private void rememberPayment(byte[] body, String studentId) {
+        try {
+            String paymentId = OBJECT_MAPPER.readTree(body).path("data").path("paymentId").asText(null);
+            if (paymentId != null) {
+                payments.set(paymentCount.getAndIncrement() % PAYMENT_SLOTS, new String[]{paymentId, studentId});
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("The payment response couldn't be read", e);
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header(Constants.TOKEN_HEADER, accessToken)
+                .GET().build();
+    }
+
+    private HttpRequest send(String method, String path, String body) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header(Constants.TOKEN_HEADER, accessToken)
+                .header("Content-Type", "application/json")
+                .method(method, HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+
+    private void printReport(Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%-8s %10s %8s %12s %10s %10s %10s %10s%n", "Endpoint", "Requests", "Errors",
+                "Throughput/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+        stats.forEach((endpoint, endpointStats) -> {
+            Histogram histogram = endpointStats.latencies;
+            System.out.printf("%-8s %10d %8d %12.1f %10.2f %10.2f %10.2f %10.2f%n", endpoint.name().toLowerCase(),
+                    histogram.getTotalCount(), endpointStats.errors.sum(), histogram.getTotalCount() / seconds,
+                    toMillis(histogram.getValueAtPercentile(50)), toMillis(histogram.getValueAtPercentile(99)),
+                    toMillis(histogram.getValueAtPercentile(99.9)), toMillis(histogram.getMaxValue()));
+        });
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static PaymentMonthDto paymentMonth(int firstYear, int index) {
+        var month = Month.of(index % 12 + 1).getDisplayName(TextStyle.FULL, Locale.ENGLISH);
+        return new PaymentMonthDto(month, firstYear + index / 12);
+    }
+
+    private static Endpoint[] createSchedule(Map<Endpoint, Integer> weights) {
+        List<Endpoint> schedule = new ArrayList<>();
+        weights.forEach((endpoint, weight) -> schedule.addAll(Collections.nCopies(weight, endpoint)));
+        if (schedule.isEmpty()) {
+            throw new IllegalArgumentException("The load test mix has no endpoint");
+        }
+        return schedule.toArray(new Endpoint[0]);
+    }
+
+    private static LoadTestSettings loadSettings(String[] args) throws IOException {
+        var environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+        new YamlPropertySourceLoader().load("loadtest", new ClassPathResource("application-loadtest.yml"))
+                .forEach(environment.getPropertySources()::addLast);
+        return Binder.get(environment).bind("loadtest", LoadTestSettings.class)
+                .orElseThrow(() -> new IllegalStateException("The load test settings are missing"));
+    }
+
+    private static StubStudentService startStandIn(LoadTestSettings settings) {
+        return StubStudentService.start(0, 32, settings.getRosterSize(), settings.getTuitionClassCount())
+                .withLatency(settings.getLatency().toMillis())
+                .withErrorRate(settings.getErrorRate());
+    }
+
+    private static String createAccessToken(String key) {
+        return JWT.create().withClaim("username", "loadtest")
+                .withClaim("authorities", List.of("ADMIN"))
+                .withExpiresAt(new Date(System.currentTimeMillis() + TimeUnit.DAYS.toMillis(1)))
+                .sign(Algorithm.HMAC256(key));
+    }
+
+    private static final class EndpointStats {
+        private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(1), 3);
+        private final LongAdder errors = new LongAdder();
+
+        private void record(long latencyNanos, boolean succeeded) {
+            latencies.recordValue(Math.min(latencyNanos, latencies.getHighestTrackableValue()));
+            if (!succeeded) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.cms.payment.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-process snapshot cache for a remote directory (students, tuition classes).
+ * <p>
+ * The whole directory is kept as one immutable snapshot. Reads after {@code refreshAfter} trigger a single
+ * background reload while the current snapshot keeps being served. Reads after {@code ttl} block on a reload
+ * unless another reload is already in flight, in which case the stale snapshot is served.
+ * Snapshots larger than {@code maxEntries} are returned to the caller but never retained.
+ *
+ * @param <V> directory entry type
+ */
+@Slf4j
+public class DirectoryCache<V> {
+    private final String name;
+    private final long ttlMillis;
+    private final long refreshAfterMillis;
+    private final int maxEntries;
+    private final Executor refreshExecutor;
+    private final Clock clock;
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot<V> snapshot;
+
+    public DirectoryCache(String name, Duration ttl, Duration refreshAfter, int maxEntries,
+                          Executor refreshExecutor, Clock clock) {
+        this.name = name;
+        this.ttlMillis = ttl.toMillis();
+        this.refreshAfterMillis = Math.min(refreshAfter.toMillis(), ttl.toMillis());
+        this.maxEntries = maxEntries;
+        this.refreshExecutor = refreshExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the cached directory, loading or refreshing it with the given loader when required
+     *
+     * @param loader directory loader
+     * @return unmodifiable directory map
+     */
+    public Map<String, V> get(Supplier<Map<String, V>> loader) {
+        Snapshot<V> current = snapshot;
+        long now = clock.millis();
+        if (current == null || (now - current.loadedAt >= ttlMillis && !refreshing.get())) {
+            return load(loader);
+        }
+        if (now - current.loadedAt >= refreshAfterMillis) {
+            refreshAsync(loader);
+        }
+        return current.entries;
+    }
+
+    /**
+     * Get the cached directory without loading it
+     *
+     * @return unmodifiable directory map, or null when nothing is cached or the snapshot is expired
+     */
+    public Map<String, V> peek() {
+        Snapshot<V> current = snapshot;
+        if (current == null || clock.millis() - current.loadedAt >= ttlMillis) {
+            return null;
+        }
+        return current.entries;
+    }
+
+    /**
+     * Get the last loaded directory regardless of its age, to be served while the remote directory is unavailable
+     *
+     * @return unmodifiable directory map, or null when nothing is cached
+     */
+    public Map<String, V> peekLastGood() {
+        Snapshot<V> current = snapshot;
+        return current == null ? null : current.entries;
+    }
+
+    /**
+     * Cache a directory loaded by the caller
+     *
+     * @param entries directory map
+     * @return unmodifiable directory map
+     */
+    public Map<String, V> put(Map<String, V> entries) {
+        return store(entries);
+    }
+
+    /**
+     * Drop the cached snapshot so the next read reloads it
+     */
+    public void invalidate() {
+        snapshot = null;
+    }
+
+    /**
+     * Get the version of the current snapshot. It is derived from the entries, so the same directory gets the same
+     * version on every load and on every instance.
+     *
+     * @return version, or null when nothing is cached or the snapshot is expired
+     */
+    public Integer getVersion() {
+        Snapshot<V> current = snapshot;
+        if (current == null || clock.millis() - current.loadedAt >= ttlMillis) {
+            return null;
+        }
+        return current.version;
+    }
+
+    /**
+     * Get the load time of the current snapshot
+     *
+     * @return epoch millis of the last load, or -1 when nothing is cached
+     */
+    public long getLoadedAt() {
+        Snapshot<V> current = snapshot;
+        return current == null ? -1 : current.loadedAt;
+    }
+
+    private Map<String, V> load(Supplier<Map<String, V>> loader) {
+        // The remote load runs under the lock, which would pin a virtual thread to its carrier with a monitor
+        loadLock.lock();
+        try {
+            Snapshot<V> current = snapshot;
+            if (current != null && clock.millis() - current.loadedAt < ttlMillis) {
+                return current.entries;
+            }
+            return store(loader.get());
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void refreshAsync(Supplier<Map<String, V>> loader) {
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    store(loader.get());
+                } catch (RuntimeException e) {
+                    log.warn("Refreshing the {} directory is failed. Serving the previous snapshot. Error message: {}",
+                            name, e.getMessage());
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("The refresh executor is saturated. The {} directory is refreshed on a later read", name);
+            refreshing.set(false);
+        }
+    }
+
+    private Map<String, V> store(Map<String, V> entries) {
+        Map<String, V> immutableEntries = Collections.unmodifiableMap(entries);
+        if (entries.size() > maxEntries) {
+            log.warn("The {} directory has {} entries which exceeds the cache limit {}. It is not cached.",
+                    name, entries.size(), maxEntries);
+            snapshot = null;
+            return immutableEntries;
+        }
+        snapshot = new Snapshot<>(immutableEntries, clock.millis());
+        return immutableEntries;
+    }
+
+    private static final class Snapshot<V> {
+        private final Map<String, V> entries;
+        private final long loadedAt;
+        private final int version;
+
+        private Snapshot(Map<String, V> entries, long loadedAt) {
+            this.entries = entries;
+            this.loadedAt = loadedAt;
+            this.version = entries.hashCode();
+        }
+    }
+}
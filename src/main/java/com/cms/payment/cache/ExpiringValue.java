@@ -0,0 +1,60 @@
+package com.cms.payment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cached value with its own expiry time, evicted by the bounded Caffeine caches built here.
+ *
+ * @param <V> value type
+ */
+final class ExpiringValue<V> {
+    private final V value;
+    private final long expiresAt;
+
+    ExpiringValue(V value, long expiresAt) {
+        this.value = value;
+        this.expiresAt = expiresAt;
+    }
+
+    V getValue() {
+        return value;
+    }
+
+    /**
+     * Build a cache holding at most {@code maxEntries} values, each expiring at its own epoch millis on the clock
+     *
+     * @param maxEntries maximum number of entries
+     * @param clock      clock of the expiry times
+     * @param <V>        value type
+     * @return cache
+     */
+    static <V> Cache<String, ExpiringValue<V>> newCache(int maxEntries, Clock clock) {
+        return Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<String, ExpiringValue<V>>() {
+                    @Override
+                    public long expireAfterCreate(String key, ExpiringValue<V> value, long currentTime) {
+                        return Math.max(TimeUnit.MILLISECONDS.toNanos(value.expiresAt) - currentTime, 0);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, ExpiringValue<V> value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, ExpiringValue<V> value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+}
@@ -0,0 +1,64 @@
+package com.cms.payment.cache;
+
+import com.cms.payment.domain.entity.IdempotencyRecord;
+import com.github.benmanes.caffeine.cache.Cache;
+
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Bounded cache of the completed idempotency records, in front of the idempotency key table.
+ * <p>
+ * Every entry expires when the retention of its key passes, the same time the key is deleted from the table. When the
+ * cache is full the records least likely to be used again are evicted, and their replays are read from the table.
+ */
+public class IdempotencyCache {
+    private final int maxEntries;
+    private final Duration retention;
+    private final Clock clock;
+    private final Cache<String, ExpiringValue<IdempotencyRecord>> entries;
+
+    public IdempotencyCache(int maxEntries, Duration retention, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.retention = retention;
+        this.clock = clock;
+        this.entries = ExpiringValue.newCache(maxEntries, clock);
+    }
+
+    /**
+     * Get the completed record of an idempotency key
+     *
+     * @param idempotencyKey idempotency key
+     * @return completed record, or null when the key is not cached or is expired
+     */
+    public IdempotencyRecord get(String idempotencyKey) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        ExpiringValue<IdempotencyRecord> entry = entries.getIfPresent(idempotencyKey);
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Cache a completed record until the retention of its key passes
+     *
+     * @param idempotencyRecord completed idempotency record
+     */
+    public void put(IdempotencyRecord idempotencyRecord) {
+        long expiresAt = idempotencyRecord.getCreatedAt().getTime() + retention.toMillis();
+        if (maxEntries <= 0 || !idempotencyRecord.isCompleted() || expiresAt <= clock.millis()) {
+            return;
+        }
+        entries.put(idempotencyRecord.getIdempotencyKey(), new ExpiringValue<>(idempotencyRecord, expiresAt));
+    }
+
+    /**
+     * Get the number of cached keys, after the expired ones are evicted
+     *
+     * @return cached key count
+     */
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+}
@@ -0,0 +1,192 @@
+package com.cms.payment.cache;
+
+import com.cms.payment.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the students who paid for a billing month.
+ * <p>
+ * Students are given dense ordinals on first sight and every month keeps a bitmap over those ordinals, so a month
+ * costs one bit per student of the roster. A month is loaded from the database with one query on its first read
+ * and kept up to date by the payments made, moved and deleted through this instance. As payments made through other
+ * instances are not seen, a month is reloaded once it is older than {@code ttl}. At most {@code maxMonths} months
+ * are kept, dropping the least recently read one.
+ */
+@Slf4j
+@Component
+public class PaidStudentIndex {
+    private final PaymentRepository paymentRepository;
+    private final long ttlMillis;
+    private final int maxMonths;
+    private final Clock clock;
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private final Map<Integer, MonthIndex> months = new ConcurrentHashMap<>();
+    private final Object ordinalLock = new Object();
+    private volatile String[] studentIds = new String[1024];
+
+    @Autowired
+    public PaidStudentIndex(PaymentRepository paymentRepository,
+                            @Value("${payment.paidIndex.ttl:PT5M}") Duration ttl,
+                            @Value("${payment.paidIndex.maxMonths:36}") int maxMonths) {
+        this(paymentRepository, ttl, maxMonths, Clock.systemUTC());
+    }
+
+    public PaidStudentIndex(PaymentRepository paymentRepository, Duration ttl, int maxMonths, Clock clock) {
+        this.paymentRepository = paymentRepository;
+        this.ttlMillis = ttl.toMillis();
+        this.maxMonths = maxMonths;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the ids of the students who paid for a month, loading the month from the database when required
+     *
+     * @param paymentPeriod payment period as yyyymm
+     * @return unmodifiable student id set
+     */
+    public Set<String> getPaidStudentIds(int paymentPeriod) {
+        MonthIndex month = months.computeIfAbsent(paymentPeriod, period -> new MonthIndex());
+        BitSet paid;
+        month.lock.lock();
+        try {
+            long now = clock.millis();
+            if (month.loadedAt < 0 || now - month.loadedAt >= ttlMillis) {
+                month.paid = load(paymentPeriod);
+                month.loadedAt = now;
+            }
+            month.readAt = now;
+            paid = (BitSet) month.paid.clone();
+        } finally {
+            month.lock.unlock();
+        }
+        evict();
+        return new PaidStudents(paid);
+    }
+
+    /**
+     * Mark a student paid for a month. Months not loaded are left to be read from the database.
+     *
+     * @param paymentPeriod payment period as yyyymm
+     * @param studentId     student id
+     */
+    public void markPaid(Integer paymentPeriod, String studentId) {
+        update(paymentPeriod, studentId, true);
+    }
+
+    /**
+     * Mark a student not paid for a month. Months not loaded are left to be read from the database.
+     *
+     * @param paymentPeriod payment period as yyyymm
+     * @param studentId     student id
+     */
+    public void markUnpaid(Integer paymentPeriod, String studentId) {
+        update(paymentPeriod, studentId, false);
+    }
+
+    private void update(Integer paymentPeriod, String studentId, boolean paid) {
+        if (paymentPeriod == null || studentId == null) {
+            return;
+        }
+        MonthIndex month = months.get(paymentPeriod);
+        if (month == null) {
+            return;
+        }
+        int ordinal = ordinalOf(studentId);
+        month.lock.lock();
+        try {
+            if (month.loadedAt >= 0) {
+                month.paid.set(ordinal, paid);
+            }
+        } finally {
+            month.lock.unlock();
+        }
+    }
+
+    private BitSet load(int paymentPeriod) {
+        BitSet paid = new BitSet(ordinals.size());
+        for (String studentId : paymentRepository.findPaidStudentIds(paymentPeriod)) {
+            paid.set(ordinalOf(studentId));
+        }
+        log.debug("The paid student index of {} is loaded with {} students", paymentPeriod, paid.cardinality());
+        return paid;
+    }
+
+    private void evict() {
+        while (months.size() > maxMonths) {
+            months.entrySet().stream()
+                    .min(Comparator.comparingLong(entry -> entry.getValue().readAt))
+                    .ifPresent(entry -> months.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private int ordinalOf(String studentId) {
+        Integer ordinal = ordinals.get(studentId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        synchronized (ordinalLock) {
+            ordinal = ordinals.get(studentId);
+            if (ordinal == null) {
+                ordinal = ordinals.size();
+                String[] ids = studentIds;
+                if (ordinal == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[ordinal] = studentId;
+                studentIds = ids;
+                ordinals.put(studentId, ordinal);
+            }
+            return ordinal;
+        }
+    }
+
+    /**
+     * Bitmap of a month. The lock is held while the month is loaded from the database, so it is a
+     * {@link ReentrantLock} rather than a monitor, which would pin a virtual thread to its carrier for the query.
+     */
+    private static final class MonthIndex {
+        private final ReentrantLock lock = new ReentrantLock();
+        private BitSet paid = new BitSet();
+        private long loadedAt = -1;
+        private volatile long readAt;
+    }
+
+    /**
+     * Read only student id set view over a snapshot of a month bitmap
+     */
+    private final class PaidStudents extends AbstractSet<String> {
+        private final BitSet paid;
+        private final int size;
+
+        private PaidStudents(BitSet paid) {
+            this.paid = paid;
+            this.size = paid.cardinality();
+        }
+
+        @Override
+        public boolean contains(Object studentId) {
+            Integer ordinal = studentId == null ? null : ordinals.get(studentId);
+            return ordinal != null && paid.get(ordinal);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            String[] ids = studentIds;
+            return paid.stream().mapToObj(ordinal -> ids[ordinal]).iterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
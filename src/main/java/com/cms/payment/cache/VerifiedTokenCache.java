@@ -0,0 +1,77 @@
+package com.cms.payment.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.security.core.Authentication;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+
+/**
+ * Bounded cache of the authentications resolved from verified access tokens.
+ * <p>
+ * Tokens are keyed by their SHA-256 digest, so the raw tokens are not retained. Every entry expires at the
+ * {@code exp} of its token. When the cache is full the tokens least likely to be used again are evicted, and are
+ * verified again on their next use.
+ */
+public class VerifiedTokenCache {
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private final int maxEntries;
+    private final Clock clock;
+    private final Cache<String, ExpiringValue<Authentication>> entries;
+
+    public VerifiedTokenCache(int maxEntries, Clock clock) {
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+        this.entries = ExpiringValue.newCache(maxEntries, clock);
+    }
+
+    /**
+     * Get the authentication of a token verified before
+     *
+     * @param token access token
+     * @return authentication, or null when the token is not cached or is expired
+     */
+    public Authentication get(String token) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        ExpiringValue<Authentication> entry = entries.getIfPresent(digest(token));
+        return entry == null ? null : entry.getValue();
+    }
+
+    /**
+     * Cache the authentication of a verified token until the token expires
+     *
+     * @param token          access token
+     * @param authentication authentication resolved from the token
+     * @param expiresAt      epoch millis of the token expiry
+     */
+    public void put(String token, Authentication authentication, long expiresAt) {
+        if (maxEntries <= 0 || expiresAt <= clock.millis()) {
+            return;
+        }
+        entries.put(digest(token), new ExpiringValue<>(authentication, expiresAt));
+    }
+
+    /**
+     * Get the number of cached tokens, after the expired ones are evicted
+     *
+     * @return cached token count
+     */
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.cms.payment.configuration;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the usage of the outbound http connection pool and publishes it as the {@code http.client.pool.*} gauges
+ */
+@Slf4j
+@Component
+public class HttpClientPoolMonitor implements MeterBinder {
+    private final PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    public HttpClientPoolMonitor(PoolingHttpClientConnectionManager connectionManager) {
+        this.connectionManager = connectionManager;
+    }
+
+    /**
+     * Get the current totals of the connection pool
+     *
+     * @return PoolStats
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("http.client.pool.leased", connectionManager, manager -> manager.getTotalStats().getLeased())
+                .register(registry);
+        Gauge.builder("http.client.pool.available", connectionManager,
+                manager -> manager.getTotalStats().getAvailable()).register(registry);
+        Gauge.builder("http.client.pool.pending", connectionManager, manager -> manager.getTotalStats().getPending())
+                .register(registry);
+        Gauge.builder("http.client.pool.max", connectionManager, manager -> manager.getTotalStats().getMax())
+                .register(registry);
+    }
+
+    @Scheduled(fixedDelayString = "${http.client.poolStatsInterval:60000}")
+    public void logPoolStats() {
+        if (log.isDebugEnabled()) {
+            PoolStats stats = connectionManager.getTotalStats();
+            log.debug("Http connection pool leased: {} available: {} pending: {} max: {}", stats.getLeased(),
+                    stats.getAvailable(), stats.getPending(), stats.getMax());
+        }
+    }
+}
@@ -4,10 +4,11 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.cms.payment.cache.VerifiedTokenCache;
 import com.cms.payment.utills.Constants;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -17,32 +18,38 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
- * Jwt validation Configuration
+ * Jwt validation Configuration.
+ * The verifier is built once and the authentications of verified tokens are cached until the tokens expire,
+ * so a token is verified and decoded once for all the requests made with it.
  */
 public class JwtValidator extends OncePerRequestFilter {
-    private final String key;
+    private static final Set<String> WHITE_LIST = Set.of("/v2/api-docs", "/swagger-resources", "/swagger-ui/",
+            "/swagger-ui/springfox.css", "/swagger-ui/swagger-ui-bundle.js", "/swagger-ui/swagger-ui.css",
+            "/swagger-resources/configuration/security", "/swagger-resources/configuration/ui",
+            "/swagger-ui/springfox.js", "/swagger-ui/swagger-ui-standalone-preset.js", "/swagger-ui/favicon-32x32.png",
+            "/actuator/health");
+    private final JWTVerifier jwtVerifier;
+    private final VerifiedTokenCache tokenCache;
 
-    public JwtValidator(@Value("${security.key}") String key) {
-        this.key = key;
+    public JwtValidator(String key, VerifiedTokenCache tokenCache) {
+        this.jwtVerifier = JWT.require(Algorithm.HMAC256(key)).build();
+        this.tokenCache = tokenCache;
     }
 
     @Override
     protected void doFilterInternal(HttpServletRequest httpServletRequest, HttpServletResponse httpServletResponse, FilterChain filterChain) throws ServletException, IOException {
         String jwtToken = httpServletRequest.getHeader(Constants.TOKEN_HEADER);
         if (jwtToken != null) {
-            JWTVerifier jwtVerifier = JWT.require(Algorithm.HMAC256(key)).build();
-            DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
-            String userName = decodedJWT.getClaim("username").toString();
-            var roles = decodedJWT.getClaim("authorities").asList(String.class);
-            List<SimpleGrantedAuthority> authorityList = roles.stream().map(SimpleGrantedAuthority::new)
-                    .collect(Collectors.toList());
-            SecurityContextHolder.getContext()
-                    .setAuthentication(new UsernamePasswordAuthenticationToken(userName, null, authorityList));
+            Authentication authentication = tokenCache.get(jwtToken);
+            if (authentication == null) {
+                authentication = verify(jwtToken);
+            }
+            SecurityContextHolder.getContext().setAuthentication(authentication);
         } else {
             throw new BadCredentialsException("Invalid JWT token");
         }
@@ -51,12 +58,25 @@ public class JwtValidator extends OncePerRequestFilter {
 
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request){
-        String[] requests = {"/v2/api-docs", "/swagger-resources", "/swagger-ui/", "/swagger-ui/springfox.css",
-                "/swagger-ui/swagger-ui-bundle.js", "/swagger-ui/swagger-ui.css",
-                "/swagger-resources/configuration/security", "/swagger-resources/configuration/ui",
-                "/swagger-ui/springfox.js", "/swagger-ui/swagger-ui-standalone-preset.js", "/swagger-ui/favicon-32x32.png"
-        };
-        List<String> requestList = Arrays.asList(requests);
-        return requestList.contains(request.getServletPath());
+        return WHITE_LIST.contains(request.getServletPath());
+    }
+
+    /**
+     * Verify the token and cache its authentication until the token expires. Tokens without an expiry are not cached.
+     *
+     * @param jwtToken access token
+     * @return Authentication
+     */
+    private Authentication verify(String jwtToken) {
+        DecodedJWT decodedJWT = jwtVerifier.verify(jwtToken);
+        String userName = decodedJWT.getClaim("username").toString();
+        var roles = decodedJWT.getClaim("authorities").asList(String.class);
+        List<SimpleGrantedAuthority> authorityList = roles.stream().map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        var authentication = new UsernamePasswordAuthenticationToken(userName, null, authorityList);
+        if (decodedJWT.getExpiresAt() != null) {
+            tokenCache.put(jwtToken, authentication, decodedJWT.getExpiresAt().getTime());
+        }
+        return authentication;
     }
 }
@@ -0,0 +1,56 @@
+package com.cms.payment.configuration;
+
+import com.cms.payment.outbox.FilePaymentEventSink;
+import com.cms.payment.outbox.InMemoryPaymentEventSink;
+import com.cms.payment.outbox.PaymentEventSink;
+import com.cms.payment.outbox.PaymentOutboxRelay;
+import com.cms.payment.repository.PaymentEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Payment event outbox relay, enabled with {@code payment.outbox.enabled}. The events are published to the sink
+ * selected by {@code payment.outbox.sink}: {@code file} or {@code memory}. Any other value leaves the sink to a
+ * {@link PaymentEventSink} bean defined elsewhere.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payment.outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "payment.outbox.sink", havingValue = "file", matchIfMissing = true)
+    public FilePaymentEventSink filePaymentEventSink(
+            @Value("${payment.outbox.file:./log/payment-events.ndjson}") Path file, ObjectMapper objectMapper)
+            throws IOException {
+        return new FilePaymentEventSink(file, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "payment.outbox.sink", havingValue = "memory")
+    public InMemoryPaymentEventSink inMemoryPaymentEventSink(
+            @Value("${payment.outbox.memoryCapacity:10000}") int capacity) {
+        return new InMemoryPaymentEventSink(capacity);
+    }
+
+    @Bean
+    public PaymentOutboxRelay paymentOutboxRelay(PaymentEventRepository paymentEventRepository,
+                                                 PaymentEventSink paymentEventSink,
+                                                 PlatformTransactionManager transactionManager,
+                                                 @Value("${payment.outbox.batchSize:100}") int batchSize,
+                                                 @Value("${payment.outbox.retention:P7D}") Duration retention,
+                                                 MeterRegistry meterRegistry) {
+        return new PaymentOutboxRelay(paymentEventRepository, paymentEventSink,
+                new TransactionTemplate(transactionManager), batchSize, retention, meterRegistry, Clock.systemUTC());
+    }
+}
@@ -0,0 +1,54 @@
+package com.cms.payment.configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Non-blocking web client of the student and tuition services and the bounded scheduler the blocking database
+ * queries of the reactive read API are offloaded to
+ */
+@Configuration
+public class ReactiveConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider directoryConnectionProvider(@Value("${http.client.maxTotal:200}") int maxTotal,
+                                                          @Value("${http.client.idleTimeout:PT30S}") Duration idleTimeout,
+                                                          @Value("${http.client.timeToLive:PT5M}") Duration timeToLive) {
+        return ConnectionProvider.builder("directory")
+                .maxConnections(maxTotal)
+                .maxIdleTime(idleTimeout)
+                .maxLifeTime(timeToLive)
+                .build();
+    }
+
+    @Bean
+    public WebClient directoryWebClient(WebClient.Builder webClientBuilder,
+                                        ConnectionProvider directoryConnectionProvider,
+                                        @Value("${http.client.connectTimeout:PT2S}") Duration connectTimeout,
+                                        @Value("${http.client.readTimeout:PT5S}") Duration readTimeout,
+                                        @Value("${payment.reactive.maxResponseSize:16777216}") int maxResponseSize) {
+        var httpClient = HttpClient.create(directoryConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseSize))
+                .build();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler paymentQueryScheduler(@Value("${payment.reactive.queryThreads:10}") int queryThreads,
+                                           @Value("${payment.reactive.queryQueueCapacity:1000}") int queueCapacity) {
+        return Schedulers.newBoundedElastic(queryThreads, queueCapacity, "payment-query");
+    }
+}
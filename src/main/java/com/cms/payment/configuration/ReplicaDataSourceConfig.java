@@ -0,0 +1,86 @@
+package com.cms.payment.configuration;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica routing, enabled when {@code payment.datasource.replicaUrls} is set. Read-only transactions are served
+ * by the replica pools in turn and everything else by the primary {@code spring.datasource}.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnExpression("!'${payment.datasource.replicaUrls:}'.isBlank()")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties dataSourceProperties,
+                                                             @Value("${payment.datasource.replicaUrls}") List<String> replicaUrls,
+                                                             @Value("${payment.datasource.replicaUsername:${spring.datasource.username:}}") String username,
+                                                             @Value("${payment.datasource.replicaPassword:${spring.datasource.password:}}") String password,
+                                                             @Value("${payment.datasource.replicaPoolSize:10}") int poolSize,
+                                                             @Value("${payment.datasource.replicaConnectionTimeout:PT1S}") Duration connectionTimeout,
+                                                             @Value("${payment.datasource.replicaRetryAfter:PT30S}") Duration retryAfter) {
+        List<DataSource> replicas = new ArrayList<>();
+        for (String replicaUrl : replicaUrls) {
+            var config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(replicaUrl.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            config.setMaximumPoolSize(poolSize);
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setReadOnly(true);
+            // A replica which is down at startup is retried on use instead of failing the startup
+            config.setInitializationFailTimeout(-1);
+            replicas.add(new HikariDataSource(config));
+        }
+        log.info("Read-only transactions are routed to {} replicas", replicas.size());
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, retryAfter, Clock.systemUTC());
+    }
+
+    /**
+     * Publish the pool metrics of the replicas. The replica pools are not beans, so the pool metrics of Spring Boot
+     * cover the primary only.
+     *
+     * @param replicaRoutingDataSource replica routing data source
+     * @return MeterBinder
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return meterRegistry -> replicaRoutingDataSource.getReplicas().stream()
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .forEach(replica -> replica.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry)));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,98 @@
+package com.cms.payment.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Data source giving the connections of read-only transactions from the replicas in turn, and every other connection
+ * from the primary.
+ * <p>
+ * A replica failing to give a connection is skipped for {@code retryAfter}, and the primary is used while no replica
+ * is available. The read-only flag of the transaction is known only after the transaction is started, so this data
+ * source has to be used through a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+    private final DataSource primary;
+    private final List<DataSource> replicas;
+    private final long retryAfterMillis;
+    private final Clock clock;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final AtomicLongArray unavailableUntil;
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration retryAfter, Clock clock) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.retryAfterMillis = retryAfter.toMillis();
+        this.clock = clock;
+        this.unavailableUntil = new AtomicLongArray(replicas.size());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return primary.getConnection();
+        }
+        return getReplicaConnection();
+    }
+
+    /**
+     * Get the replica data sources
+     *
+     * @return replicas
+     */
+    public List<DataSource> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Close the replica pools. The primary is left to its owner.
+     *
+     * @throws IOException when closing a replica pool is failed
+     */
+    @Override
+    public void close() throws IOException {
+        for (DataSource replica : replicas) {
+            if (replica instanceof Closeable) {
+                ((Closeable) replica).close();
+            }
+        }
+    }
+
+    private Connection getReplicaConnection() throws SQLException {
+        int first = Math.floorMod(nextReplica.getAndIncrement(), replicas.size());
+        for (int offset = 0; offset < replicas.size(); offset++) {
+            int index = (first + offset) % replicas.size();
+            long now = clock.millis();
+            if (unavailableUntil.get(index) > now) {
+                continue;
+            }
+            try {
+                return replicas.get(index).getConnection();
+            } catch (SQLException e) {
+                unavailableUntil.set(index, now + retryAfterMillis);
+                log.warn("Getting a connection from the replica {} is failed. It is skipped for {} ms. Error message: {}",
+                        index + 1, retryAfterMillis, e.getMessage());
+            }
+        }
+        log.debug("No replica is available. The read-only transaction uses the primary");
+        return primary.getConnection();
+    }
+}
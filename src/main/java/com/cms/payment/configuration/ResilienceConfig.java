@@ -0,0 +1,63 @@
+package com.cms.payment.configuration;
+
+import com.cms.payment.service.RemoteServiceGuard;
+import com.cms.payment.utills.VirtualThreads;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Guards of the student and tuition class service calls, each with its own circuit breaker and bulkhead. In the
+ * virtual thread mode the calls run on virtual threads.
+ */
+@Configuration
+public class ResilienceConfig {
+    private final Duration timeout;
+    private final CircuitBreakerConfig circuitBreakerConfig;
+    private final ThreadPoolBulkheadConfig bulkheadConfig;
+    private final RetryConfig retryConfig;
+    private final MeterRegistry meterRegistry;
+    private final boolean virtualThreads;
+
+    public ResilienceConfig(@Value("${directory.resilience.timeout:PT5S}") Duration timeout,
+                            @Value("${directory.resilience.failureRateThreshold:50}") float failureRateThreshold,
+                            @Value("${directory.resilience.slidingWindowSize:20}") int slidingWindowSize,
+                            @Value("${directory.resilience.waitInOpenState:PT30S}") Duration waitInOpenState,
+                            @Value("${directory.resilience.maxConcurrentCalls:10}") int maxConcurrentCalls,
+                            @Value("${directory.resilience.queueCapacity:20}") int queueCapacity,
+                            @Value("${directory.resilience.maxAttempts:3}") int maxAttempts,
+                            @Value("${directory.resilience.initialBackoff:PT0.2S}") Duration initialBackoff,
+                            MeterRegistry meterRegistry,
+                            @Value("${payment.virtualThreads.enabled:false}") boolean virtualThreads) {
+        this.timeout = timeout;
+        this.circuitBreakerConfig = RemoteServiceGuard.circuitBreakerConfig(failureRateThreshold, slidingWindowSize,
+                waitInOpenState);
+        this.bulkheadConfig = RemoteServiceGuard.bulkheadConfig(maxConcurrentCalls, queueCapacity);
+        this.retryConfig = RemoteServiceGuard.retryConfig(maxAttempts, initialBackoff);
+        this.meterRegistry = meterRegistry;
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public RemoteServiceGuard studentServiceGuard() {
+        return new RemoteServiceGuard("student", timeout, circuitBreakerConfig, bulkheadConfig, retryConfig,
+                meterRegistry, callExecutor("student"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public RemoteServiceGuard tuitionServiceGuard() {
+        return new RemoteServiceGuard("tuition", timeout, circuitBreakerConfig, bulkheadConfig, retryConfig,
+                meterRegistry, callExecutor("tuition"));
+    }
+
+    private ExecutorService callExecutor(String name) {
+        return virtualThreads ? VirtualThreads.newThreadPerTaskExecutor(name + "-call-") : null;
+    }
+}
@@ -1,13 +1,60 @@
 package com.cms.payment.configuration;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rest template backed by a pooled keep-alive http client
+ */
 @Configuration
 public class RestTemplateConfig {
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager httpClientConnectionManager(
+            @Value("${http.client.maxTotal:200}") int maxTotal,
+            @Value("${http.client.maxPerRoute:50}") int maxPerRoute,
+            @Value("${http.client.timeToLive:PT5M}") Duration timeToLive,
+            @Value("${http.client.validateAfterInactivity:PT2S}") Duration validateAfterInactivity) {
+        var connectionManager = new PoolingHttpClientConnectionManager(timeToLive.toMillis(), TimeUnit.MILLISECONDS);
+        connectionManager.setMaxTotal(maxTotal);
+        connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+        connectionManager.setValidateAfterInactivity((int) validateAfterInactivity.toMillis());
+        return connectionManager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient httpClient(PoolingHttpClientConnectionManager httpClientConnectionManager,
+                                          @Value("${http.client.connectTimeout:PT2S}") Duration connectTimeout,
+                                          @Value("${http.client.readTimeout:PT5S}") Duration readTimeout,
+                                          @Value("${http.client.connectionRequestTimeout:PT1S}") Duration connectionRequestTimeout,
+                                          @Value("${http.client.idleTimeout:PT30S}") Duration idleTimeout) {
+        var requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) connectTimeout.toMillis())
+                .setSocketTimeout((int) readTimeout.toMillis())
+                .setConnectionRequestTimeout((int) connectionRequestTimeout.toMillis())
+                .build();
+        return HttpClients.custom()
+                .setConnectionManager(httpClientConnectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(idleTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(CloseableHttpClient httpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
     }
 }
@@ -0,0 +1,87 @@
+package com.cms.payment.configuration;
+
+import com.cms.payment.utills.Constants;
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.jcache.internal.JCacheRegionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Opt-in Hibernate second-level cache backed by Caffeine through JCache. Payments are cached by id and the pages of
+ * the payments of a student are cached as query results. Hibernate updates the cached payment on every save and soft
+ * delete, and drops the cached pages on any change of the payment table. The hits and misses are published with the
+ * Hibernate metrics.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "payment.secondLevelCache.enabled", havingValue = "true")
+public class SecondLevelCacheConfig {
+    private static final URI CACHE_MANAGER_URI = URI.create("payment-second-level-cache");
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(@Value("${payment.secondLevelCache.maxEntries:10000}") long maxEntries,
+                                                @Value("${payment.secondLevelCache.ttl:PT10M}") Duration ttl,
+                                                @Value("${payment.secondLevelCache.queryMaxEntries:1000}") long queryMaxEntries,
+                                                @Value("${payment.secondLevelCache.queryTtl:PT1M}") Duration queryTtl) {
+        var cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(CACHE_MANAGER_URI, getClass().getClassLoader());
+        cacheManager.createCache(Constants.PAYMENT_CACHE_REGION, configuration(maxEntries, ttl));
+        cacheManager.createCache(Constants.STUDENT_PAYMENTS_CACHE_REGION, configuration(queryMaxEntries, queryTtl));
+        cacheManager.createCache(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                configuration(queryMaxEntries, queryTtl));
+        // The update timestamps decide whether a cached query result is still valid, so they are never evicted
+        cacheManager.createCache(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, configuration(null, null));
+        log.info("Hibernate second-level cache is enabled for {} payments for {} and {} student payment pages for {}",
+                maxEntries, ttl, queryMaxEntries, queryTtl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, JCacheRegionFactory.class.getName());
+            properties.put(ConfigSettings.CACHE_MANAGER, secondLevelCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            properties.put(AvailableSettings.LOG_SESSION_METRICS, false);
+        };
+    }
+
+    /**
+     * Create the configuration of a cache region. The entries are kept by reference, as Hibernate caches them in
+     * their disassembled form already.
+     *
+     * @param maxEntries maximum number of entries, null for no limit
+     * @param ttl        time to live of an entry, null for no expiry
+     * @param <K>        key type
+     * @param <V>        value type
+     * @return CaffeineConfiguration
+     */
+    private static <K, V> CaffeineConfiguration<K, V> configuration(Long maxEntries, Duration ttl) {
+        var configuration = new CaffeineConfiguration<K, V>();
+        configuration.setStoreByValue(false);
+        if (maxEntries != null) {
+            configuration.setMaximumSize(OptionalLong.of(maxEntries));
+        }
+        if (ttl != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
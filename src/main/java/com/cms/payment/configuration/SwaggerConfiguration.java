@@ -1,7 +1,10 @@
 package com.cms.payment.configuration;
 
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
 import springfox.documentation.service.ApiKey;
@@ -10,7 +13,9 @@ import springfox.documentation.service.SecurityReference;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spi.service.contexts.SecurityContext;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 
+import java.lang.reflect.Field;
 import java.util.Collections;
 import java.util.List;
 
@@ -31,6 +36,36 @@ public class SwaggerConfiguration {
                 .build();
     }
 
+    /**
+     * Keep springfox to the ant path matching handler mappings. The actuator endpoint mappings use the path pattern
+     * parser, which springfox cannot read.
+     *
+     * @return BeanPostProcessor
+     */
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderBeanPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    List<RequestMappingInfoHandlerMapping> handlerMappings = getHandlerMappings(bean);
+                    handlerMappings.removeIf(mapping -> mapping.getPatternParser() != null);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<RequestMappingInfoHandlerMapping> getHandlerMappings(Object bean) {
+        Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+        if (field == null) {
+            throw new IllegalStateException("The springfox handler mappings couldn't be found");
+        }
+        ReflectionUtils.makeAccessible(field);
+        return (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+    }
+
     private SecurityContext securityContext() {
         return SecurityContext.builder().securityReferences(defaultAuth()).build();
     }
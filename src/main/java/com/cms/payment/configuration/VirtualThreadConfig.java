@@ -0,0 +1,34 @@
+package com.cms.payment.configuration;
+
+import com.cms.payment.utills.VirtualThreads;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Opt-in virtual thread execution mode. When {@code payment.virtualThreads.enabled} is set, Tomcat handles every
+ * request on a virtual thread of its own instead of its platform thread pool. The mode requires Java 21 or later, and
+ * the service fails to start when it is enabled on an older runtime.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "payment.virtualThreads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    public VirtualThreadConfig() {
+        if (!VirtualThreads.isSupported()) {
+            throw new InvalidConfigurationPropertyValueException("payment.virtualThreads.enabled", true,
+                    "Virtual threads require Java 21 or later, but the service runs on Java "
+                            + Runtime.version().feature());
+        }
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        log.info("Requests are handled on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(VirtualThreads.newThreadPerTaskExecutor("http-vt-"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.cms.payment.configuration;
 
+import com.cms.payment.cache.VerifiedTokenCache;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -8,24 +9,30 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import java.time.Clock;
+
 @EnableWebSecurity
 @Configuration
 public class WebConfig {
     private final String key;
+    private final int tokenCacheMaxEntries;
     private static final String[] AUTH_WHITE_LIST = {
             "/v3/api-docs/**",
             "/swagger-ui/**",
             "/v2/api-docs/**",
-            "/swagger-resources/**"
+            "/swagger-resources/**",
+            "/actuator/health"
     };
 
-    public WebConfig(@Value("${security.key}") String key) {
+    public WebConfig(@Value("${security.key}") String key,
+                     @Value("${security.tokenCache.maxEntries:10000}") int tokenCacheMaxEntries) {
         this.key = key;
+        this.tokenCacheMaxEntries = tokenCacheMaxEntries;
     }
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
-        http.addFilterBefore(new JwtValidator(key), BasicAuthenticationFilter.class)
+        http.addFilterBefore(new JwtValidator(key, new VerifiedTokenCache(tokenCacheMaxEntries, Clock.systemUTC())), BasicAuthenticationFilter.class)
                 .csrf().disable()
                 .authorizeRequests().antMatchers(AUTH_WHITE_LIST).permitAll()
                 .anyRequest().authenticated().and()
@@ -1,114 +1,263 @@
 package com.cms.payment.controller;
 
-import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentMonthDto;
 import com.cms.payment.domain.request.PaymentRequestDto;
 import com.cms.payment.domain.request.UpdatePaymentRequestDto;
 import com.cms.payment.domain.response.PaymentListResponseDto;
 import com.cms.payment.domain.response.PaymentReportListResponseDto;
 import com.cms.payment.domain.response.PaymentResponseDto;
 import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.ExportFormat;
 import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.exception.InvalidPaymentMonthException;
+import com.cms.payment.service.EnrichmentExecutor;
+import com.cms.payment.service.IdempotencyService;
+import com.cms.payment.service.PaymentBatchService;
+import com.cms.payment.service.PaymentExportService;
 import com.cms.payment.service.PaymentService;
 import com.cms.payment.utills.Constants;
 import com.cms.payment.wrapper.ResponseWrapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.servlet.http.HttpServletRequest;
+import java.util.List;
 
 @Slf4j
 @RequestMapping("api/v1/payment")
 @RestController
 public class PaymentController extends BaseController {
     private final PaymentService paymentService;
+    private final EnrichmentExecutor enrichmentExecutor;
+    private final PaymentExportService paymentExportService;
+    private final PaymentBatchService paymentBatchService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public PaymentController(PaymentService paymentService) {
+    public PaymentController(PaymentService paymentService, EnrichmentExecutor enrichmentExecutor,
+                             PaymentExportService paymentExportService, PaymentBatchService paymentBatchService,
+                             IdempotencyService idempotencyService) {
         this.paymentService = paymentService;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.paymentExportService = paymentExportService;
+        this.paymentBatchService = paymentBatchService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
-     * Make new payment
+     * Make new payment. A retry sent with the same Idempotency-Key is answered with the response of the first request.
      *
      * @param paymentRequestDto payment request dto
+     * @param idempotencyKey    idempotency key
      * @param request           authentication request
      * @return Success / Error response
      */
     @PostMapping("")
     public ResponseEntity<ResponseWrapper> makePayment(@RequestBody PaymentRequestDto paymentRequestDto,
+                                                       @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER,
+                                                               required = false) String idempotencyKey,
                                                        HttpServletRequest request) {
         if (!paymentRequestDto.isRequiredAvailable()) {
             log.debug("The required fields {} are missing for make a new payment", paymentRequestDto.toJson());
             return getErrorResponse(ErrorResponseStatus.MISSING_REQUIRED_FIELDS);
         }
+        return idempotencyService.execute(idempotencyKey, paymentRequestDto, PaymentResponseDto.class, () -> {
+            String authToken = request.getHeader(Constants.TOKEN_HEADER);
+            var payment = paymentService.makePayment(paymentRequestDto, authToken);
+            var responseDto = new PaymentResponseDto(payment);
+            log.debug("The new payment made successfully");
+            return getSuccessResponse(SuccessResponseStatus.PAID_SUCCESSFUL, responseDto, HttpStatus.CREATED);
+        });
+    }
+
+    /**
+     * Make a batch of new payments. Every payment of the batch is validated and saved independently,
+     * and its result is given at the same position of the response.
+     *
+     * @param paymentRequestDtoList payment request dto list
+     * @param request               authentication request
+     * @return Success / Error response
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<ResponseWrapper> makePayments(@RequestBody List<PaymentRequestDto> paymentRequestDtoList,
+                                                        HttpServletRequest request) {
         String authToken = request.getHeader(Constants.TOKEN_HEADER);
-        var payment = paymentService.makePayment(paymentRequestDto, authToken);
-        var responseDto = new PaymentResponseDto(payment);
-        log.debug("The new payment made successfully");
-        return getSuccessResponse(SuccessResponseStatus.PAID_SUCCESSFUL, responseDto, HttpStatus.CREATED);
+        var response = paymentBatchService.makePayments(paymentRequestDtoList, authToken);
+        log.debug("The payment batch is processed. Paid: {} Failed: {}", response.getPaidCount(),
+                response.getFailedCount());
+        return getSuccessResponse(SuccessResponseStatus.PAYMENT_BATCH_PROCESSED, response, HttpStatus.OK);
     }
 
     /**
-     * Update existing payment
+     * Update existing payment. A retry sent with the same Idempotency-Key is answered with the response of the first
+     * request.
      *
      * @param updatePaymentRequestDto update payment request dto
+     * @param idempotencyKey          idempotency key
      * @param request                 authentication request
      * @return Success / Error response
      */
     @PutMapping("")
     public ResponseEntity<ResponseWrapper> updatePayment(@RequestBody UpdatePaymentRequestDto updatePaymentRequestDto,
+                                                         @RequestHeader(value = Constants.IDEMPOTENCY_KEY_HEADER,
+                                                                 required = false) String idempotencyKey,
                                                          HttpServletRequest request) {
         if (!updatePaymentRequestDto.isRequiredAvailable()) {
             log.debug("The required fields {} are missing for update the payment", updatePaymentRequestDto.toJson());
             return getErrorResponse(ErrorResponseStatus.MISSING_REQUIRED_FIELDS);
         }
-        String authToken = request.getHeader(Constants.TOKEN_HEADER);
-        var payment = paymentService.updatePayment(updatePaymentRequestDto, authToken);
-        var responseDto = new PaymentResponseDto(payment);
-        log.debug("The payment is updated successfully for payment id: {}", updatePaymentRequestDto.getPaymentId());
-        return getSuccessResponse(SuccessResponseStatus.PAYMENT_UPDATED, responseDto, HttpStatus.OK);
+        return idempotencyService.execute(idempotencyKey, updatePaymentRequestDto, PaymentResponseDto.class, () -> {
+            String authToken = request.getHeader(Constants.TOKEN_HEADER);
+            var payment = paymentService.updatePayment(updatePaymentRequestDto, authToken);
+            var responseDto = new PaymentResponseDto(payment);
+            log.debug("The payment is updated successfully for payment id: {}",
+                    updatePaymentRequestDto.getPaymentId());
+            return getSuccessResponse(SuccessResponseStatus.PAYMENT_UPDATED, responseDto, HttpStatus.OK);
+        });
     }
 
     /**
-     * Get all payment details which mapped with student and location details
+     * Get a page of payment details which mapped with student and location details. Not modified is responded when
+     * the entity tag given in If-None-Match is still current, before the page is read while the directories are
+     * cached and after it is enriched otherwise.
      *
-     * @param request authentication request
-     * @return Success / Error response
+     * @param cursor     cursor of the page, the first page when not given
+     * @param size       page size
+     * @param request    authentication request
+     * @param webRequest web request
+     * @return Success / Error / Not modified response
      */
     @GetMapping("")
-    public ResponseEntity<ResponseWrapper> getAllPayment(HttpServletRequest request) {
+    public ResponseEntity<ResponseWrapper> getAllPayment(@RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size,
+                                                         HttpServletRequest request, WebRequest webRequest) {
+        String paymentsVersion = paymentService.getPaymentsVersion();
+        String eTag = paymentService.getPaymentsETag(paymentsVersion);
+        if (isNotModified(eTag, webRequest)) {
+            log.debug("The payment details are not modified");
+            return null;
+        }
         String authToken = request.getHeader(Constants.TOKEN_HEADER);
-        Page<Payment> paymentPage = paymentService.getAllPayment();
-        var studentMap = paymentService.getStudentsDetails(authToken);
-        var locationMap = paymentService.getTuitionClassDetails(authToken);
-        var response = new PaymentListResponseDto(paymentPage, studentMap, locationMap);
+        var result = enrichmentExecutor.enrichPage(() -> paymentService.getAllPayment(cursor, size),
+                paymentPage -> paymentService.getStudentsDetails(paymentPage, authToken),
+                () -> paymentService.getTuitionClassDetails(authToken));
+        if (eTag == null && isNotModified(paymentService.getPaymentsETag(paymentsVersion, result.getStudentMap(),
+                result.getTuitionClassMap()), webRequest)) {
+            log.debug("The payment details are not modified");
+            return null;
+        }
+        var response = new PaymentListResponseDto(result.getPayments(), result.getStudentMap(),
+                result.getTuitionClassMap());
         log.debug("Retrieve all payment details successfully");
         return getSuccessResponse(SuccessResponseStatus.READ_LIST_PAYMENT, response, HttpStatus.OK);
     }
 
     /**
-     * Get all payment details which belongs a student
+     * Get a page of payment details which belongs a student. Not modified is responded when the entity tag given in
+     * If-None-Match is still current, before the page is read while the directories are cached and after it is
+     * enriched otherwise.
      *
-     * @param studentId student id
-     * @param request   authentication request
-     * @return Success / Error response
+     * @param studentId  student id
+     * @param cursor     cursor of the page, the first page when not given
+     * @param size       page size
+     * @param request    authentication request
+     * @param webRequest web request
+     * @return Success / Error / Not modified response
      */
     @GetMapping("/student/{studentId}")
     public ResponseEntity<ResponseWrapper> getAllPaymentsByStudentId(@PathVariable String studentId,
-                                                                     HttpServletRequest request) {
+                                                                     @RequestParam(required = false) String cursor,
+                                                                     @RequestParam(required = false) Integer size,
+                                                                     HttpServletRequest request, WebRequest webRequest) {
+        String paymentsVersion = paymentService.getPaymentsVersion();
+        String eTag = paymentService.getPaymentsETag(paymentsVersion);
+        if (isNotModified(eTag, webRequest)) {
+            log.debug("The payment details are not modified for the student id: {}", studentId);
+            return null;
+        }
         String authToken = request.getHeader(Constants.TOKEN_HEADER);
-        Page<Payment> paymentPage = paymentService.getPaymentsByStudentId(studentId);
-        var studentMap = paymentService.getStudentsDetails(authToken);
-        var locationMap = paymentService.getTuitionClassDetails(authToken);
-        var response = new PaymentListResponseDto(paymentPage, studentMap, locationMap);
+        var result = enrichmentExecutor.enrichPage(() -> paymentService.getPaymentsByStudentId(studentId, cursor, size),
+                paymentPage -> paymentService.getStudentsDetails(paymentPage, authToken),
+                () -> paymentService.getTuitionClassDetails(authToken));
+        if (eTag == null && isNotModified(paymentService.getPaymentsETag(paymentsVersion, result.getStudentMap(),
+                result.getTuitionClassMap()), webRequest)) {
+            log.debug("The payment details are not modified for the student id: {}", studentId);
+            return null;
+        }
+        var response = new PaymentListResponseDto(result.getPayments(), result.getStudentMap(),
+                result.getTuitionClassMap());
         log.debug("Retrieve all payment details for the student id: {}", studentId);
         return getSuccessResponse(SuccessResponseStatus.READ_LIST_PAYMENT, response, HttpStatus.OK);
     }
 
+    /**
+     * Get a page of payment details of the months between the given months, both inclusive
+     *
+     * @param fromMonth first month
+     * @param fromYear  year of the first month
+     * @param toMonth   last month
+     * @param toYear    year of the last month
+     * @param cursor    cursor of the page, the first page when not given
+     * @param size      page size
+     * @param request   authentication request
+     * @return Success / Error response
+     */
+    @GetMapping("/period/{fromMonth}/{fromYear}/{toMonth}/{toYear}")
+    public ResponseEntity<ResponseWrapper> getPaymentsByPeriod(@PathVariable String fromMonth, @PathVariable int fromYear,
+                                                               @PathVariable String toMonth, @PathVariable int toYear,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               HttpServletRequest request) {
+        String authToken = request.getHeader(Constants.TOKEN_HEADER);
+        var from = new PaymentMonthDto(fromMonth, fromYear);
+        var to = new PaymentMonthDto(toMonth, toYear);
+        var result = enrichmentExecutor.enrichPage(() -> paymentService.getPaymentsByPeriod(from, to, cursor, size),
+                paymentPage -> paymentService.getStudentsDetails(paymentPage, authToken),
+                () -> paymentService.getTuitionClassDetails(authToken));
+        var response = new PaymentListResponseDto(result.getPayments(), result.getStudentMap(),
+                result.getTuitionClassMap());
+        log.debug("Retrieve all payment details from {} to {}", from.getCombinedDate(), to.getCombinedDate());
+        return getSuccessResponse(SuccessResponseStatus.READ_LIST_PAYMENT, response, HttpStatus.OK);
+    }
+
+    /**
+     * Export all payment details which mapped with student and location details as NDJSON or CSV.
+     * The payments are streamed to the client while they are read from the database.
+     *
+     * @param format    export format, ndjson or csv
+     * @param month     month filter, given together with the year
+     * @param year      year filter, given together with the month
+     * @param studentId student id filter
+     * @param request   authentication request
+     * @return Streaming response
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportPayments(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(required = false) String month,
+                                                                @RequestParam(required = false) Integer year,
+                                                                @RequestParam(required = false) String studentId,
+                                                                HttpServletRequest request) {
+        var exportFormat = ExportFormat.of(format);
+        if ((month == null) != (year == null)) {
+            throw new InvalidPaymentMonthException("Both month and year are required to filter the export");
+        }
+        var paymentMonth = month == null ? null : new PaymentMonthDto(month, year);
+        String authToken = request.getHeader(Constants.TOKEN_HEADER);
+        var body = paymentExportService.export(exportFormat, paymentMonth, studentId, authToken);
+        log.debug("Exporting the payment details as {}", exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments." + exportFormat.getExtension() + "\"")
+                .body(body);
+    }
+
     /**
      * Delete a existing payment
      *
@@ -123,22 +272,54 @@ public class PaymentController extends BaseController {
     }
 
     /**
-     * Get the paid and unpaid student details on a particular month
+     * Get the paid and unpaid student details on a particular month. The paid students are paged, and the unpaid
+     * students are listed on the first page only. Not modified is responded when the entity tag given in If-None-Match
+     * is still current.
      *
-     * @param month   month
-     * @param year    year
-     * @param request authentication request
-     * @return Success / Error response
+     * @param month      month
+     * @param year       year
+     * @param cursor     cursor of the page, the first page when not given
+     * @param size       page size
+     * @param request    authentication request
+     * @param webRequest web request
+     * @return Success / Error / Not modified response
      */
     @GetMapping("/student/report/{month}/{year}")
     public ResponseEntity<ResponseWrapper> getUserReport(@PathVariable String month, @PathVariable int year,
-                                                         HttpServletRequest request) {
+                                                         @RequestParam(required = false) String cursor,
+                                                         @RequestParam(required = false) Integer size,
+                                                         HttpServletRequest request, WebRequest webRequest) {
+        if (isNotModified(paymentService.getReportETag(month, year), webRequest)) {
+            log.debug("Month based payment report is not modified for the month: {} year: {}", month, year);
+            return null;
+        }
         String authToken = request.getHeader(Constants.TOKEN_HEADER);
-        Page<Payment> paymentPage = paymentService.getUserReport(month, year);
-        var studentMap = paymentService.getStudentsDetails(authToken);
-        var locationMap = paymentService.getTuitionClassDetails(authToken);
-        var response = new PaymentReportListResponseDto(paymentPage, studentMap, locationMap);
+        PaymentReportListResponseDto response;
+        if (cursor == null) {
+            var result = enrichmentExecutor.enrich(() -> paymentService.getUserReport(month, year, null, size),
+                    () -> paymentService.getStudentsDetails(authToken),
+                    () -> paymentService.getTuitionClassDetails(authToken));
+            response = new PaymentReportListResponseDto(result.getPayments(),
+                    paymentService.getPaidStudentIds(month, year), result.getStudentMap(), result.getTuitionClassMap());
+        } else {
+            var result = enrichmentExecutor.enrichPage(() -> paymentService.getUserReport(month, year, cursor, size),
+                    paymentPage -> paymentService.getStudentsDetails(paymentPage, authToken),
+                    () -> paymentService.getTuitionClassDetails(authToken));
+            response = new PaymentReportListResponseDto(result.getPayments(), null, result.getStudentMap(),
+                    result.getTuitionClassMap());
+        }
         log.debug("Month based payment report is generated successfully for the month: {} year: {}", month, year);
         return getSuccessResponse(SuccessResponseStatus.READ_STUDENT_PAYMENT_REPORT, response, HttpStatus.OK);
     }
+
+    /**
+     * Check the entity tag against If-None-Match, and add it to the response. The tag is left out when it is not known.
+     *
+     * @param eTag       current entity tag, null when not known
+     * @param webRequest web request
+     * @return true when the client has the current response
+     */
+    private boolean isNotModified(String eTag, WebRequest webRequest) {
+        return eTag != null && webRequest.checkNotModified(eTag);
+    }
 }
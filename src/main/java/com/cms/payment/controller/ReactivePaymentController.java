@@ -0,0 +1,171 @@
+package com.cms.payment.controller;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.response.PaymentListResponseDto;
+import com.cms.payment.domain.response.PaymentReportListResponseDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.service.EnrichmentExecutor.EnrichedResult;
+import com.cms.payment.service.PaymentService;
+import com.cms.payment.service.ReactiveDirectoryService;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.ResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking variant of the payment read API, served under {@code payment.reactive.routePrefix} alongside the
+ * payment controller. The payment queries are offloaded to a bounded scheduler and the student and tuition class
+ * lookups are made with the web client, so no thread is held while a request waits for them.
+ */
+@Slf4j
+@RestController
+@ConditionalOnProperty(name = "payment.reactive.enabled", havingValue = "true")
+@RequestMapping("${payment.reactive.routePrefix:reactive/api/v1/payment}")
+public class ReactivePaymentController extends BaseController {
+    private static final String DEADLINE_EXCEEDED_MESSAGE = "The enrichment of the payment details exceeded the deadline";
+    private final PaymentService paymentService;
+    private final ReactiveDirectoryService reactiveDirectoryService;
+    private final Scheduler paymentQueryScheduler;
+    private final Duration deadline;
+
+    @Autowired
+    public ReactivePaymentController(PaymentService paymentService, ReactiveDirectoryService reactiveDirectoryService,
+                                     @Qualifier("paymentQueryScheduler") Scheduler paymentQueryScheduler,
+                                     @Value("${payment.enrichment.deadline:PT10S}") Duration deadline) {
+        this.paymentService = paymentService;
+        this.reactiveDirectoryService = reactiveDirectoryService;
+        this.paymentQueryScheduler = paymentQueryScheduler;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Get a page of payment details which mapped with student and location details
+     *
+     * @param cursor  cursor of the page, the first page when not given
+     * @param size    page size
+     * @param request authentication request
+     * @return Success / Error response
+     */
+    @GetMapping("")
+    public Mono<ResponseEntity<ResponseWrapper>> getAllPayment(@RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               HttpServletRequest request) {
+        String authToken = request.getHeader(Constants.TOKEN_HEADER);
+        return withDeadline(enrichPage(query(() -> paymentService.getAllPayment(cursor, size)), authToken))
+                .map(result -> {
+                    log.debug("Retrieve all payment details successfully");
+                    return getSuccessResponse(SuccessResponseStatus.READ_LIST_PAYMENT, new PaymentListResponseDto(
+                            result.getPayments(), result.getStudentMap(), result.getTuitionClassMap()), HttpStatus.OK);
+                });
+    }
+
+    /**
+     * Get a page of payment details which belongs a student
+     *
+     * @param studentId student id
+     * @param cursor    cursor of the page, the first page when not given
+     * @param size      page size
+     * @param request   authentication request
+     * @return Success / Error response
+     */
+    @GetMapping("/student/{studentId}")
+    public Mono<ResponseEntity<ResponseWrapper>> getAllPaymentsByStudentId(@PathVariable String studentId,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           @RequestParam(required = false) Integer size,
+                                                                           HttpServletRequest request) {
+        String authToken = request.getHeader(Constants.TOKEN_HEADER);
+        return withDeadline(enrichPage(query(() -> paymentService.getPaymentsByStudentId(studentId, cursor, size)),
+                authToken))
+                .map(result -> {
+                    log.debug("Retrieve all payment details for the student id: {}", studentId);
+                    return getSuccessResponse(SuccessResponseStatus.READ_LIST_PAYMENT, new PaymentListResponseDto(
+                            result.getPayments(), result.getStudentMap(), result.getTuitionClassMap()), HttpStatus.OK);
+                });
+    }
+
+    /**
+     * Get the payment report of a month. The first page lists the unpaid users too.
+     *
+     * @param month   month
+     * @param year    year
+     * @param cursor  cursor of the page, the first page when not given
+     * @param size    page size
+     * @param request authentication request
+     * @return Success / Error response
+     */
+    @GetMapping("/student/report/{month}/{year}")
+    public Mono<ResponseEntity<ResponseWrapper>> getUserReport(@PathVariable String month, @PathVariable int year,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(required = false) Integer size,
+                                                               HttpServletRequest request) {
+        String authToken = request.getHeader(Constants.TOKEN_HEADER);
+        Mono<PaymentReportListResponseDto> response;
+        if (cursor == null) {
+            response = Mono.zip(query(() -> paymentService.getUserReport(month, year, null, size)),
+                            query(() -> paymentService.getPaidStudentIds(month, year)),
+                            reactiveDirectoryService.getStudentsDetails(authToken),
+                            reactiveDirectoryService.getTuitionClassDetails(authToken))
+                    .map(result -> new PaymentReportListResponseDto(result.getT1(), result.getT2(), result.getT3(),
+                            result.getT4()));
+        } else {
+            response = enrichPage(query(() -> paymentService.getUserReport(month, year, cursor, size)), authToken)
+                    .map(result -> new PaymentReportListResponseDto(result.getPayments(), null,
+                            result.getStudentMap(), result.getTuitionClassMap()));
+        }
+        return withDeadline(response).map(reportResponse -> {
+            log.debug("Month based payment report is generated successfully for the month: {} year: {}", month, year);
+            return getSuccessResponse(SuccessResponseStatus.READ_STUDENT_PAYMENT_REPORT, reportResponse,
+                    HttpStatus.OK);
+        });
+    }
+
+    /**
+     * Run the payment query and the tuition class lookup concurrently, then look up only the students of the
+     * returned payments
+     *
+     * @param query     payment query
+     * @param authToken access token
+     * @return EnrichedResult
+     */
+    private Mono<EnrichedResult<Slice<Payment>>> enrichPage(Mono<Slice<Payment>> query, String authToken) {
+        return Mono.zip(query, reactiveDirectoryService.getTuitionClassDetails(authToken))
+                .flatMap(result -> getStudentsDetails(result.getT1(), authToken)
+                        .map(studentMap -> new EnrichedResult<>(result.getT1(), studentMap, result.getT2())));
+    }
+
+    private Mono<Map<String, StudentResponseDto>> getStudentsDetails(Slice<Payment> payments, String authToken) {
+        Set<String> studentIds = new HashSet<>();
+        for (Payment payment : payments) {
+            studentIds.add(payment.getStudentId());
+        }
+        return reactiveDirectoryService.getStudentsDetails(studentIds, authToken);
+    }
+
+    private <T> Mono<T> query(Callable<T> query) {
+        return Mono.fromCallable(query).subscribeOn(paymentQueryScheduler);
+    }
+
+    private <T> Mono<T> withDeadline(Mono<T> response) {
+        return response.timeout(deadline)
+                .onErrorMap(TimeoutException.class, e -> new ConnectionException(DEADLINE_EXCEEDED_MESSAGE, e));
+    }
+}
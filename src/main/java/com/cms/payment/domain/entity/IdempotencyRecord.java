@@ -0,0 +1,52 @@
+package com.cms.payment.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "payment_idempotency_key")
+@Entity
+public class IdempotencyRecord implements Persistable<String> {
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+    @Column(length = 64)
+    private String requestHash;
+    private Integer statusCode;
+    private String responseMessage;
+    @Column(length = 4000)
+    private String responseBody;
+    private Timestamp createdAt;
+    private Timestamp completedAt;
+    @Transient
+    private boolean isNew;
+
+    public IdempotencyRecord(String idempotencyKey, String requestHash, Timestamp createdAt) {
+        this.idempotencyKey = idempotencyKey;
+        this.requestHash = requestHash;
+        this.createdAt = createdAt;
+        this.isNew = true;
+    }
+
+    public boolean isCompleted() {
+        return completedAt != null;
+    }
+
+    @Override
+    public String getId() {
+        return idempotencyKey;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -1,18 +1,22 @@
 package com.cms.payment.domain.entity;
 
+import com.cms.payment.domain.request.PaymentMonthDto;
 import com.cms.payment.domain.request.PaymentRequestDto;
 import com.cms.payment.domain.request.UpdatePaymentRequestDto;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.utills.PaymentIdGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.data.domain.Persistable;
 
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Id;
-import javax.persistence.Table;
+import javax.persistence.*;
 import java.sql.Date;
-import java.util.UUID;
+import java.sql.Timestamp;
+import java.time.Instant;
 
 @Getter
 @Setter
@@ -20,30 +24,60 @@ import java.util.UUID;
 @NoArgsConstructor
 @Table(name = "payment")
 @Entity
-public class Payment {
-    private static final String PREFIX = "pid-";
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Constants.PAYMENT_CACHE_REGION)
+public class Payment implements Persistable<String> {
     @Id
     @Column(length = 50)
     private String paymentId;
     @Column(length = 20)
     private String paymentMonth;
+    private Integer paymentPeriod;
     private Date paidDate;
     @Column(length = 50)
     private String studentId;
     private Date updatedAt;
+    private Timestamp modifiedAt;
     private boolean isDeleted;
+    @Transient
+    private boolean isNew;
 
     public Payment(PaymentRequestDto paymentRequestDto) {
-        this.paymentId = PREFIX + UUID.randomUUID();
-        this.paymentMonth = paymentRequestDto.getPaymentMonth().getCombinedDate();
+        this.paymentId = PaymentIdGenerator.nextId();
+        this.paymentPeriod = paymentRequestDto.getPaymentMonth().getPeriod();
+        this.paymentMonth = PaymentMonthDto.toCombinedDate(this.paymentPeriod);
         this.studentId = paymentRequestDto.getStudentId();
         this.paidDate = this.updatedAt = new Date(System.currentTimeMillis());
         this.isDeleted = false;
+        this.isNew = true;
     }
 
     public void update(UpdatePaymentRequestDto updatePaymentRequestDto) {
         this.paymentId = updatePaymentRequestDto.getPaymentId();
-        this.paymentMonth = updatePaymentRequestDto.getPaymentMonth().getCombinedDate();
+        this.paymentPeriod = updatePaymentRequestDto.getPaymentMonth().getPeriod();
+        this.paymentMonth = PaymentMonthDto.toCombinedDate(this.paymentPeriod);
         this.updatedAt = new Date(System.currentTimeMillis());
     }
+
+    @Override
+    public String getId() {
+        return paymentId;
+    }
+
+    /**
+     * New payments carry an assigned id, so they are flagged explicitly to be inserted without a prior select
+     */
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
+    /**
+     * Every insert, update and delete stamps the modification time
+     */
+    @PrePersist
+    @PreUpdate
+    void markModified() {
+        this.modifiedAt = Timestamp.from(Instant.now());
+    }
 }
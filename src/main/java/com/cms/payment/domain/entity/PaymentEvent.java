@@ -0,0 +1,47 @@
+package com.cms.payment.domain.entity;
+
+import com.cms.payment.enums.PaymentEventType;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "payment_outbox")
+@Entity
+public class PaymentEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long eventId;
+    @Enumerated(EnumType.STRING)
+    @Column(length = 20)
+    private PaymentEventType eventType;
+    @Column(length = 50)
+    private String paymentId;
+    @Column(length = 50)
+    private String studentId;
+    @Column(length = 20)
+    private String paymentMonth;
+    private Integer paymentPeriod;
+    private Date paidDate;
+    private Timestamp createdAt;
+    @JsonIgnore
+    private Timestamp publishedAt;
+
+    public PaymentEvent(PaymentEventType eventType, Payment payment) {
+        this.eventType = eventType;
+        this.paymentId = payment.getPaymentId();
+        this.studentId = payment.getStudentId();
+        this.paymentMonth = payment.getPaymentMonth();
+        this.paymentPeriod = payment.getPaymentPeriod();
+        this.paidDate = payment.getPaidDate();
+        this.createdAt = Timestamp.from(Instant.now());
+    }
+}
@@ -0,0 +1,21 @@
+package com.cms.payment.domain.entity;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Single row version of the payment data, advanced by every payment write transaction
+ */
+@Getter
+@NoArgsConstructor
+@Table(name = "payment_version")
+@Entity
+public class PaymentVersion {
+    @Id
+    private Integer versionId;
+    private long version;
+}
@@ -0,0 +1,86 @@
+package com.cms.payment.domain.entity;
+
+import com.cms.payment.domain.response.StudentResponseDto;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.sql.Date;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "student_snapshot")
+@Entity
+public class StudentSnapshot implements Persistable<String> {
+    @Id
+    @Column(length = 50)
+    private String studentId;
+    private String firstName;
+    private String lastName;
+    private String address;
+    private String gender;
+    private int age;
+    private int grade;
+    private int phoneNumber;
+    private String studentStatus;
+    @Column(length = 50)
+    private String tuitionClassId;
+    private Date joinedDate;
+    private Date updatedAt;
+    private boolean isDeleted;
+    @Transient
+    private boolean isNew;
+
+    public StudentSnapshot(StudentResponseDto studentResponseDto) {
+        this.studentId = studentResponseDto.getStudentId();
+        update(studentResponseDto);
+        this.isNew = true;
+    }
+
+    public void update(StudentResponseDto studentResponseDto) {
+        this.firstName = studentResponseDto.getFirstName();
+        this.lastName = studentResponseDto.getLastName();
+        this.address = studentResponseDto.getAddress();
+        this.gender = studentResponseDto.getGender();
+        this.age = studentResponseDto.getAge();
+        this.grade = studentResponseDto.getGrade();
+        this.phoneNumber = studentResponseDto.getPhoneNumber();
+        this.studentStatus = studentResponseDto.getStudentStatus();
+        this.tuitionClassId = studentResponseDto.getTuitionClassId();
+        this.joinedDate = studentResponseDto.getJoinedDate();
+        this.updatedAt = studentResponseDto.getUpdatedAt();
+        this.isDeleted = studentResponseDto.isDeleted();
+    }
+
+    public StudentResponseDto toResponseDto() {
+        var studentResponseDto = new StudentResponseDto();
+        studentResponseDto.setStudentId(studentId);
+        studentResponseDto.setFirstName(firstName);
+        studentResponseDto.setLastName(lastName);
+        studentResponseDto.setAddress(address);
+        studentResponseDto.setGender(gender);
+        studentResponseDto.setAge(age);
+        studentResponseDto.setGrade(grade);
+        studentResponseDto.setPhoneNumber(phoneNumber);
+        studentResponseDto.setStudentStatus(studentStatus);
+        studentResponseDto.setTuitionClassId(tuitionClassId);
+        studentResponseDto.setJoinedDate(joinedDate);
+        studentResponseDto.setUpdatedAt(updatedAt);
+        studentResponseDto.setDeleted(isDeleted);
+        return studentResponseDto;
+    }
+
+    @Override
+    public String getId() {
+        return studentId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
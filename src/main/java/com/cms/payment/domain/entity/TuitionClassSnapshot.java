@@ -0,0 +1,70 @@
+package com.cms.payment.domain.entity;
+
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+import java.sql.Date;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "tuition_class_snapshot")
+@Entity
+public class TuitionClassSnapshot implements Persistable<String> {
+    @Id
+    @Column(length = 50)
+    private String tuitionClassId;
+    private String locationName;
+    private String address;
+    private String district;
+    private String province;
+    private Date createdAt;
+    private Date updatedAt;
+    private boolean isDeleted;
+    @Transient
+    private boolean isNew;
+
+    public TuitionClassSnapshot(TuitionClassResponseDto tuitionClassResponseDto) {
+        this.tuitionClassId = tuitionClassResponseDto.getTuitionClassId();
+        update(tuitionClassResponseDto);
+        this.isNew = true;
+    }
+
+    public void update(TuitionClassResponseDto tuitionClassResponseDto) {
+        this.locationName = tuitionClassResponseDto.getLocationName();
+        this.address = tuitionClassResponseDto.getAddress();
+        this.district = tuitionClassResponseDto.getDistrict();
+        this.province = tuitionClassResponseDto.getProvince();
+        this.createdAt = tuitionClassResponseDto.getCreatedAt();
+        this.updatedAt = tuitionClassResponseDto.getUpdatedAt();
+        this.isDeleted = tuitionClassResponseDto.isDeleted();
+    }
+
+    public TuitionClassResponseDto toResponseDto() {
+        var tuitionClassResponseDto = new TuitionClassResponseDto();
+        tuitionClassResponseDto.setTuitionClassId(tuitionClassId);
+        tuitionClassResponseDto.setLocationName(locationName);
+        tuitionClassResponseDto.setAddress(address);
+        tuitionClassResponseDto.setDistrict(district);
+        tuitionClassResponseDto.setProvince(province);
+        tuitionClassResponseDto.setCreatedAt(createdAt);
+        tuitionClassResponseDto.setUpdatedAt(updatedAt);
+        tuitionClassResponseDto.setDeleted(isDeleted);
+        return tuitionClassResponseDto;
+    }
+
+    @Override
+    public String getId() {
+        return tuitionClassId;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
@@ -0,0 +1,74 @@
+package com.cms.payment.domain.request;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.exception.InvalidPageRequestException;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position in the payment listings, which are ordered by updated date and payment id descending.
+ * A page holds the payments strictly after the cursor position.
+ */
+@Getter
+public class PaymentCursor {
+    /**
+     * Position before every payment, used for the first page
+     */
+    public static final PaymentCursor FIRST = new PaymentCursor(Date.valueOf(LocalDate.of(9999, 12, 31)), "");
+    private static final String SEPARATOR = ":";
+    private final Date updatedAt;
+    private final String paymentId;
+
+    public PaymentCursor(Date updatedAt, String paymentId) {
+        this.updatedAt = updatedAt;
+        this.paymentId = paymentId;
+    }
+
+    /**
+     * Get the cursor positioned on the given payment
+     *
+     * @param payment last payment of a page
+     * @return PaymentCursor
+     */
+    public static PaymentCursor of(Payment payment) {
+        return new PaymentCursor(payment.getUpdatedAt(), payment.getPaymentId());
+    }
+
+    /**
+     * Decode a cursor given by a client
+     *
+     * @param cursor encoded cursor, or null for the first page
+     * @return PaymentCursor
+     */
+    public static PaymentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new InvalidPageRequestException("Invalid page cursor : " + cursor);
+            }
+            return new PaymentCursor(Date.valueOf(LocalDate.parse(value.substring(0, separatorIndex))),
+                    value.substring(separatorIndex + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPageRequestException("Invalid page cursor : " + cursor, e);
+        }
+    }
+
+    /**
+     * Encode the cursor to be handed to a client
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String value = updatedAt.toLocalDate() + SEPARATOR + paymentId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,19 +1,65 @@
 package com.cms.payment.domain.request;
 
+import com.cms.payment.exception.InvalidPaymentMonthException;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Month;
+import java.time.format.TextStyle;
+import java.util.Locale;
+
 @AllArgsConstructor
 @Getter
 @Setter
 @NoArgsConstructor
 public class PaymentMonthDto extends RequestDto {
+    private static final int MONTHS_FACTOR = 100;
     private String month;
     private int year;
 
     public String getCombinedDate() {
         return this.month + " " + this.year;
     }
+
+    /**
+     * Get the billing period as yyyymm, the month name is matched case insensitively
+     *
+     * @return period
+     */
+    @JsonIgnore
+    public int getPeriod() {
+        return year * MONTHS_FACTOR + parseMonth(month).getValue();
+    }
+
+    /**
+     * Create the payment month of a yyyymm billing period
+     *
+     * @param period period
+     * @return PaymentMonthDto
+     */
+    public static PaymentMonthDto fromPeriod(int period) {
+        var periodMonth = Month.of(period % MONTHS_FACTOR);
+        return new PaymentMonthDto(periodMonth.getDisplayName(TextStyle.FULL, Locale.ENGLISH), period / MONTHS_FACTOR);
+    }
+
+    /**
+     * Get the period in the stored "January 2023" form with the canonical month name
+     *
+     * @param period period
+     * @return payment month
+     */
+    public static String toCombinedDate(int period) {
+        return fromPeriod(period).getCombinedDate();
+    }
+
+    private static Month parseMonth(String month) {
+        try {
+            return Month.valueOf(month.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidPaymentMonthException("Invalid payment month : " + month, e);
+        }
+    }
 }
@@ -5,6 +5,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 public abstract class RequestDto {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
     public boolean isRequiredAvailable() {
         return true;
     }
@@ -15,7 +17,7 @@ public abstract class RequestDto {
 
     public String toJson() {
         try {
-            return new ObjectMapper().writeValueAsString(this);
+            return OBJECT_MAPPER.writeValueAsString(this);
         } catch (JsonProcessingException e) {
             throw new PaymentException("Convert object to string is failed", e);
         }
@@ -0,0 +1,51 @@
+package com.cms.payment.domain.response;
+
+import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.SuccessResponseStatus;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+@Setter
+public class PaymentBatchItemResponseDto extends ResponseDto {
+    private final int index;
+    private final String studentId;
+    private final String paymentMonth;
+    private String paymentId;
+    private int statusCode;
+    private String message;
+
+    public PaymentBatchItemResponseDto(int index, String studentId, String paymentMonth) {
+        this.index = index;
+        this.studentId = studentId;
+        this.paymentMonth = paymentMonth;
+    }
+
+    /**
+     * Mark the item as paid
+     *
+     * @param paymentId id of the created payment
+     */
+    public void paid(String paymentId) {
+        this.paymentId = paymentId;
+        this.statusCode = HttpStatus.CREATED.value();
+        this.message = SuccessResponseStatus.PAID_SUCCESSFUL.getMessage();
+    }
+
+    /**
+     * Mark the item as failed
+     *
+     * @param errorResponseStatus reason of the failure
+     */
+    public void failed(ErrorResponseStatus errorResponseStatus) {
+        this.paymentId = null;
+        this.statusCode = errorResponseStatus == ErrorResponseStatus.INTERNAL_SERVER_ERROR
+                ? HttpStatus.INTERNAL_SERVER_ERROR.value() : HttpStatus.BAD_REQUEST.value();
+        this.message = errorResponseStatus.getMessage();
+    }
+
+    public boolean isPaid() {
+        return statusCode == HttpStatus.CREATED.value();
+    }
+}
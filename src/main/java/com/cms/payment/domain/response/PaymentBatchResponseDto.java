@@ -0,0 +1,20 @@
+package com.cms.payment.domain.response;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class PaymentBatchResponseDto extends ResponseDto {
+    private final int paidCount;
+    private final int failedCount;
+    private final List<PaymentBatchItemResponseDto> results;
+
+    public PaymentBatchResponseDto(List<PaymentBatchItemResponseDto> results) {
+        this.results = results;
+        this.paidCount = (int) results.stream().filter(PaymentBatchItemResponseDto::isPaid).count();
+        this.failedCount = results.size() - paidCount;
+    }
+}
@@ -1,9 +1,10 @@
 package com.cms.payment.domain.response;
 
 import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentCursor;
 import lombok.Getter;
 import lombok.Setter;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Map;
@@ -13,18 +14,35 @@ import java.util.stream.Collectors;
 @Setter
 public class PaymentListResponseDto extends ResponseDto{
     private final List<PaymentResponseDto> payments;
+    private final String next;
 
-    public PaymentListResponseDto(Page<Payment> paymentPage, Map<String, StudentResponseDto> studentMap,
+    public PaymentListResponseDto(Slice<Payment> paymentSlice, Map<String, StudentResponseDto> studentMap,
                                   Map<String, TuitionClassResponseDto> locationMap) {
-        this.payments = convertToResponseDto(paymentPage, studentMap, locationMap);
+        this.payments = convertToResponseDto(paymentSlice, studentMap, locationMap);
+        this.next = getNextCursor(paymentSlice);
     }
 
-    private List<PaymentResponseDto> convertToResponseDto(Page<Payment> paymentPage, Map<String,
+    private List<PaymentResponseDto> convertToResponseDto(Slice<Payment> paymentSlice, Map<String,
             StudentResponseDto> studentMap, Map<String, TuitionClassResponseDto> tuitionClassMap) {
-        return paymentPage.stream().map(payment -> {
+        return paymentSlice.stream().map(payment -> {
             var studentResponse = studentMap.get(payment.getStudentId());
-            var locationResponse = tuitionClassMap.get(studentResponse.getTuitionClassId());
+            var locationResponse = studentResponse == null ? null
+                    : tuitionClassMap.get(studentResponse.getTuitionClassId());
             return new PaymentResponseDto(payment, studentResponse, locationResponse);
         }).collect(Collectors.toList());
     }
+
+    /**
+     * Get the cursor of the next page
+     *
+     * @param paymentSlice payment slice
+     * @return encoded cursor, null for the last page
+     */
+    static String getNextCursor(Slice<Payment> paymentSlice) {
+        if (!paymentSlice.hasNext() || !paymentSlice.hasContent()) {
+            return null;
+        }
+        var content = paymentSlice.getContent();
+        return PaymentCursor.of(content.get(content.size() - 1)).encode();
+    }
 }
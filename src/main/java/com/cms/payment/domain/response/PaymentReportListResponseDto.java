@@ -3,11 +3,12 @@ package com.cms.payment.domain.response;
 import com.cms.payment.domain.entity.Payment;
 import lombok.Getter;
 import lombok.Setter;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Getter
@@ -15,31 +16,43 @@ import java.util.stream.Collectors;
 public class PaymentReportListResponseDto extends ResponseDto{
     private final List<PaymentResponseDto> paidUsers;
     private final List<UnPaidUserResponseDto> unPaidUsers;
+    private final String next;
 
-    public PaymentReportListResponseDto(Page<Payment> paymentPage, Map<String, StudentResponseDto> studentMap,
+    /**
+     * Create the report of a page of paid users. The unpaid users are listed only when the ids of all the paid
+     * students of the month are given, which is done for the first page.
+     *
+     * @param paymentSlice   payment slice
+     * @param paidStudentIds ids of all the students paid for the month, null to leave out the unpaid users
+     * @param studentMap     student details map
+     * @param locationMap    tuition class details map
+     */
+    public PaymentReportListResponseDto(Slice<Payment> paymentSlice, Set<String> paidStudentIds,
+                                        Map<String, StudentResponseDto> studentMap,
                                         Map<String, TuitionClassResponseDto> locationMap) {
-        this.paidUsers = convertToPaidUser(paymentPage, studentMap, locationMap);
-        this.unPaidUsers = convertToUnPaidUsers(paymentPage, studentMap, locationMap);
+        this.paidUsers = convertToPaidUser(paymentSlice, studentMap, locationMap);
+        this.unPaidUsers = paidStudentIds == null ? Collections.emptyList()
+                : convertToUnPaidUsers(paidStudentIds, studentMap, locationMap);
+        this.next = PaymentListResponseDto.getNextCursor(paymentSlice);
     }
 
-    private List<PaymentResponseDto> convertToPaidUser(Page<Payment> paymentPage, Map<String,
+    private List<PaymentResponseDto> convertToPaidUser(Slice<Payment> paymentSlice, Map<String,
             StudentResponseDto> studentMap, Map<String, TuitionClassResponseDto> tuitionClassMap) {
-        return paymentPage.stream().map(payment -> {
+        return paymentSlice.stream().map(payment -> {
             var studentResponse = studentMap.get(payment.getStudentId());
-            var locationResponse = tuitionClassMap.get(studentResponse.getTuitionClassId());
+            var locationResponse = studentResponse == null ? null
+                    : tuitionClassMap.get(studentResponse.getTuitionClassId());
             return new PaymentResponseDto(payment, studentResponse, locationResponse);
         }).collect(Collectors.toList());
     }
 
-    private List<UnPaidUserResponseDto> convertToUnPaidUsers(Page<Payment> paymentPage, Map<String,
+    private List<UnPaidUserResponseDto> convertToUnPaidUsers(Set<String> paidStudentIds, Map<String,
             StudentResponseDto> studentMap, Map<String, TuitionClassResponseDto> tuitionClassMap) {
-            for (Payment payment : paymentPage.toList()) {
-                studentMap.remove(payment.getStudentId());
-            }
-            List<StudentResponseDto> studentList = new ArrayList<>(studentMap.values());
-            return studentList.stream().map(studentResponse -> {
-                var locationResponse = tuitionClassMap.get(studentResponse.getTuitionClassId());
-                return new UnPaidUserResponseDto(studentResponse, locationResponse);
-            }).collect(Collectors.toList());
+            return studentMap.values().stream()
+                    .filter(studentResponse -> !paidStudentIds.contains(studentResponse.getStudentId()))
+                    .map(studentResponse -> {
+                        var locationResponse = tuitionClassMap.get(studentResponse.getTuitionClassId());
+                        return new UnPaidUserResponseDto(studentResponse, locationResponse);
+                    }).collect(Collectors.toList());
     }
 }
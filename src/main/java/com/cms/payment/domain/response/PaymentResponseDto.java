@@ -2,12 +2,14 @@ package com.cms.payment.domain.response;
 
 import com.cms.payment.domain.entity.Payment;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 import java.sql.Date;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class PaymentResponseDto extends ResponseDto{
     private String paymentId;
     private String paymentMonth;
@@ -1,5 +1,6 @@
 package com.cms.payment.domain.response;
 
+import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -7,6 +8,7 @@ import java.sql.Date;
 
 @Getter
 @Setter
+@EqualsAndHashCode
 public class TuitionClassResponseDto {
     private String tuitionClassId;
     private String locationName;
@@ -9,7 +9,14 @@ public enum ErrorResponseStatus {
     MISSING_REQUIRED_FIELDS("The required fields are missing"),
     INVALID_STUDENT("The student Id is invalid"),
     INVALID_PAYMENT("The payment Id is invalid"),
-    ALREADY_PAID("The payment already made for specific month");
+    ALREADY_PAID("The payment already made for specific month"),
+    INVALID_PAYMENT_MONTH("The payment month is invalid"),
+    INVALID_PAGE_REQUEST("The page cursor or size is invalid"),
+    INVALID_EXPORT_FORMAT("The export format is not supported"),
+    INVALID_BATCH_SIZE("The payment batch is empty or too large"),
+    INVALID_IDEMPOTENCY_KEY("The idempotency key is blank or too long"),
+    IDEMPOTENCY_KEY_IN_PROGRESS("The request with the idempotency key is in progress"),
+    IDEMPOTENCY_KEY_REUSED("The idempotency key is used for a different request");
     private final String message;
 
     ErrorResponseStatus(String message) {
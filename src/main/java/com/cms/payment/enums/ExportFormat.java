@@ -0,0 +1,33 @@
+package com.cms.payment.enums;
+
+import com.cms.payment.exception.InvalidExportFormatException;
+import lombok.Getter;
+
+import java.util.Locale;
+
+@Getter
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    /**
+     * Get the export format by its name, case insensitively
+     *
+     * @param format format name
+     * @return ExportFormat
+     */
+    public static ExportFormat of(String format) {
+        try {
+            return valueOf(format.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new InvalidExportFormatException("Invalid export format : " + format, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.cms.payment.enums;
+
+public enum PaymentEventType {
+    PAYMENT_MADE,
+    PAYMENT_UPDATED,
+    PAYMENT_DELETED
+}
@@ -14,7 +14,8 @@ public enum SuccessResponseStatus {
     READ_PAYMENT("The payment retrieved successfully"),
     READ_LIST_PAYMENT("The payment list retrieved successfully"),
     READ_STUDENT_LIST_PAYMENT("The student payment list retrieved successfully"),
-    READ_STUDENT_PAYMENT_REPORT("The student payment report retrieved successfully");
+    READ_STUDENT_PAYMENT_REPORT("The student payment report retrieved successfully"),
+    PAYMENT_BATCH_PROCESSED("The payment batch processed");
     private final String message;
 
     SuccessResponseStatus(String message) {
@@ -3,7 +3,9 @@ package com.cms.payment.exception;
 import com.cms.payment.enums.ErrorResponseStatus;
 import com.cms.payment.wrapper.ErrorResponseWrapper;
 import com.cms.payment.wrapper.ResponseWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -13,6 +15,14 @@ import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExcep
 @ControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    private static final String EXCEPTION_COUNTER = "payment.exceptions";
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public GlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     /**
      * This method handle connection failed exception response
      *
@@ -23,6 +33,7 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ResponseWrapper> connectionException(ConnectionException exception) {
         var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INTER_CONNECTION_FAILED, HttpStatus.BAD_REQUEST);
         log.error("The connection failed between micro services. Error message: {}", exception.getMessage());
+        countException(exception);
         return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
     }
     /**
@@ -47,6 +58,55 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ResponseWrapper> paymentAlreadyMade(PaymentAlreadyExistsException exception) {
         var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.ALREADY_PAID, HttpStatus.BAD_REQUEST);
         log.error("The payment already made. Error message: {}", exception.getMessage());
+        countException(exception);
+        return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
+    }
+    /**
+     * This method handle invalid payment month exception response
+     *
+     * @param exception invalid payment month exception
+     * @return ErrorResponse/BadRequest
+     */
+    @ExceptionHandler(InvalidPaymentMonthException.class)
+    public ResponseEntity<ResponseWrapper> invalidPaymentMonthException(InvalidPaymentMonthException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_PAYMENT_MONTH, HttpStatus.BAD_REQUEST);
+        log.error("The given payment month is invalid. Error message: {}", exception.getMessage());
+        return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
+    }
+    /**
+     * This method handle invalid page request exception response
+     *
+     * @param exception invalid page request exception
+     * @return ErrorResponse/BadRequest
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ResponseWrapper> invalidPageRequestException(InvalidPageRequestException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_PAGE_REQUEST, HttpStatus.BAD_REQUEST);
+        log.error("The given page cursor or size is invalid. Error message: {}", exception.getMessage());
+        return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
+    }
+    /**
+     * This method handle invalid export format exception response
+     *
+     * @param exception invalid export format exception
+     * @return ErrorResponse/BadRequest
+     */
+    @ExceptionHandler(InvalidExportFormatException.class)
+    public ResponseEntity<ResponseWrapper> invalidExportFormatException(InvalidExportFormatException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_EXPORT_FORMAT, HttpStatus.BAD_REQUEST);
+        log.error("The given export format is not supported. Error message: {}", exception.getMessage());
+        return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
+    }
+    /**
+     * This method handle invalid payment batch exception response
+     *
+     * @param exception invalid payment batch exception
+     * @return ErrorResponse/BadRequest
+     */
+    @ExceptionHandler(InvalidPaymentBatchException.class)
+    public ResponseEntity<ResponseWrapper> invalidPaymentBatchException(InvalidPaymentBatchException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_BATCH_SIZE, HttpStatus.BAD_REQUEST);
+        log.error("The given payment batch is invalid. Error message: {}", exception.getMessage());
         return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
     }
     /**
@@ -60,8 +120,49 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_STUDENT, HttpStatus.BAD_REQUEST);
         log.error("The retrieving the student is failed due to invalid student id. Error message: {}",
                 exception.getMessage());
+        countException(exception);
+        return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
+    }
+    /**
+     * This method handle invalid idempotency key exception response
+     *
+     * @param exception invalid idempotency key exception
+     * @return ErrorResponse/BadRequest
+     */
+    @ExceptionHandler(InvalidIdempotencyKeyException.class)
+    public ResponseEntity<ResponseWrapper> invalidIdempotencyKeyException(InvalidIdempotencyKeyException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INVALID_IDEMPOTENCY_KEY, HttpStatus.BAD_REQUEST);
+        log.error("The given idempotency key is invalid. Error message: {}", exception.getMessage());
         return new ResponseEntity<>(wrapper, HttpStatus.BAD_REQUEST);
     }
+    /**
+     * This method handle idempotency key in progress exception response
+     *
+     * @param exception idempotency key in progress exception
+     * @return ErrorResponse/Conflict
+     */
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ResponseWrapper> idempotencyKeyInProgressException(
+            IdempotencyKeyInProgressException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.IDEMPOTENCY_KEY_IN_PROGRESS, HttpStatus.CONFLICT);
+        log.warn("The request with the idempotency key is in progress. Error message: {}", exception.getMessage());
+        countException(exception);
+        return new ResponseEntity<>(wrapper, HttpStatus.CONFLICT);
+    }
+    /**
+     * This method handle idempotency key reused exception response
+     *
+     * @param exception idempotency key reused exception
+     * @return ErrorResponse/UnprocessableEntity
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<ResponseWrapper> idempotencyKeyReusedException(IdempotencyKeyReusedException exception) {
+        var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.IDEMPOTENCY_KEY_REUSED,
+                HttpStatus.UNPROCESSABLE_ENTITY);
+        log.error("The idempotency key is reused for a different request. Error message: {}", exception.getMessage());
+        countException(exception);
+        return new ResponseEntity<>(wrapper, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
     /**
      * This method handle payment exception response
      *
@@ -72,6 +173,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     public ResponseEntity<ResponseWrapper> paymentException(PaymentException exception) {
         var wrapper = new ErrorResponseWrapper(ErrorResponseStatus.INTERNAL_SERVER_ERROR, HttpStatus.INTERNAL_SERVER_ERROR);
         log.error("The payment service is failed. Error message: {}", exception.getMessage());
+        countException(exception);
         return new ResponseEntity<>(wrapper, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    /**
+     * Count the exception by its type, so the rate of the expected business failures can be followed
+     *
+     * @param exception handled exception
+     */
+    private void countException(PaymentException exception) {
+        meterRegistry.counter(EXCEPTION_COUNTER, "exception", exception.getClass().getSimpleName()).increment();
+    }
 }
@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class IdempotencyKeyInProgressException extends PaymentException {
+    public IdempotencyKeyInProgressException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public IdempotencyKeyInProgressException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
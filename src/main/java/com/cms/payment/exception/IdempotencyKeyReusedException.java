@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class IdempotencyKeyReusedException extends PaymentException {
+    public IdempotencyKeyReusedException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public IdempotencyKeyReusedException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class InvalidExportFormatException extends PaymentException {
+    public InvalidExportFormatException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public InvalidExportFormatException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
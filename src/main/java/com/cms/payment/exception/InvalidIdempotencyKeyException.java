@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class InvalidIdempotencyKeyException extends PaymentException {
+    public InvalidIdempotencyKeyException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public InvalidIdempotencyKeyException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class InvalidPageRequestException extends PaymentException {
+    public InvalidPageRequestException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public InvalidPageRequestException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
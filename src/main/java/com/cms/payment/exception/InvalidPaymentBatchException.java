@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class InvalidPaymentBatchException extends PaymentException {
+    public InvalidPaymentBatchException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public InvalidPaymentBatchException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.cms.payment.exception;
+
+public class InvalidPaymentMonthException extends PaymentException {
+    public InvalidPaymentMonthException(String errorMessage) {
+        super(errorMessage);
+    }
+
+    public InvalidPaymentMonthException(String errorMessage, Throwable error) {
+        super(errorMessage, error);
+    }
+}
@@ -0,0 +1,56 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.PaymentEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends the published events to a newline delimited JSON file. Every batch is forced to the disk before it is
+ * reported as published.
+ */
+public class FilePaymentEventSink implements PaymentEventSink, Closeable {
+    private final FileChannel channel;
+    private final ObjectWriter jsonWriter;
+
+    public FilePaymentEventSink(Path file, ObjectMapper objectMapper) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        this.jsonWriter = objectMapper.writerFor(PaymentEvent.class);
+    }
+
+    @Override
+    public synchronized void publish(List<PaymentEvent> events) {
+        try {
+            var lines = new StringBuilder();
+            for (PaymentEvent event : events) {
+                lines.append(jsonWriter.writeValueAsString(event)).append('\n');
+            }
+            var buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,39 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.PaymentEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * In-process sink keeping the last {@code capacity} published events, for tests and local runs
+ */
+public class InMemoryPaymentEventSink implements PaymentEventSink {
+    private final int capacity;
+    private final Deque<PaymentEvent> events = new ArrayDeque<>();
+
+    public InMemoryPaymentEventSink(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public synchronized void publish(List<PaymentEvent> publishedEvents) {
+        for (PaymentEvent event : publishedEvents) {
+            if (events.size() >= capacity) {
+                events.removeFirst();
+            }
+            events.addLast(event);
+        }
+    }
+
+    /**
+     * Get the published events in the order they are published
+     *
+     * @return PaymentEventList
+     */
+    public synchronized List<PaymentEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+}
@@ -0,0 +1,19 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.PaymentEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the payment events published by the {@link PaymentOutboxRelay}
+ */
+public interface PaymentEventSink {
+
+    /**
+     * Publish a batch of events in the given order. The batch is published again when this throws, so the events
+     * may be delivered more than once and consumers should skip the event ids they have already seen.
+     *
+     * @param events payment events ordered by event id
+     */
+    void publish(List<PaymentEvent> events);
+}
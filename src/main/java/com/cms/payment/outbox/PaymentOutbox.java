@@ -0,0 +1,60 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.entity.PaymentEvent;
+import com.cms.payment.enums.PaymentEventType;
+import com.cms.payment.repository.PaymentEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the payment events into the outbox table when {@code payment.outbox.enabled} is set. The events are written
+ * only in the transaction of the payment change, so an event is stored exactly when its change is committed.
+ */
+@Component
+public class PaymentOutbox {
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final boolean enabled;
+
+    @Autowired
+    public PaymentOutbox(PaymentEventRepository paymentEventRepository,
+                         @Value("${payment.outbox.enabled:false}") boolean enabled) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Record an event of the payment
+     *
+     * @param eventType event type
+     * @param payment   changed payment
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(PaymentEventType eventType, Payment payment) {
+        if (enabled) {
+            paymentEventRepository.save(new PaymentEvent(eventType, payment));
+        }
+    }
+
+    /**
+     * Record an event of each payment
+     *
+     * @param eventType event type
+     * @param payments  changed payments
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(PaymentEventType eventType, List<Payment> payments) {
+        if (enabled) {
+            paymentEventRepository.saveAll(payments.stream()
+                    .map(payment -> new PaymentEvent(eventType, payment))
+                    .collect(Collectors.toList()));
+        }
+    }
+}
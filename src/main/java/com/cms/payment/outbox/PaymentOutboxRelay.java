@@ -0,0 +1,111 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.PaymentEvent;
+import com.cms.payment.repository.PaymentEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the outbox events to the {@link PaymentEventSink} in batches of {@code batchSize}, in event id order.
+ * <p>
+ * A batch is read with a write lock, handed to the sink and marked published in one transaction, so the relays of
+ * several instances publish one after the other and never reorder the events. A batch is retried until the sink
+ * accepts it and the later events wait for it, which keeps the events of every student in order and delivers each of
+ * them at least once. Published events are deleted after {@code retention}.
+ * <p>
+ * The published events are counted as {@code payment.outbox.published}, the time from the payment change to the
+ * publishing is timed as {@code payment.outbox.lag}, and the unpublished events are gauged as
+ * {@code payment.outbox.backlog}.
+ */
+@Slf4j
+public class PaymentOutboxRelay {
+
+    private final PaymentEventRepository paymentEventRepository;
+    private final PaymentEventSink paymentEventSink;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Duration retention;
+    private final Clock clock;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final Timer lagTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public PaymentOutboxRelay(PaymentEventRepository paymentEventRepository, PaymentEventSink paymentEventSink,
+                              TransactionTemplate transactionTemplate, int batchSize, Duration retention,
+                              MeterRegistry meterRegistry, Clock clock) {
+        this.paymentEventRepository = paymentEventRepository;
+        this.paymentEventSink = paymentEventSink;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.retention = retention;
+        this.clock = clock;
+        this.publishedCounter = meterRegistry.counter("payment.outbox.published");
+        this.failedCounter = meterRegistry.counter("payment.outbox.failed.batches");
+        this.lagTimer = Timer.builder("payment.outbox.lag")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("payment.outbox.backlog", backlog, AtomicLong::get).register(meterRegistry);
+    }
+
+    /**
+     * Publish the unpublished events until the outbox is drained or the sink fails
+     */
+    @Scheduled(fixedDelayString = "${payment.outbox.pollInterval:1000}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+            backlog.set(paymentEventRepository.countUnpublished());
+        } catch (RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Publishing the payment events is failed. It is retried on the next poll. Error message: {}",
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Delete the events published before the retention
+     */
+    @Scheduled(fixedDelayString = "${payment.outbox.purgeInterval:3600000}")
+    public void purge() {
+        try {
+            var deleted = transactionTemplate.execute(status -> paymentEventRepository.deletePublishedBefore(
+                    new Timestamp(clock.millis() - retention.toMillis())));
+            log.debug("Purged {} published payment events", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Purging the published payment events is failed. Error message: {}", e.getMessage());
+        }
+    }
+
+    private int publishBatch() {
+        List<PaymentEvent> events = paymentEventRepository.findUnpublished(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        paymentEventSink.publish(events);
+        long now = clock.millis();
+        paymentEventRepository.markPublished(events.stream().map(PaymentEvent::getEventId)
+                .collect(Collectors.toList()), new Timestamp(now));
+        for (PaymentEvent event : events) {
+            lagTimer.record(Duration.ofMillis(Math.max(0, now - event.getCreatedAt().getTime())));
+        }
+        publishedCounter.increment(events.size());
+        return events.size();
+    }
+}
@@ -0,0 +1,33 @@
+package com.cms.payment.repository;
+
+import com.cms.payment.domain.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Modifying
+    @Query(value = "UPDATE IdempotencyRecord r SET r.createdAt = ?2 WHERE r.idempotencyKey = ?1 " +
+            "AND r.completedAt IS NULL AND r.createdAt < ?3")
+    int takeOver(String idempotencyKey, Timestamp createdAt, Timestamp claimedBefore);
+
+    @Modifying
+    @Query(value = "UPDATE IdempotencyRecord r SET r.statusCode = ?3, r.responseMessage = ?4, r.responseBody = ?5, " +
+            "r.completedAt = ?6 WHERE r.idempotencyKey = ?1 AND r.createdAt = ?2")
+    int complete(String idempotencyKey, Timestamp claimedAt, int statusCode, String responseMessage,
+                 String responseBody, Timestamp completedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = ?1 AND r.createdAt = ?2 " +
+            "AND r.completedAt IS NULL")
+    int release(String idempotencyKey, Timestamp claimedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM IdempotencyRecord r WHERE r.createdAt < ?1")
+    int deleteCreatedBefore(Timestamp createdAt);
+}
@@ -0,0 +1,33 @@
+package com.cms.payment.repository;
+
+import com.cms.payment.domain.entity.PaymentEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PaymentEventRepository extends JpaRepository<PaymentEvent, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(value = "SELECT e FROM PaymentEvent e WHERE e.publishedAt IS NULL ORDER BY e.eventId")
+    List<PaymentEvent> findUnpublished(Pageable pageable);
+
+    @Query(value = "SELECT COUNT(e) FROM PaymentEvent e WHERE e.publishedAt IS NULL")
+    long countUnpublished();
+
+    @Modifying
+    @Query(value = "UPDATE PaymentEvent e SET e.publishedAt = ?2 WHERE e.eventId IN ?1")
+    int markPublished(Collection<Long> eventIds, Timestamp publishedAt);
+
+    @Modifying
+    @Query(value = "DELETE FROM PaymentEvent e WHERE e.publishedAt < ?1")
+    int deletePublishedBefore(Timestamp publishedAt);
+}
@@ -1,29 +1,62 @@
 package com.cms.payment.repository;
 
 import com.cms.payment.domain.entity.Payment;
-import org.springframework.data.domain.Page;
+import com.cms.payment.utills.Constants;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
+import javax.persistence.QueryHint;
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, String> {
-    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false", nativeQuery = true)
-    Page<Payment> findAll(Pageable pageable);
-
-    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.student_id=?1", nativeQuery = true)
-    Page<Payment> findByStudentId(Pageable pageable, String studentId);
-
-    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.payment_id=?1", nativeQuery = true)
-    Optional<Payment> findById(String paymentId);
-
-    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.payment_month=?1", nativeQuery = true)
-    Page<Payment> findByPaymentMonth(Pageable pageable, String paymentMonth);
-
-    boolean existsByPaymentMonthAndStudentIdAndIsDeletedFalse(String paymentMonth, String studentId);
-
-    boolean existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(String paymentMonth, String studentId, String paymentId);
+    String AFTER_CURSOR = " AND (p.updated_at < ?1 OR (p.updated_at = ?1 AND p.payment_id < ?2))";
+    String CURSOR_ORDER = " ORDER BY p.updated_at DESC, p.payment_id DESC";
+    String EXPORT_FETCH_SIZE = "500";
+
+    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false" + AFTER_CURSOR + CURSOR_ORDER,
+            nativeQuery = true)
+    Slice<Payment> findAllAfter(Pageable pageable, Date updatedAt, String paymentId);
+
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = Constants.STUDENT_PAYMENTS_CACHE_REGION)})
+    @Query(value = "SELECT p FROM Payment p WHERE p.isDeleted=false AND p.studentId=?3 AND (p.updatedAt < ?1"
+            + " OR (p.updatedAt = ?1 AND p.paymentId < ?2)) ORDER BY p.updatedAt DESC, p.paymentId DESC")
+    Slice<Payment> findByStudentIdAfter(Pageable pageable, Date updatedAt, String paymentId, String studentId);
+
+    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.payment_period=?3" + AFTER_CURSOR
+            + CURSOR_ORDER, nativeQuery = true)
+    Slice<Payment> findByPaymentPeriodAfter(Pageable pageable, Date updatedAt, String paymentId, int paymentPeriod);
+
+    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.payment_period BETWEEN ?3 AND ?4"
+            + AFTER_CURSOR + CURSOR_ORDER, nativeQuery = true)
+    Slice<Payment> findByPaymentPeriodBetweenAfter(Pageable pageable, Date updatedAt, String paymentId,
+                                                   int fromPeriod, int toPeriod);
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = EXPORT_FETCH_SIZE), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND (?1 IS NULL OR p.payment_period=?1)"
+            + " AND (?2 IS NULL OR p.student_id=?2)" + CURSOR_ORDER, nativeQuery = true)
+    Stream<Payment> streamAll(Integer paymentPeriod, String studentId);
+
+    @Query(value = "SELECT * FROM payment p WHERE p.is_deleted=false AND p.student_id IN (?1)"
+            + " AND p.payment_period IN (?2)", nativeQuery = true)
+    List<Payment> findByStudentIdsAndPaymentPeriods(Collection<String> studentIds, Collection<Integer> paymentPeriods);
+
+    @Query(value = "SELECT p.student_id FROM payment p WHERE p.is_deleted=false AND p.payment_period=?1",
+            nativeQuery = true)
+    List<String> findPaidStudentIds(int paymentPeriod);
+
+    boolean existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(Integer paymentPeriod, String studentId, String paymentId);
 }
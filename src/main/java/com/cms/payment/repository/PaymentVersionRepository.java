@@ -0,0 +1,18 @@
+package com.cms.payment.repository;
+
+import com.cms.payment.domain.entity.PaymentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PaymentVersionRepository extends JpaRepository<PaymentVersion, Integer> {
+
+    @Modifying
+    @Query(value = "UPDATE PaymentVersion v SET v.version = v.version + 1")
+    int advance();
+
+    @Query(value = "SELECT v.version FROM PaymentVersion v")
+    long findVersion();
+}
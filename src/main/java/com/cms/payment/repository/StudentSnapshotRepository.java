@@ -0,0 +1,15 @@
+package com.cms.payment.repository;
+
+import com.cms.payment.domain.entity.StudentSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+
+@Repository
+public interface StudentSnapshotRepository extends JpaRepository<StudentSnapshot, String> {
+
+    @Query(value = "SELECT MAX(s.updatedAt) FROM StudentSnapshot s")
+    Date findWatermark();
+}
@@ -0,0 +1,15 @@
+package com.cms.payment.repository;
+
+import com.cms.payment.domain.entity.TuitionClassSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+
+@Repository
+public interface TuitionClassSnapshotRepository extends JpaRepository<TuitionClassSnapshot, String> {
+
+    @Query(value = "SELECT MAX(t.updatedAt) FROM TuitionClassSnapshot t")
+    Date findWatermark();
+}
@@ -0,0 +1,340 @@
+package com.cms.payment.service;
+
+import com.cms.payment.cache.DirectoryCache;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.PaymentException;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.StudentListResponseWrapper;
+import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Student and tuition class directory backed by the remote services and an in-process snapshot cache.
+ * The remote calls go through the guard of their service. The snapshots are refreshed ahead in the background only
+ * when a service token is configured.
+ */
+@Slf4j
+@Service
+public class DirectoryService {
+
+    private static final String CONNECTION_EXCEPTION_MESSAGE = "The requested resource couldn't access due to unavailability";
+    private static final String STUDENT_IDS_REPLACE_PHRASE = "##STUDENT-IDS##";
+    private final RestTemplate restTemplate;
+    private final RemoteServiceGuard studentServiceGuard;
+    private final RemoteServiceGuard tuitionServiceGuard;
+    private final String getAllStudentDetails;
+    private final String getStudentsByIds;
+    private final String getAllLocationDetails;
+    private final int maxIdsPerLookup;
+    private final String serviceToken;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final DirectoryCache<StudentResponseDto> studentCache;
+    private final DirectoryCache<TuitionClassResponseDto> tuitionClassCache;
+
+    @Autowired
+    public DirectoryService(RestTemplate restTemplate,
+                            @Qualifier("studentServiceGuard") RemoteServiceGuard studentServiceGuard,
+                            @Qualifier("tuitionServiceGuard") RemoteServiceGuard tuitionServiceGuard,
+                            @Value("${student.uri.baseUrl}") String studentBaseUrl,
+                            @Value("${location.uri.baseUrl}") String locationBaseUrl,
+                            @Value("${student.uri.getAllStudentDetails}") String getAllStudentDetails,
+                            @Value("${student.uri.getStudentsByIds}") String getStudentsByIds,
+                            @Value("${location.uri.getAllLocationDetails}") String getAllLocationDetails,
+                            @Value("${directory.maxIdsPerLookup:100}") int maxIdsPerLookup,
+                            @Value("${directory.cache.ttl:PT5M}") Duration ttl,
+                            @Value("${directory.cache.refreshAfter:PT1M}") Duration refreshAfter,
+                            @Value("${directory.cache.maxEntries:100000}") int maxEntries,
+                            @Value("${directory.serviceToken:}") String serviceToken) {
+        this.restTemplate = restTemplate;
+        this.studentServiceGuard = studentServiceGuard;
+        this.tuitionServiceGuard = tuitionServiceGuard;
+        this.getAllStudentDetails = studentBaseUrl + getAllStudentDetails;
+        this.getStudentsByIds = studentBaseUrl + getStudentsByIds;
+        this.getAllLocationDetails = locationBaseUrl + getAllLocationDetails;
+        this.maxIdsPerLookup = maxIdsPerLookup;
+        this.serviceToken = serviceToken;
+        this.refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(2), runnable -> {
+            var thread = new Thread(runnable, "directory-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        // A background refresh with a caller token could outlive the token, so without a service token the
+        // directories are reloaded by the first request after the ttl instead of being refreshed ahead
+        Duration refreshAhead = hasServiceToken() ? refreshAfter : ttl;
+        this.studentCache = new DirectoryCache<>("student", ttl, refreshAhead, maxEntries, refreshExecutor,
+                Clock.systemUTC());
+        this.tuitionClassCache = new DirectoryCache<>("tuition class", ttl, refreshAhead, maxEntries,
+                refreshExecutor, Clock.systemUTC());
+    }
+
+    /**
+     * Get the student details mapped with student id. The last loaded directory is served while the student
+     * service is unavailable.
+     *
+     * @param authToken access token of the caller, used only when no service token is configured
+     * @return StudentResponseDtoMap
+     */
+    public Map<String, StudentResponseDto> getStudentsDetails(String authToken) {
+        String token = resolveToken(authToken);
+        try {
+            return studentCache.get(() -> studentServiceGuard.call(() -> fetchStudentsDetails(token)));
+        } catch (ConnectionException e) {
+            return getLastGood(studentCache, "student", e);
+        }
+    }
+
+    /**
+     * Get the details of the given students mapped with student id. The cached directory is used when it holds
+     * all of them, otherwise the students are requested in batches of at most {@code maxIdsPerLookup} ids.
+     * Students unknown to the student service are left out of the map. The last loaded directory is used while the
+     * student service is unavailable.
+     *
+     * @param studentIds student ids
+     * @param authToken  access token of the caller, used only when no service token is configured
+     * @return StudentResponseDtoMap
+     */
+    public Map<String, StudentResponseDto> getStudentsDetails(Collection<String> studentIds, String authToken) {
+        if (studentIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        var cachedStudents = studentCache.peek();
+        if (cachedStudents != null && cachedStudents.keySet().containsAll(studentIds)) {
+            return selectStudents(cachedStudents, studentIds);
+        }
+        String token = resolveToken(authToken);
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
+        try {
+            for (int from = 0; from < idList.size(); from += maxIdsPerLookup) {
+                var batch = idList.subList(from, Math.min(from + maxIdsPerLookup, idList.size()));
+                studentDetailsMap.putAll(studentServiceGuard.call(() -> fetchStudentsDetails(batch, token)));
+            }
+        } catch (HttpClientErrorException e) {
+            log.debug("Looking up students by ids is failed with {}. Using the student directory", e.getStatusCode());
+            return selectStudents(getStudentsDetails(authToken), studentIds);
+        } catch (ConnectionException e) {
+            return selectStudents(getLastGood(studentCache, "student", e), studentIds);
+        }
+        return studentDetailsMap;
+    }
+
+    /**
+     * Get the cached student details without loading them
+     *
+     * @return StudentResponseDtoMap, or null when the directory is not cached
+     */
+    public Map<String, StudentResponseDto> peekStudentsDetails() {
+        return studentCache.peek();
+    }
+
+    /**
+     * Get the last loaded student details regardless of their age
+     *
+     * @return StudentResponseDtoMap, or null when nothing is cached
+     */
+    public Map<String, StudentResponseDto> peekLastGoodStudentsDetails() {
+        return studentCache.peekLastGood();
+    }
+
+    /**
+     * Cache the student details loaded by the caller
+     *
+     * @param studentDetails student details mapped with student id
+     * @return StudentResponseDtoMap
+     */
+    public Map<String, StudentResponseDto> cacheStudentsDetails(Map<String, StudentResponseDto> studentDetails) {
+        return studentCache.put(studentDetails);
+    }
+
+    /**
+     * Load or refresh the cached student details with the service token. Nothing is done when no service token is
+     * configured, as there is no caller token to use.
+     */
+    public void refreshStudentsDetails() {
+        if (!hasServiceToken()) {
+            return;
+        }
+        studentCache.get(() -> studentServiceGuard.call(() -> fetchStudentsDetails(serviceToken)));
+    }
+
+    /**
+     * Get the tuition class details mapped with tuition class id. The last loaded directory is served while the
+     * tuition service is unavailable.
+     *
+     * @param authToken access token of the caller, used only when no service token is configured
+     * @return TuitionClassResponseDtoMap
+     */
+    public Map<String, TuitionClassResponseDto> getTuitionClassDetails(String authToken) {
+        String token = resolveToken(authToken);
+        try {
+            return tuitionClassCache.get(() -> tuitionServiceGuard.call(() -> fetchTuitionClassDetails(token)));
+        } catch (ConnectionException e) {
+            return getLastGood(tuitionClassCache, "tuition class", e);
+        }
+    }
+
+    /**
+     * Get the cached tuition class details without loading them
+     *
+     * @return TuitionClassResponseDtoMap, or null when the directory is not cached
+     */
+    public Map<String, TuitionClassResponseDto> peekTuitionClassDetails() {
+        return tuitionClassCache.peek();
+    }
+
+    /**
+     * Get the last loaded tuition class details regardless of their age
+     *
+     * @return TuitionClassResponseDtoMap, or null when nothing is cached
+     */
+    public Map<String, TuitionClassResponseDto> peekLastGoodTuitionClassDetails() {
+        return tuitionClassCache.peekLastGood();
+    }
+
+    /**
+     * Cache the tuition class details loaded by the caller
+     *
+     * @param tuitionClassDetails tuition class details mapped with tuition class id
+     * @return TuitionClassResponseDtoMap
+     */
+    public Map<String, TuitionClassResponseDto> cacheTuitionClassDetails(
+            Map<String, TuitionClassResponseDto> tuitionClassDetails) {
+        return tuitionClassCache.put(tuitionClassDetails);
+    }
+
+    /**
+     * Get the version of the cached student and tuition class directories
+     *
+     * @return version, or null when a directory is not cached
+     */
+    public String getVersion() {
+        var studentVersion = studentCache.getVersion();
+        var tuitionClassVersion = tuitionClassCache.getVersion();
+        if (studentVersion == null || tuitionClassVersion == null) {
+            return null;
+        }
+        return Integer.toHexString(studentVersion) + "." + Integer.toHexString(tuitionClassVersion);
+    }
+
+    /**
+     * Drop the cached directories so the next read reloads them
+     */
+    public void invalidate() {
+        studentCache.invalidate();
+        tuitionClassCache.invalidate();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private <V> Map<String, V> getLastGood(DirectoryCache<V> cache, String name, ConnectionException exception) {
+        var lastGood = cache.peekLastGood();
+        if (lastGood == null) {
+            throw exception;
+        }
+        log.warn("Serving the last loaded {} directory as the service is unavailable. Error message: {}", name,
+                exception.getMessage());
+        return lastGood;
+    }
+
+    String resolveToken(String authToken) {
+        return hasServiceToken() ? serviceToken : authToken;
+    }
+
+    private boolean hasServiceToken() {
+        return serviceToken != null && !serviceToken.isBlank();
+    }
+
+    private Map<String, StudentResponseDto> fetchStudentsDetails(String authToken) {
+        try {
+            var headers = new HttpHeaders();
+            headers.set(Constants.TOKEN_HEADER, authToken);
+            var entity = new HttpEntity<String>(headers);
+            var studentResponse = restTemplate.exchange(getAllStudentDetails, HttpMethod.GET, entity,
+                    StudentListResponseWrapper.class);
+            var studentResponseList = Objects.requireNonNull(studentResponse.getBody()).getData().getStudents();
+            Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
+            for (StudentResponseDto responseDto : studentResponseList) {
+                studentDetailsMap.put(responseDto.getStudentId(), responseDto);
+            }
+            return studentDetailsMap;
+        } catch (ResourceAccessException e) {
+            throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
+        } catch (HttpClientErrorException e) {
+            throw new PaymentException("The requesting data is failed.", e);
+        }
+    }
+
+    private Map<String, StudentResponseDto> fetchStudentsDetails(List<String> studentIds, String authToken) {
+        try {
+            var headers = new HttpHeaders();
+            headers.set(Constants.TOKEN_HEADER, authToken);
+            var entity = new HttpEntity<String>(headers);
+            String uri = getStudentsByIds.replace(STUDENT_IDS_REPLACE_PHRASE, String.join(",", studentIds));
+            var studentResponse = restTemplate.exchange(uri, HttpMethod.GET, entity, StudentListResponseWrapper.class);
+            var studentResponseList = Objects.requireNonNull(studentResponse.getBody()).getData().getStudents();
+            Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
+            for (StudentResponseDto responseDto : studentResponseList) {
+                studentDetailsMap.put(responseDto.getStudentId(), responseDto);
+            }
+            return studentDetailsMap;
+        } catch (ResourceAccessException e) {
+            throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
+        }
+    }
+
+    static Map<String, StudentResponseDto> selectStudents(Map<String, StudentResponseDto> students,
+                                                          Collection<String> studentIds) {
+        Map<String, StudentResponseDto> selectedStudents = new HashMap<>();
+        for (String studentId : studentIds) {
+            var student = students.get(studentId);
+            if (student != null) {
+                selectedStudents.put(studentId, student);
+            }
+        }
+        return selectedStudents;
+    }
+
+    private Map<String, TuitionClassResponseDto> fetchTuitionClassDetails(String authToken) {
+        try {
+            var headers = new HttpHeaders();
+            headers.set(Constants.TOKEN_HEADER, authToken);
+            var entity = new HttpEntity<String>(headers);
+            var tuitionClassResponse = restTemplate.exchange(getAllLocationDetails, HttpMethod.GET, entity,
+                    TuitionClassListResponseWrapper.class);
+            var tuitionClassResponseList = Objects.requireNonNull(tuitionClassResponse.getBody()).getData().getLocations();
+            Map<String, TuitionClassResponseDto> tuitionClassDetailsMap = new HashMap<>();
+            for (TuitionClassResponseDto responseDto : tuitionClassResponseList) {
+                tuitionClassDetailsMap.put(responseDto.getTuitionClassId(), responseDto);
+            }
+            return tuitionClassDetailsMap;
+        } catch (ResourceAccessException e) {
+            throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
+        } catch (HttpClientErrorException e) {
+            throw new PaymentException("The requesting data is failed.", e);
+        }
+    }
+}
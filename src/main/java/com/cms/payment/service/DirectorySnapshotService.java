@@ -0,0 +1,321 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.entity.StudentSnapshot;
+import com.cms.payment.domain.entity.TuitionClassSnapshot;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.repository.StudentSnapshotRepository;
+import com.cms.payment.repository.TuitionClassSnapshotRepository;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.StudentListResponseWrapper;
+import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Local read model of the student and tuition class directories, enabled with {@code directory.snapshot.enabled}.
+ * <p>
+ * The directories are kept in the {@code student_snapshot} and {@code tuition_class_snapshot} tables. Every
+ * {@code syncInterval} the rows updated since the latest {@code updatedAt} of a table are pulled from the remote
+ * service with the service token and upserted, and the local directory is handed to the {@link DirectoryService}
+ * cache. The deleted students and tuition classes are kept in the tables as tombstones, so their deletion is not
+ * pulled again, but are left out of the cache. The enrichment and the student validation are then served locally, and the last synchronized directory is
+ * still served after a restart while the remote services are unavailable.
+ * <p>
+ * The {@code updatedAt} dates have a day precision, so the changes of the watermark day are pulled again on every
+ * sync and only the rows which differ from the local ones are written. The time since the last successful sync of
+ * each directory is published as {@code payment.directory.sync.lag}.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "directory.snapshot.enabled", havingValue = "true")
+public class DirectorySnapshotService {
+
+    private static final String UPDATED_SINCE_REPLACE_PHRASE = "##UPDATED-SINCE##";
+    private static final String SYNC_LAG_GAUGE = "payment.directory.sync.lag";
+    private final DirectoryService directoryService;
+    private final StudentSnapshotRepository studentSnapshotRepository;
+    private final TuitionClassSnapshotRepository tuitionClassSnapshotRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final RestTemplate restTemplate;
+    private final RemoteServiceGuard studentServiceGuard;
+    private final RemoteServiceGuard tuitionServiceGuard;
+    private final String getAllStudentDetails;
+    private final String getStudentsUpdatedSince;
+    private final String getAllLocationDetails;
+    private final String getLocationsUpdatedSince;
+    private final String serviceToken;
+    private final int batchSize;
+    private final Clock clock;
+    private volatile Map<String, StudentResponseDto> students;
+    private volatile Map<String, TuitionClassResponseDto> tuitionClasses;
+    private volatile long studentsSyncedAt = -1;
+    private volatile long tuitionClassesSyncedAt = -1;
+
+    @Autowired
+    public DirectorySnapshotService(DirectoryService directoryService,
+                                    StudentSnapshotRepository studentSnapshotRepository,
+                                    TuitionClassSnapshotRepository tuitionClassSnapshotRepository,
+                                    PlatformTransactionManager transactionManager, RestTemplate restTemplate,
+                                    @Qualifier("studentServiceGuard") RemoteServiceGuard studentServiceGuard,
+                                    @Qualifier("tuitionServiceGuard") RemoteServiceGuard tuitionServiceGuard,
+                                    @Value("${student.uri.baseUrl}") String studentBaseUrl,
+                                    @Value("${location.uri.baseUrl}") String locationBaseUrl,
+                                    @Value("${student.uri.getAllStudentDetails}") String getAllStudentDetails,
+                                    @Value("${student.uri.getStudentsUpdatedSince}") String getStudentsUpdatedSince,
+                                    @Value("${location.uri.getAllLocationDetails}") String getAllLocationDetails,
+                                    @Value("${location.uri.getLocationsUpdatedSince}") String getLocationsUpdatedSince,
+                                    @Value("${directory.serviceToken:}") String serviceToken,
+                                    @Value("${directory.snapshot.batchSize:500}") int batchSize,
+                                    MeterRegistry meterRegistry) {
+        this(directoryService, studentSnapshotRepository, tuitionClassSnapshotRepository,
+                new TransactionTemplate(transactionManager), restTemplate, studentServiceGuard, tuitionServiceGuard,
+                studentBaseUrl + getAllStudentDetails, studentBaseUrl + getStudentsUpdatedSince,
+                locationBaseUrl + getAllLocationDetails, locationBaseUrl + getLocationsUpdatedSince, serviceToken,
+                batchSize, meterRegistry, Clock.systemUTC());
+    }
+
+    public DirectorySnapshotService(DirectoryService directoryService,
+                                    StudentSnapshotRepository studentSnapshotRepository,
+                                    TuitionClassSnapshotRepository tuitionClassSnapshotRepository,
+                                    TransactionTemplate transactionTemplate, RestTemplate restTemplate,
+                                    RemoteServiceGuard studentServiceGuard, RemoteServiceGuard tuitionServiceGuard,
+                                    String getAllStudentDetails, String getStudentsUpdatedSince,
+                                    String getAllLocationDetails, String getLocationsUpdatedSince,
+                                    String serviceToken, int batchSize, MeterRegistry meterRegistry, Clock clock) {
+        this.directoryService = directoryService;
+        this.studentSnapshotRepository = studentSnapshotRepository;
+        this.tuitionClassSnapshotRepository = tuitionClassSnapshotRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.restTemplate = restTemplate;
+        this.studentServiceGuard = studentServiceGuard;
+        this.tuitionServiceGuard = tuitionServiceGuard;
+        this.getAllStudentDetails = getAllStudentDetails;
+        this.getStudentsUpdatedSince = getStudentsUpdatedSince;
+        this.getAllLocationDetails = getAllLocationDetails;
+        this.getLocationsUpdatedSince = getLocationsUpdatedSince;
+        this.serviceToken = serviceToken;
+        this.batchSize = batchSize;
+        this.clock = clock;
+        TimeGauge.builder(SYNC_LAG_GAUGE, this, TimeUnit.MILLISECONDS,
+                        service -> service.getLag(service.studentsSyncedAt))
+                .tag("directory", "student")
+                .register(meterRegistry);
+        TimeGauge.builder(SYNC_LAG_GAUGE, this, TimeUnit.MILLISECONDS,
+                        service -> service.getLag(service.tuitionClassesSyncedAt))
+                .tag("directory", "tuition_class")
+                .register(meterRegistry);
+        if (serviceToken == null || serviceToken.isBlank()) {
+            log.warn("No directory service token is configured. The directory snapshot is served but not synchronized");
+        }
+    }
+
+    /**
+     * Pull the directory changes into the local snapshot and hand the snapshot to the directory cache
+     */
+    @Scheduled(fixedDelayString = "${directory.snapshot.syncInterval:30000}")
+    public void synchronize() {
+        try {
+            synchronizeStudents();
+        } catch (RuntimeException e) {
+            log.warn("Synchronizing the student snapshot is failed. Error message: {}", e.getMessage());
+        }
+        try {
+            synchronizeTuitionClasses();
+        } catch (RuntimeException e) {
+            log.warn("Synchronizing the tuition class snapshot is failed. Error message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Get the time since the last successful sync of a directory
+     *
+     * @param syncedAt epoch millis of the last successful sync, -1 when never synchronized
+     * @return lag in milliseconds, or NaN when never synchronized
+     */
+    private double getLag(long syncedAt) {
+        return syncedAt < 0 ? Double.NaN : clock.millis() - syncedAt;
+    }
+
+    private void synchronizeStudents() {
+        if (students == null) {
+            students = toMap(studentSnapshotRepository.findAll(), StudentSnapshot::toResponseDto,
+                    StudentResponseDto::getStudentId);
+            log.info("Loaded {} students from the student snapshot", students.size());
+        }
+        try {
+            if (hasServiceToken()) {
+                Date watermark = studentSnapshotRepository.findWatermark();
+                var changes = selectChanges(studentServiceGuard.call(() -> fetchStudents(watermark)), students,
+                        StudentResponseDto::getStudentId);
+                if (!changes.isEmpty()) {
+                    changes.sort(Comparator.comparing(StudentResponseDto::getUpdatedAt,
+                            Comparator.nullsFirst(Comparator.naturalOrder())));
+                    for (int from = 0; from < changes.size(); from += batchSize) {
+                        var batch = changes.subList(from, Math.min(from + batchSize, changes.size()));
+                        transactionTemplate.executeWithoutResult(status -> saveStudents(batch));
+                    }
+                    students = merge(students, changes, StudentResponseDto::getStudentId);
+                    log.debug("Synchronized {} changed students since {}", changes.size(), watermark);
+                }
+                studentsSyncedAt = clock.millis();
+            }
+        } finally {
+            directoryService.cacheStudentsDetails(withoutDeleted(students, StudentResponseDto::isDeleted));
+        }
+    }
+
+    private void synchronizeTuitionClasses() {
+        if (tuitionClasses == null) {
+            tuitionClasses = toMap(tuitionClassSnapshotRepository.findAll(), TuitionClassSnapshot::toResponseDto,
+                    TuitionClassResponseDto::getTuitionClassId);
+            log.info("Loaded {} tuition classes from the tuition class snapshot", tuitionClasses.size());
+        }
+        try {
+            if (hasServiceToken()) {
+                Date watermark = tuitionClassSnapshotRepository.findWatermark();
+                var changes = selectChanges(tuitionServiceGuard.call(() -> fetchTuitionClasses(watermark)),
+                        tuitionClasses, TuitionClassResponseDto::getTuitionClassId);
+                if (!changes.isEmpty()) {
+                    changes.sort(Comparator.comparing(TuitionClassResponseDto::getUpdatedAt,
+                            Comparator.nullsFirst(Comparator.naturalOrder())));
+                    for (int from = 0; from < changes.size(); from += batchSize) {
+                        var batch = changes.subList(from, Math.min(from + batchSize, changes.size()));
+                        transactionTemplate.executeWithoutResult(status -> saveTuitionClasses(batch));
+                    }
+                    tuitionClasses = merge(tuitionClasses, changes, TuitionClassResponseDto::getTuitionClassId);
+                    log.debug("Synchronized {} changed tuition classes since {}", changes.size(), watermark);
+                }
+                tuitionClassesSyncedAt = clock.millis();
+            }
+        } finally {
+            directoryService.cacheTuitionClassDetails(withoutDeleted(tuitionClasses,
+                    TuitionClassResponseDto::isDeleted));
+        }
+    }
+
+    /**
+     * Upsert a batch of students. The batches are saved in the order of their update date, so the watermark of a
+     * partly saved sync never passes a student which is not saved yet.
+     *
+     * @param studentResponseDtoList changed students
+     */
+    private void saveStudents(List<StudentResponseDto> studentResponseDtoList) {
+        var snapshots = toMap(studentSnapshotRepository.findAllById(studentResponseDtoList.stream()
+                .map(StudentResponseDto::getStudentId).collect(Collectors.toList())), Function.identity(),
+                StudentSnapshot::getStudentId);
+        List<StudentSnapshot> changedSnapshots = new ArrayList<>(studentResponseDtoList.size());
+        for (StudentResponseDto studentResponseDto : studentResponseDtoList) {
+            var snapshot = snapshots.get(studentResponseDto.getStudentId());
+            if (snapshot == null) {
+                snapshot = new StudentSnapshot(studentResponseDto);
+            } else {
+                snapshot.update(studentResponseDto);
+            }
+            changedSnapshots.add(snapshot);
+        }
+        studentSnapshotRepository.saveAll(changedSnapshots);
+    }
+
+    private void saveTuitionClasses(List<TuitionClassResponseDto> tuitionClassResponseDtoList) {
+        var snapshots = toMap(tuitionClassSnapshotRepository.findAllById(tuitionClassResponseDtoList.stream()
+                .map(TuitionClassResponseDto::getTuitionClassId).collect(Collectors.toList())), Function.identity(),
+                TuitionClassSnapshot::getTuitionClassId);
+        List<TuitionClassSnapshot> changedSnapshots = new ArrayList<>(tuitionClassResponseDtoList.size());
+        for (TuitionClassResponseDto tuitionClassResponseDto : tuitionClassResponseDtoList) {
+            var snapshot = snapshots.get(tuitionClassResponseDto.getTuitionClassId());
+            if (snapshot == null) {
+                snapshot = new TuitionClassSnapshot(tuitionClassResponseDto);
+            } else {
+                snapshot.update(tuitionClassResponseDto);
+            }
+            changedSnapshots.add(snapshot);
+        }
+        tuitionClassSnapshotRepository.saveAll(changedSnapshots);
+    }
+
+    private List<StudentResponseDto> fetchStudents(Date updatedSince) {
+        String uri = updatedSince == null ? getAllStudentDetails
+                : getStudentsUpdatedSince.replace(UPDATED_SINCE_REPLACE_PHRASE, updatedSince.toString());
+        var studentResponse = restTemplate.exchange(uri, HttpMethod.GET, getServiceTokenEntity(),
+                StudentListResponseWrapper.class);
+        return Objects.requireNonNull(studentResponse.getBody()).getData().getStudents();
+    }
+
+    private List<TuitionClassResponseDto> fetchTuitionClasses(Date updatedSince) {
+        String uri = updatedSince == null ? getAllLocationDetails
+                : getLocationsUpdatedSince.replace(UPDATED_SINCE_REPLACE_PHRASE, updatedSince.toString());
+        var tuitionClassResponse = restTemplate.exchange(uri, HttpMethod.GET, getServiceTokenEntity(),
+                TuitionClassListResponseWrapper.class);
+        return Objects.requireNonNull(tuitionClassResponse.getBody()).getData().getLocations();
+    }
+
+    private HttpEntity<String> getServiceTokenEntity() {
+        var headers = new HttpHeaders();
+        headers.set(Constants.TOKEN_HEADER, serviceToken);
+        return new HttpEntity<>(headers);
+    }
+
+    private boolean hasServiceToken() {
+        return serviceToken != null && !serviceToken.isBlank();
+    }
+
+    private static <V> List<V> selectChanges(List<V> entries, Map<String, V> current, Function<V, String> idGetter) {
+        List<V> changes = new ArrayList<>();
+        for (V entry : entries) {
+            if (!entry.equals(current.get(idGetter.apply(entry)))) {
+                changes.add(entry);
+            }
+        }
+        return changes;
+    }
+
+    private static <V> Map<String, V> merge(Map<String, V> current, List<V> changes, Function<V, String> idGetter) {
+        Map<String, V> merged = new HashMap<>(current);
+        for (V change : changes) {
+            merged.put(idGetter.apply(change), change);
+        }
+        return Collections.unmodifiableMap(merged);
+    }
+
+    private static <V> Map<String, V> withoutDeleted(Map<String, V> entries, Predicate<V> isDeleted) {
+        Map<String, V> map = new HashMap<>();
+        for (var entry : entries.entrySet()) {
+            if (!isDeleted.test(entry.getValue())) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static <E, V> Map<String, V> toMap(Collection<E> entries, Function<E, V> mapper,
+                                               Function<V, String> idGetter) {
+        Map<String, V> map = new HashMap<>();
+        for (E entry : entries) {
+            var value = mapper.apply(entry);
+            map.put(idGetter.apply(value), value);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+}
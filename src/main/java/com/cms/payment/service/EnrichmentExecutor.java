@@ -0,0 +1,155 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.PaymentException;
+import com.cms.payment.utills.VirtualThreads;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs the payment query and the student / tuition class lookups of a read request concurrently
+ * on a dedicated bounded pool and joins them within a per request deadline. In the virtual thread mode every
+ * lookup runs on a virtual thread of its own instead.
+ */
+@Component
+public class EnrichmentExecutor {
+
+    private static final String DEADLINE_EXCEEDED_MESSAGE = "The enrichment of the payment details exceeded the deadline";
+    private static final String THREAD_NAME_PREFIX = "payment-enrichment-";
+    private final ExecutorService executor;
+    private final long deadlineNanos;
+
+    public EnrichmentExecutor(int poolSize, int queueCapacity, Duration deadline) {
+        this(poolSize, queueCapacity, deadline, false);
+    }
+
+    @Autowired
+    public EnrichmentExecutor(@Value("${payment.enrichment.poolSize:16}") int poolSize,
+                              @Value("${payment.enrichment.queueCapacity:64}") int queueCapacity,
+                              @Value("${payment.enrichment.deadline:PT10S}") Duration deadline,
+                              @Value("${payment.virtualThreads.enabled:false}") boolean virtualThreads) {
+        this.executor = virtualThreads ? VirtualThreads.newThreadPerTaskExecutor(THREAD_NAME_PREFIX)
+                : createPool(poolSize, queueCapacity);
+        this.deadlineNanos = deadline.toNanos();
+    }
+
+    /**
+     * Run the three sources concurrently. When one of them fails or the deadline is exceeded the others are cancelled.
+     *
+     * @param query          payment query
+     * @param studentDetails student details lookup
+     * @param tuitionDetails tuition class details lookup
+     * @param <T>            payment query result type
+     * @return EnrichedResult
+     */
+    public <T> EnrichedResult<T> enrich(Supplier<T> query,
+                                        Supplier<Map<String, StudentResponseDto>> studentDetails,
+                                        Supplier<Map<String, TuitionClassResponseDto>> tuitionDetails) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        Future<T> queryFuture = executor.submit(query::get);
+        Future<Map<String, StudentResponseDto>> studentFuture = executor.submit(studentDetails::get);
+        Future<Map<String, TuitionClassResponseDto>> tuitionFuture = executor.submit(tuitionDetails::get);
+        try {
+            return new EnrichedResult<>(await(queryFuture, deadline), await(studentFuture, deadline),
+                    await(tuitionFuture, deadline));
+        } finally {
+            queryFuture.cancel(true);
+            studentFuture.cancel(true);
+            tuitionFuture.cancel(true);
+        }
+    }
+
+    /**
+     * Run the payment query and the tuition class lookup concurrently, then look up only the students
+     * of the returned payments. When one of them fails or the deadline is exceeded the others are cancelled.
+     *
+     * @param query          payment query
+     * @param studentDetails student details lookup for the query result
+     * @param tuitionDetails tuition class details lookup
+     * @param <T>            payment query result type
+     * @return EnrichedResult
+     */
+    public <T> EnrichedResult<T> enrichPage(Supplier<T> query,
+                                            Function<T, Map<String, StudentResponseDto>> studentDetails,
+                                            Supplier<Map<String, TuitionClassResponseDto>> tuitionDetails) {
+        long deadline = System.nanoTime() + deadlineNanos;
+        Future<T> queryFuture = executor.submit(query::get);
+        Future<Map<String, TuitionClassResponseDto>> tuitionFuture = executor.submit(tuitionDetails::get);
+        Future<Map<String, StudentResponseDto>> studentFuture = null;
+        try {
+            T payments = await(queryFuture, deadline);
+            studentFuture = executor.submit(() -> studentDetails.apply(payments));
+            return new EnrichedResult<>(payments, await(studentFuture, deadline), await(tuitionFuture, deadline));
+        } finally {
+            queryFuture.cancel(true);
+            tuitionFuture.cancel(true);
+            if (studentFuture != null) {
+                studentFuture.cancel(true);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ExecutorService createPool(int poolSize, int queueCapacity) {
+        var threadCount = new AtomicInteger();
+        var pool = new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+            var thread = new Thread(runnable, THREAD_NAME_PREFIX + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private <V> V await(Future<V> future, long deadline) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new ConnectionException(DEADLINE_EXCEEDED_MESSAGE, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("The enrichment of the payment details is interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new PaymentException("The enrichment of the payment details is failed", e.getCause());
+        }
+    }
+
+    /**
+     * Joined result of a payment query with its student and tuition class details
+     *
+     * @param <T> payment query result type
+     */
+    @Getter
+    public static class EnrichedResult<T> {
+        private final T payments;
+        private final Map<String, StudentResponseDto> studentMap;
+        private final Map<String, TuitionClassResponseDto> tuitionClassMap;
+
+        public EnrichedResult(T payments, Map<String, StudentResponseDto> studentMap,
+                              Map<String, TuitionClassResponseDto> tuitionClassMap) {
+            this.payments = payments;
+            this.studentMap = studentMap;
+            this.tuitionClassMap = tuitionClassMap;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.cms.payment.service;
+
+import com.cms.payment.cache.IdempotencyCache;
+import com.cms.payment.domain.entity.IdempotencyRecord;
+import com.cms.payment.domain.request.RequestDto;
+import com.cms.payment.domain.response.ResponseDto;
+import com.cms.payment.exception.IdempotencyKeyInProgressException;
+import com.cms.payment.exception.IdempotencyKeyReusedException;
+import com.cms.payment.exception.InvalidIdempotencyKeyException;
+import com.cms.payment.exception.PaymentException;
+import com.cms.payment.repository.IdempotencyRecordRepository;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.ResponseWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+/**
+ * Makes the payment requests sent with an {@code Idempotency-Key} header safe to retry.
+ * <p>
+ * A key is claimed by inserting it into the {@code payment_idempotency_key} table before the request is processed, so
+ * only one of the concurrent requests with the same key is processed on any instance and the others are rejected as
+ * in progress. The successful response is stored with the key and kept in a bounded {@link IdempotencyCache}, and the
+ * retries of the request are answered with it without processing the request again. A failed request releases its key,
+ * so it can be retried. A key claimed longer than {@code inFlightTimeout} ago and never completed is taken over by the
+ * next retry. A claim is owned by its claim time, so a request whose key was taken over neither stores its response
+ * nor releases the key of the new owner. Keys are deleted after {@code retention}.
+ * <p>
+ * A key is bound to the request it is first used with, and using it for a different request is rejected. The handled
+ * requests are counted as {@code payment.idempotency.requests} by their result.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+    private static final String REQUEST_COUNTER = "payment.idempotency.requests";
+    private static final int MAX_KEY_LENGTH = 100;
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final IdempotencyCache idempotencyCache;
+    private final Duration retention;
+    private final Duration inFlightTimeout;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                              @Value("${payment.idempotency.maxEntries:10000}") int maxEntries,
+                              @Value("${payment.idempotency.retention:P1D}") Duration retention,
+                              @Value("${payment.idempotency.inFlightTimeout:PT1M}") Duration inFlightTimeout,
+                              MeterRegistry meterRegistry) {
+        this(idempotencyRecordRepository, new TransactionTemplate(transactionManager), objectMapper,
+                new IdempotencyCache(maxEntries, retention, Clock.systemUTC()), retention, inFlightTimeout,
+                meterRegistry, Clock.systemUTC());
+    }
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                              IdempotencyCache idempotencyCache, Duration retention, Duration inFlightTimeout,
+                              MeterRegistry meterRegistry, Clock clock) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.objectMapper = objectMapper;
+        this.idempotencyCache = idempotencyCache;
+        this.retention = retention;
+        this.inFlightTimeout = inFlightTimeout;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+    }
+
+    /**
+     * Process a request once for an idempotency key, and answer its retries with the stored response
+     *
+     * @param idempotencyKey idempotency key, the request is processed as usual when it is null
+     * @param requestDto     request dto
+     * @param responseType   type of the response data
+     * @param request        processing of the request
+     * @return response of the request
+     */
+    public ResponseEntity<ResponseWrapper> execute(String idempotencyKey, RequestDto requestDto,
+                                                   Class<? extends ResponseDto> responseType,
+                                                   Supplier<ResponseEntity<ResponseWrapper>> request) {
+        if (idempotencyKey == null) {
+            return request.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidIdempotencyKeyException("The idempotency key is blank or longer than "
+                    + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(requestDto);
+        IdempotencyRecord idempotencyRecord = idempotencyCache.get(idempotencyKey);
+        if (idempotencyRecord == null) {
+            idempotencyRecord = claim(idempotencyKey, requestHash);
+        }
+        if (idempotencyRecord.isCompleted()) {
+            return replay(idempotencyRecord, requestHash, responseType);
+        }
+        ResponseEntity<ResponseWrapper> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            release(idempotencyRecord);
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            complete(idempotencyRecord, response);
+        } else {
+            release(idempotencyRecord);
+        }
+        return response;
+    }
+
+    /**
+     * Delete the idempotency keys created before the retention
+     */
+    @Scheduled(fixedDelayString = "${payment.idempotency.purgeInterval:3600000}")
+    public void purge() {
+        try {
+            var deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteCreatedBefore(
+                    new Timestamp(clock.millis() - retention.toMillis())));
+            log.debug("Purged {} idempotency keys", deleted);
+        } catch (RuntimeException e) {
+            log.warn("Purging the idempotency keys is failed. Error message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim an idempotency key for processing its request
+     *
+     * @param idempotencyKey idempotency key
+     * @param requestHash    hash of the request
+     * @return claimed record, or the completed record when the request is already processed
+     */
+    private IdempotencyRecord claim(String idempotencyKey, String requestHash) {
+        var claimedAt = new Timestamp(clock.millis());
+        var claimedRecord = new IdempotencyRecord(idempotencyKey, requestHash, claimedAt);
+        try {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.saveAndFlush(
+                    new IdempotencyRecord(idempotencyKey, requestHash, claimedAt)));
+            countRequest("claimed");
+            return claimedRecord;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("The idempotency key {} is already claimed", idempotencyKey);
+        }
+        var idempotencyRecord = transactionTemplate.execute(status -> {
+            var existingRecord = idempotencyRecordRepository.findById(idempotencyKey).orElse(null);
+            if (existingRecord == null || existingRecord.isCompleted()
+                    || !existingRecord.getRequestHash().equals(requestHash)) {
+                return existingRecord;
+            }
+            var claimedBefore = new Timestamp(claimedAt.getTime() - inFlightTimeout.toMillis());
+            if (idempotencyRecordRepository.takeOver(idempotencyKey, claimedAt, claimedBefore) == 1) {
+                log.warn("The idempotency key {} is not completed within {}. It is taken over.", idempotencyKey,
+                        inFlightTimeout);
+                countRequest("taken_over");
+                return claimedRecord;
+            }
+            return existingRecord;
+        });
+        if (idempotencyRecord == claimedRecord) {
+            return claimedRecord;
+        }
+        if (idempotencyRecord != null && !idempotencyRecord.getRequestHash().equals(requestHash)) {
+            countRequest("reused");
+            throw new IdempotencyKeyReusedException("The idempotency key " + idempotencyKey
+                    + " is used for a different request");
+        }
+        if (idempotencyRecord == null || !idempotencyRecord.isCompleted()) {
+            countRequest("in_progress");
+            throw new IdempotencyKeyInProgressException("The request of the idempotency key " + idempotencyKey
+                    + " is in progress");
+        }
+        idempotencyCache.put(idempotencyRecord);
+        return idempotencyRecord;
+    }
+
+    /**
+     * Answer a retry with the stored response
+     *
+     * @param idempotencyRecord completed idempotency record
+     * @param requestHash       hash of the retried request
+     * @param responseType      type of the response data
+     * @return stored response
+     */
+    private ResponseEntity<ResponseWrapper> replay(IdempotencyRecord idempotencyRecord, String requestHash,
+                                                   Class<? extends ResponseDto> responseType) {
+        if (!idempotencyRecord.getRequestHash().equals(requestHash)) {
+            countRequest("reused");
+            throw new IdempotencyKeyReusedException("The idempotency key " + idempotencyRecord.getIdempotencyKey()
+                    + " is used for a different request");
+        }
+        ResponseDto data;
+        try {
+            data = idempotencyRecord.getResponseBody() == null ? null
+                    : objectMapper.readValue(idempotencyRecord.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new PaymentException("Reading the stored response of the idempotency key is failed", e);
+        }
+        countRequest("replayed");
+        log.debug("The stored response of the idempotency key {} is replayed", idempotencyRecord.getIdempotencyKey());
+        return ResponseEntity.status(HttpStatus.valueOf(idempotencyRecord.getStatusCode()))
+                .header(Constants.IDEMPOTENT_REPLAYED_HEADER, Boolean.TRUE.toString())
+                .body(new ResponseWrapper(idempotencyRecord.getResponseMessage(), idempotencyRecord.getStatusCode(),
+                        data));
+    }
+
+    /**
+     * Store the response of a processed request. The key is released when the response can not be stored, so the
+     * retries are processed again and end in the duplicate checks of the request. The response is dropped when the key
+     * is taken over meanwhile.
+     *
+     * @param idempotencyRecord claimed idempotency record
+     * @param response          response of the request
+     */
+    private void complete(IdempotencyRecord idempotencyRecord, ResponseEntity<ResponseWrapper> response) {
+        var wrapper = response.getBody();
+        try {
+            idempotencyRecord.setStatusCode(response.getStatusCodeValue());
+            idempotencyRecord.setResponseMessage(wrapper == null ? null : wrapper.getMessage());
+            idempotencyRecord.setResponseBody(wrapper == null || wrapper.getData() == null ? null
+                    : objectMapper.writeValueAsString(wrapper.getData()));
+            idempotencyRecord.setCompletedAt(new Timestamp(clock.millis()));
+            var completed = transactionTemplate.execute(status -> idempotencyRecordRepository.complete(
+                    idempotencyRecord.getIdempotencyKey(), idempotencyRecord.getCreatedAt(),
+                    idempotencyRecord.getStatusCode(), idempotencyRecord.getResponseMessage(),
+                    idempotencyRecord.getResponseBody(), idempotencyRecord.getCompletedAt()));
+            if (completed == null || completed == 0) {
+                countRequest("lost");
+                log.warn("The idempotency key {} is taken over before the response is stored. The response is not "
+                        + "stored", idempotencyRecord.getIdempotencyKey());
+                return;
+            }
+            idempotencyCache.put(idempotencyRecord);
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Storing the response of the idempotency key {} is failed. Error message: {}",
+                    idempotencyRecord.getIdempotencyKey(), e.getMessage());
+            release(idempotencyRecord);
+        }
+    }
+
+    /**
+     * Release the claim of an idempotency key, so the request can be retried. The key is left to its new owner when it
+     * is taken over meanwhile.
+     *
+     * @param idempotencyRecord claimed idempotency record
+     */
+    private void release(IdempotencyRecord idempotencyRecord) {
+        try {
+            var released = transactionTemplate.execute(status -> idempotencyRecordRepository.release(
+                    idempotencyRecord.getIdempotencyKey(), idempotencyRecord.getCreatedAt()));
+            if (released == null || released == 0) {
+                log.warn("The idempotency key {} is taken over before it is released. It is left to the new owner",
+                        idempotencyRecord.getIdempotencyKey());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Releasing the idempotency key {} is failed. It is taken over after {}. Error message: {}",
+                    idempotencyRecord.getIdempotencyKey(), inFlightTimeout, e.getMessage());
+        }
+    }
+
+    private void countRequest(String result) {
+        meterRegistry.counter(REQUEST_COUNTER, "result", result).increment();
+    }
+
+    private static String hash(RequestDto requestDto) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGORITHM).digest((requestDto.getClass().getName() + ":"
+                    + requestDto.toJson()).getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+}
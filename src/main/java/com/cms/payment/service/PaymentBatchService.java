@@ -0,0 +1,208 @@
+package com.cms.payment.service;
+
+import com.cms.payment.cache.PaidStudentIndex;
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import com.cms.payment.domain.response.PaymentBatchItemResponseDto;
+import com.cms.payment.domain.response.PaymentBatchResponseDto;
+import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.PaymentEventType;
+import com.cms.payment.exception.InvalidPaymentBatchException;
+import com.cms.payment.exception.InvalidPaymentMonthException;
+import com.cms.payment.exception.PaymentException;
+import com.cms.payment.outbox.PaymentOutbox;
+import com.cms.payment.repository.PaymentRepository;
+import com.cms.payment.repository.PaymentVersionRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+
+/**
+ * Makes a batch of payments with one student lookup, one duplicate check query and batched inserts,
+ * reporting the result of every payment of the batch
+ */
+@Slf4j
+@Service
+public class PaymentBatchService {
+
+    private static final String KEY_SEPARATOR = ":";
+    private final PaymentRepository paymentRepository;
+    private final PaymentVersionRepository paymentVersionRepository;
+    private final DirectoryService directoryService;
+    private final PaidStudentIndex paidStudentIndex;
+    private final PaymentOutbox paymentOutbox;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int chunkSize;
+
+    @Autowired
+    public PaymentBatchService(PaymentRepository paymentRepository, PaymentVersionRepository paymentVersionRepository,
+                               DirectoryService directoryService, PaidStudentIndex paidStudentIndex,
+                               PaymentOutbox paymentOutbox,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${payment.batch.maxSize:1000}") int maxBatchSize,
+                               @Value("${payment.batch.chunkSize:100}") int chunkSize) {
+        this.paymentRepository = paymentRepository;
+        this.paymentVersionRepository = paymentVersionRepository;
+        this.directoryService = directoryService;
+        this.paidStudentIndex = paidStudentIndex;
+        this.paymentOutbox = paymentOutbox;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = maxBatchSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Method to create a batch of payments
+     *
+     * @param paymentRequestDtoList payment request dto list
+     * @param authToken             access token
+     * @return PaymentBatchResponseDto
+     */
+    public PaymentBatchResponseDto makePayments(List<PaymentRequestDto> paymentRequestDtoList, String authToken) {
+        if (paymentRequestDtoList == null || paymentRequestDtoList.isEmpty()
+                || paymentRequestDtoList.size() > maxBatchSize) {
+            throw new InvalidPaymentBatchException("The payment batch size should be between 1 and " + maxBatchSize);
+        }
+        List<PaymentBatchItemResponseDto> results = new ArrayList<>(paymentRequestDtoList.size());
+        Map<String, Integer> acceptedItems = new LinkedHashMap<>();
+        for (int index = 0; index < paymentRequestDtoList.size(); index++) {
+            var paymentRequestDto = paymentRequestDtoList.get(index);
+            var result = createResult(index, paymentRequestDto);
+            results.add(result);
+            if (paymentRequestDto == null || paymentRequestDto.getPaymentMonth() == null
+                    || !paymentRequestDto.isRequiredAvailable()) {
+                result.failed(ErrorResponseStatus.MISSING_REQUIRED_FIELDS);
+                continue;
+            }
+            try {
+                String key = getKey(paymentRequestDto.getStudentId(), paymentRequestDto.getPaymentMonth().getPeriod());
+                if (acceptedItems.putIfAbsent(key, index) != null) {
+                    result.failed(ErrorResponseStatus.ALREADY_PAID);
+                }
+            } catch (InvalidPaymentMonthException e) {
+                result.failed(ErrorResponseStatus.INVALID_PAYMENT_MONTH);
+            }
+        }
+        if (!acceptedItems.isEmpty()) {
+            savePayments(paymentRequestDtoList, acceptedItems, results, authToken);
+        }
+        var response = new PaymentBatchResponseDto(results);
+        log.debug("The payment batch of {} is processed. Paid: {} Failed: {}", results.size(),
+                response.getPaidCount(), response.getFailedCount());
+        return response;
+    }
+
+    /**
+     * Validate the students, drop the payments already made and insert the rest in chunks
+     *
+     * @param paymentRequestDtoList payment request dto list
+     * @param acceptedItems         index of the accepted items mapped with student and period key
+     * @param results               item results
+     * @param authToken             access token
+     */
+    private void savePayments(List<PaymentRequestDto> paymentRequestDtoList, Map<String, Integer> acceptedItems,
+                              List<PaymentBatchItemResponseDto> results, String authToken) {
+        Set<String> studentIds = new HashSet<>();
+        Set<Integer> paymentPeriods = new HashSet<>();
+        for (int index : acceptedItems.values()) {
+            var paymentRequestDto = paymentRequestDtoList.get(index);
+            studentIds.add(paymentRequestDto.getStudentId());
+            paymentPeriods.add(paymentRequestDto.getPaymentMonth().getPeriod());
+        }
+        var knownStudentIds = directoryService.getStudentsDetails(studentIds, authToken).keySet();
+        Set<String> paidKeys = new HashSet<>();
+        try {
+            for (Payment payment : paymentRepository.findByStudentIdsAndPaymentPeriods(studentIds, paymentPeriods)) {
+                paidKeys.add(getKey(payment.getStudentId(), payment.getPaymentPeriod()));
+            }
+        } catch (DataAccessException e) {
+            throw new PaymentException("Checking the existing payments is failed", e);
+        }
+        List<Payment> payments = new ArrayList<>();
+        List<PaymentBatchItemResponseDto> pendingResults = new ArrayList<>();
+        for (Map.Entry<String, Integer> acceptedItem : acceptedItems.entrySet()) {
+            var paymentRequestDto = paymentRequestDtoList.get(acceptedItem.getValue());
+            var result = results.get(acceptedItem.getValue());
+            if (!knownStudentIds.contains(paymentRequestDto.getStudentId())) {
+                result.failed(ErrorResponseStatus.INVALID_STUDENT);
+            } else if (paidKeys.contains(acceptedItem.getKey())) {
+                result.failed(ErrorResponseStatus.ALREADY_PAID);
+            } else {
+                payments.add(new Payment(paymentRequestDto));
+                pendingResults.add(result);
+            }
+        }
+        for (int from = 0; from < payments.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, payments.size());
+            saveChunk(payments.subList(from, to), pendingResults.subList(from, to));
+        }
+    }
+
+    /**
+     * Insert a chunk of payments with their events in one transaction. When the chunk is rejected, which happens when
+     * a payment is made concurrently for the same student and month, the payments of the chunk are inserted one by one.
+     *
+     * @param payments payments
+     * @param results  item results of the payments
+     */
+    private void saveChunk(List<Payment> payments, List<PaymentBatchItemResponseDto> results) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentRepository.saveAllAndFlush(payments);
+                paymentOutbox.recordAll(PaymentEventType.PAYMENT_MADE, payments);
+                paymentVersionRepository.advance();
+            });
+            for (int index = 0; index < payments.size(); index++) {
+                markPaid(payments.get(index), results.get(index));
+            }
+        } catch (DataAccessException e) {
+            log.debug("Saving the payment chunk is failed. Saving the payments one by one. Error message: {}",
+                    e.getMessage());
+            for (int index = 0; index < payments.size(); index++) {
+                saveOne(payments.get(index), results.get(index));
+            }
+        }
+    }
+
+    private void saveOne(Payment payment, PaymentBatchItemResponseDto result) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                paymentRepository.saveAndFlush(payment);
+                paymentOutbox.record(PaymentEventType.PAYMENT_MADE, payment);
+                paymentVersionRepository.advance();
+            });
+            markPaid(payment, result);
+        } catch (DataIntegrityViolationException e) {
+            result.failed(PaymentService.isDuplicatePayment(e) ? ErrorResponseStatus.ALREADY_PAID
+                    : ErrorResponseStatus.INTERNAL_SERVER_ERROR);
+        } catch (DataAccessException e) {
+            result.failed(ErrorResponseStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void markPaid(Payment payment, PaymentBatchItemResponseDto result) {
+        result.paid(payment.getPaymentId());
+        paidStudentIndex.markPaid(payment.getPaymentPeriod(), payment.getStudentId());
+    }
+
+    private static PaymentBatchItemResponseDto createResult(int index, PaymentRequestDto paymentRequestDto) {
+        if (paymentRequestDto == null) {
+            return new PaymentBatchItemResponseDto(index, null, null);
+        }
+        var paymentMonth = paymentRequestDto.getPaymentMonth();
+        return new PaymentBatchItemResponseDto(index, paymentRequestDto.getStudentId(),
+                paymentMonth == null ? null : paymentMonth.getCombinedDate());
+    }
+
+    private static String getKey(String studentId, Integer paymentPeriod) {
+        return studentId + KEY_SEPARATOR + paymentPeriod;
+    }
+}
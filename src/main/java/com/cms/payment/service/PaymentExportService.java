@@ -0,0 +1,166 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.response.PaymentResponseDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.enums.ExportFormat;
+import com.cms.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.persistence.EntityManager;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Streams the payment details with their student and tuition class details as NDJSON or CSV.
+ * Payments are read through a forward only cursor and detached once written, so the heap use does not grow
+ * with the number of exported payments. CSV cells starting with a formula character are prefixed with {@code '}, so
+ * the directory values are never run as formulas when the export is opened in a spreadsheet.
+ */
+@Slf4j
+@Service
+public class PaymentExportService {
+
+    private static final String CSV_HEADER = "paymentId,paymentMonth,paidDate,updatedAt,studentId,firstName,"
+            + "lastName,tuitionClassId,locationName";
+    private static final String FORMULA_PREFIXES = "=+-@\t\r";
+    private static final int BUFFER_SIZE = 16 * 1024;
+    private final PaymentRepository paymentRepository;
+    private final DirectoryService directoryService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter jsonWriter;
+
+    @Autowired
+    public PaymentExportService(PaymentRepository paymentRepository, DirectoryService directoryService,
+                                EntityManager entityManager, PlatformTransactionManager transactionManager,
+                                ObjectMapper objectMapper) {
+        this.paymentRepository = paymentRepository;
+        this.directoryService = directoryService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.jsonWriter = objectMapper.writerFor(PaymentResponseDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+    }
+
+    /**
+     * Method to export the payments. The student and tuition class details are looked up before the response is
+     * committed, so their failures are reported as regular error responses.
+     *
+     * @param format       export format
+     * @param paymentMonth payment month filter, null for all months
+     * @param studentId    student id filter, null for all students
+     * @param authToken    access token
+     * @return StreamingResponseBody
+     */
+    public StreamingResponseBody export(ExportFormat format, PaymentMonthDto paymentMonth, String studentId,
+                                        String authToken) {
+        Integer paymentPeriod = paymentMonth == null ? null : paymentMonth.getPeriod();
+        var studentMap = directoryService.getStudentsDetails(authToken);
+        var tuitionClassMap = directoryService.getTuitionClassDetails(authToken);
+        return outputStream -> write(outputStream, format, paymentPeriod, studentId, studentMap, tuitionClassMap);
+    }
+
+    /**
+     * Write the payments matching the filters into the output stream
+     *
+     * @param outputStream    output stream
+     * @param format          export format
+     * @param paymentPeriod   payment period filter, null for all months
+     * @param studentId       student id filter, null for all students
+     * @param studentMap      student details map
+     * @param tuitionClassMap tuition class details map
+     * @throws IOException when writing to the output stream is failed
+     */
+    void write(OutputStream outputStream, ExportFormat format, Integer paymentPeriod, String studentId,
+               Map<String, StudentResponseDto> studentMap, Map<String, TuitionClassResponseDto> tuitionClassMap)
+            throws IOException {
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        var generator = objectMapper.getFactory().createGenerator(writer)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.FLUSH_PASSED_TO_STREAM);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        try {
+            Long count = transactionTemplate.execute(status -> {
+                try (Stream<Payment> payments = paymentRepository.streamAll(paymentPeriod, studentId)) {
+                    return payments.mapToLong(payment -> {
+                        var studentResponse = studentMap.get(payment.getStudentId());
+                        var locationResponse = studentResponse == null ? null
+                                : tuitionClassMap.get(studentResponse.getTuitionClassId());
+                        writeRow(writer, generator, format, payment, studentResponse, locationResponse);
+                        entityManager.detach(payment);
+                        return 1;
+                    }).sum();
+                }
+            });
+            if (format == ExportFormat.NDJSON && count != null && count > 0) {
+                generator.flush();
+                writer.write('\n');
+            }
+            writer.flush();
+            log.debug("Exported {} payments as {}", count, format);
+        } catch (UncheckedIOException e) {
+            log.warn("Exporting the payments is aborted. Error message: {}", e.getMessage());
+            throw e.getCause();
+        }
+    }
+
+    private void writeRow(Writer writer, JsonGenerator generator, ExportFormat format, Payment payment,
+                          StudentResponseDto student, TuitionClassResponseDto location) {
+        try {
+            if (format == ExportFormat.NDJSON) {
+                jsonWriter.writeValue(generator, new PaymentResponseDto(payment, student, location));
+                return;
+            }
+            writer.write(toCsvRow(payment.getPaymentId(), payment.getPaymentMonth(), payment.getPaidDate(),
+                    payment.getUpdatedAt(), payment.getStudentId(), student == null ? null : student.getFirstName(),
+                    student == null ? null : student.getLastName(), student == null ? null : student.getTuitionClassId(),
+                    location == null ? null : location.getLocationName()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String toCsvRow(Object... values) {
+        var row = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                row.append(',');
+            }
+            if (values[i] != null) {
+                row.append(toCsvValue(values[i].toString()));
+            }
+        }
+        return row.append('\n').toString();
+    }
+
+    private static String toCsvValue(String value) {
+        if (!value.isEmpty() && FORMULA_PREFIXES.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -1,70 +1,73 @@
 package com.cms.payment.service;
 
+import com.cms.payment.cache.PaidStudentIndex;
 import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentCursor;
 import com.cms.payment.domain.request.PaymentMonthDto;
 import com.cms.payment.domain.request.PaymentRequestDto;
 import com.cms.payment.domain.request.UpdatePaymentRequestDto;
 import com.cms.payment.domain.response.StudentResponseDto;
 import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.enums.PaymentEventType;
 import com.cms.payment.exception.*;
+import com.cms.payment.outbox.PaymentOutbox;
 import com.cms.payment.repository.PaymentRepository;
-import com.cms.payment.utills.Constants;
-import com.cms.payment.wrapper.StudentListResponseWrapper;
-import com.cms.payment.wrapper.StudentResponseWrapper;
-import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import com.cms.payment.repository.PaymentVersionRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.dao.DataAccessException;
-import org.springframework.data.domain.Page;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
 
 import java.sql.Date;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Payment Service
  */
+@Timed(value = "payment.service", histogram = true)
 @Service
 public class PaymentService {
 
     private static final int PAGE = 0;
-    private static final int SIZE = 100;
-    private static final String DEFAULT_SORT = "updated_at";
     private static final String INVALID_PAYMENT_ID_MESSAGE = "Invalid payment Id : ";
     private static final String INVALID_STUDENT_ID_MESSAGE = "Invalid student Id : ";
     private static final String CONNECTION_EXCEPTION_MESSAGE = "The requested resource couldn't access due to unavailability";
-    private static final String STUDENT_ID_REPLACE_PHRASE = "##STUDENT-ID##";
+    private static final String PAYMENT_ALREADY_MADE_MESSAGE = "The payment already made for : ";
+    private static final String UNIQUE_PAYMENT_CONSTRAINT = "uk_payment_student_period_active";
     private final PaymentRepository paymentRepository;
-    private final RestTemplate restTemplate;
-    private final String getStudentByIdUrl;
-    private final String getAllStudentDetails;
-    private final String getAllLocationDetails;
+    private final PaymentVersionRepository paymentVersionRepository;
+    private final DirectoryService directoryService;
+    private final StudentRegistry studentRegistry;
+    private final PaidStudentIndex paidStudentIndex;
+    private final PaymentOutbox paymentOutbox;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, RestTemplate restTemplate,
-                          @Value("${student.uri.baseUrl}") String studentBaseUrl,
-                          @Value("${location.uri.baseUrl}") String locationBaseUrl,
-                          @Value("${student.uri.getStudentById}") String getStudentById,
-                          @Value("${location.uri.getAllLocationDetails}") String getAllLocationDetails,
-                          @Value("${student.uri.getAllStudentDetails}") String getAllStudentDetails) {
+    public PaymentService(PaymentRepository paymentRepository, PaymentVersionRepository paymentVersionRepository,
+                          DirectoryService directoryService, StudentRegistry studentRegistry,
+                          PaidStudentIndex paidStudentIndex, PaymentOutbox paymentOutbox,
+                          @Value("${payment.page.defaultSize:100}") int defaultPageSize,
+                          @Value("${payment.page.maxSize:500}") int maxPageSize) {
         this.paymentRepository = paymentRepository;
-        this.restTemplate = restTemplate;
-        this.getStudentByIdUrl = studentBaseUrl + getStudentById;
-        this.getAllStudentDetails = studentBaseUrl + getAllStudentDetails;
-        this.getAllLocationDetails = locationBaseUrl + getAllLocationDetails;
+        this.paymentVersionRepository = paymentVersionRepository;
+        this.directoryService = directoryService;
+        this.studentRegistry = studentRegistry;
+        this.paidStudentIndex = paidStudentIndex;
+        this.paymentOutbox = paymentOutbox;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
@@ -74,36 +77,45 @@ public class PaymentService {
      * @param authToken         access token
      * @return Payment
      */
+    @Transactional
     public Payment makePayment(PaymentRequestDto paymentRequestDto, String authToken) {
         try {
             Payment payment = new Payment(paymentRequestDto);
-            if (checkExistsPayment(paymentRequestDto.getPaymentMonth(), paymentRequestDto.getStudentId(), null)) {
-                throw new PaymentAlreadyExistsException("The payment already made for : "
-                        + paymentRequestDto.getPaymentMonth().getCombinedDate());
-            }
-            String uri = getStudentByIdUrl.replace(STUDENT_ID_REPLACE_PHRASE, paymentRequestDto.getStudentId());
-            if (!existsStudentId(uri, authToken)) {
+            if (!studentRegistry.exists(paymentRequestDto.getStudentId(), authToken)) {
                 throw new InvalidStudentException(INVALID_STUDENT_ID_MESSAGE + paymentRequestDto.getStudentId());
             }
-            return paymentRepository.save(payment);
+            Payment savedPayment = paymentRepository.saveAndFlush(payment);
+            paymentOutbox.record(PaymentEventType.PAYMENT_MADE, savedPayment);
+            paymentVersionRepository.advance();
+            afterCommit(() -> paidStudentIndex.markPaid(payment.getPaymentPeriod(), payment.getStudentId()));
+            return savedPayment;
         } catch (ResourceAccessException e) {
             throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
         } catch (HttpClientErrorException e) {
             throw new PaymentException("Validating student identity is failed", e);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicatePayment(e)) {
+                throw new PaymentAlreadyExistsException(PAYMENT_ALREADY_MADE_MESSAGE
+                        + paymentRequestDto.getPaymentMonth().getCombinedDate(), e);
+            }
+            throw new PaymentException("Saving payment details into database is failed.", e);
         } catch (DataAccessException e) {
             throw new PaymentException("Saving payment details into database is failed.", e);
         }
     }
 
     /**
-     * Get payment by payment id
+     * Get payment by payment id. The payment is looked up by its primary key, so it is served from the second-level
+     * cache when the cache is enabled. Updates and deletes read it in their own transaction, on the primary.
      *
      * @param paymentId payment id
      * @return Payment
      */
+    @Transactional(readOnly = true)
     public Payment getPaymentById(String paymentId) {
         try {
-            Optional<Payment> optionalPayment = paymentRepository.findById(paymentId);
+            Optional<Payment> optionalPayment = paymentRepository.findById(paymentId)
+                    .filter(payment -> !payment.isDeleted());
             if (optionalPayment.isEmpty()) {
                 throw new InvalidPaymentException(INVALID_PAYMENT_ID_MESSAGE + paymentId);
             }
@@ -120,25 +132,40 @@ public class PaymentService {
      * @param authToken               access token
      * @return Payment
      */
+    @Transactional
     public Payment updatePayment(UpdatePaymentRequestDto updatePaymentRequestDto, String authToken) {
         try {
             Payment paymentFromDB = getPaymentById(updatePaymentRequestDto.getPaymentId());
             if (checkExistsPayment(updatePaymentRequestDto.getPaymentMonth(), updatePaymentRequestDto.getStudentId(),
                     updatePaymentRequestDto.getPaymentId())) {
-                throw new PaymentAlreadyExistsException("The payment already made for : "
+                throw new PaymentAlreadyExistsException(PAYMENT_ALREADY_MADE_MESSAGE
                         + updatePaymentRequestDto.getPaymentMonth().getCombinedDate());
             }
-            String uri = getStudentByIdUrl.replace(STUDENT_ID_REPLACE_PHRASE, paymentFromDB.getStudentId());
-            if (!existsStudentId(uri, authToken)) {
+            if (!studentRegistry.exists(paymentFromDB.getStudentId(), authToken)) {
                 throw new InvalidStudentException(INVALID_STUDENT_ID_MESSAGE + updatePaymentRequestDto.getStudentId());
             }
+            Integer previousPaymentPeriod = paymentFromDB.getPaymentPeriod();
             paymentFromDB.update(updatePaymentRequestDto);
-            paymentRepository.save(paymentFromDB);
+            paymentRepository.saveAndFlush(paymentFromDB);
+            paymentOutbox.record(PaymentEventType.PAYMENT_UPDATED, paymentFromDB);
+            paymentVersionRepository.advance();
+            String studentId = paymentFromDB.getStudentId();
+            Integer paymentPeriod = paymentFromDB.getPaymentPeriod();
+            afterCommit(() -> {
+                paidStudentIndex.markUnpaid(previousPaymentPeriod, studentId);
+                paidStudentIndex.markPaid(paymentPeriod, studentId);
+            });
             return paymentFromDB;
         } catch (ResourceAccessException e) {
             throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
         } catch (HttpClientErrorException e) {
             throw new PaymentException("Validating student identity is failed", e);
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicatePayment(e)) {
+                throw new PaymentAlreadyExistsException(PAYMENT_ALREADY_MADE_MESSAGE
+                        + updatePaymentRequestDto.getPaymentMonth().getCombinedDate(), e);
+            }
+            throw new PaymentException("Updating payment is failed for " + updatePaymentRequestDto.getPaymentId());
         } catch (DataAccessException e) {
             throw new PaymentException("Updating payment is failed for " + updatePaymentRequestDto.getPaymentId());
         }
@@ -149,41 +176,56 @@ public class PaymentService {
      *
      * @param paymentId payment id
      */
+    @Transactional
     public void deletePayment(String paymentId) {
         try {
             Payment paymentFromDB = getPaymentById(paymentId);
             paymentFromDB.setDeleted(true);
             paymentFromDB.setUpdatedAt(new Date(System.currentTimeMillis()));
             paymentRepository.save(paymentFromDB);
+            paymentOutbox.record(PaymentEventType.PAYMENT_DELETED, paymentFromDB);
+            paymentVersionRepository.advance();
+            String studentId = paymentFromDB.getStudentId();
+            Integer paymentPeriod = paymentFromDB.getPaymentPeriod();
+            afterCommit(() -> paidStudentIndex.markUnpaid(paymentPeriod, studentId));
         } catch (DataAccessException e) {
             throw new PaymentException("Deleting payment from database is failed for " + paymentId);
         }
     }
 
     /**
-     * Get all payment details page
+     * Get all payment details slice after the given cursor
      *
-     * @return PaymentPage
+     * @param cursor page cursor, null for the first page
+     * @param size   page size, null for the default size
+     * @return PaymentSlice
      */
-    public Page<Payment> getAllPayment() {
+    @Transactional(readOnly = true)
+    public Slice<Payment> getAllPayment(String cursor, Integer size) {
+        var paymentCursor = PaymentCursor.decode(cursor);
+        var pageable = getPageable(size);
         try {
-            Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-            return paymentRepository.findAll(pageable);
+            return paymentRepository.findAllAfter(pageable, paymentCursor.getUpdatedAt(), paymentCursor.getPaymentId());
         } catch (DataAccessException e) {
             throw new PaymentException("Retrieving Payment list from database is failed.");
         }
     }
 
     /**
-     * Get payment details page for a student id
+     * Get payment details slice for a student id after the given cursor
      *
      * @param studentId student id
-     * @return PaymentPage
+     * @param cursor    page cursor, null for the first page
+     * @param size      page size, null for the default size
+     * @return PaymentSlice
      */
-    public Page<Payment> getPaymentsByStudentId(String studentId) {
+    @Transactional(readOnly = true)
+    public Slice<Payment> getPaymentsByStudentId(String studentId, String cursor, Integer size) {
+        var paymentCursor = PaymentCursor.decode(cursor);
+        var pageable = getPageable(size);
         try {
-            Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-            return paymentRepository.findByStudentId(pageable, studentId);
+            return paymentRepository.findByStudentIdAfter(pageable, paymentCursor.getUpdatedAt(),
+                    paymentCursor.getPaymentId(), studentId);
         } catch (DataAccessException e) {
             throw new PaymentException("Retrieving Payment list for student id: " + studentId
                     + " from database is failed.");
@@ -197,23 +239,22 @@ public class PaymentService {
      * @return StudentResponseDtoMap
      */
     public Map<String, StudentResponseDto> getStudentsDetails(String authToken) {
-        try {
-            var headers = new HttpHeaders();
-            headers.set("access_token", authToken);
-            var entity = new HttpEntity<String>(headers);
-            var studentResponse = restTemplate.exchange(getAllStudentDetails, HttpMethod.GET, entity,
-                    StudentListResponseWrapper.class);
-            var studentResponseList = Objects.requireNonNull(studentResponse.getBody()).getData().getStudents();
-            Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
-            for (StudentResponseDto responseDto : studentResponseList) {
-                studentDetailsMap.put(responseDto.getStudentId(), responseDto);
-            }
-            return studentDetailsMap;
-        } catch (ResourceAccessException e) {
-            throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
-        } catch (HttpClientErrorException e) {
-            throw new PaymentException("The requesting data is failed.", e);
+        return directoryService.getStudentsDetails(authToken);
+    }
+
+    /**
+     * Get the details of the students who made the given payments mapped with student id
+     *
+     * @param payments  payments
+     * @param authToken access token
+     * @return StudentResponseDtoMap
+     */
+    public Map<String, StudentResponseDto> getStudentsDetails(Iterable<Payment> payments, String authToken) {
+        Set<String> studentIds = new HashSet<>();
+        for (Payment payment : payments) {
+            studentIds.add(payment.getStudentId());
         }
+        return directoryService.getStudentsDetails(studentIds, authToken);
     }
 
     /**
@@ -223,42 +264,178 @@ public class PaymentService {
      * @return TuitionClasssResponseDtoMap
      */
     public Map<String, TuitionClassResponseDto> getTuitionClassDetails(String authToken) {
+        return directoryService.getTuitionClassDetails(authToken);
+    }
+
+    /**
+     * Get students payment report slice for a given month after the given cursor
+     *
+     * @param month  month
+     * @param year   year
+     * @param cursor page cursor, null for the first page
+     * @param size   page size, null for the default size
+     * @return PaymentSlice
+     */
+    @Transactional(readOnly = true)
+    public Slice<Payment> getUserReport(String month, int year, String cursor, Integer size) {
+        int paymentPeriod = new PaymentMonthDto(month, year).getPeriod();
+        var paymentCursor = PaymentCursor.decode(cursor);
+        var pageable = getPageable(size);
         try {
-            var headers = new HttpHeaders();
-            headers.set("access_token", authToken);
-            var entity = new HttpEntity<String>(headers);
-            var tuitionClassResponse = restTemplate.exchange(getAllLocationDetails, HttpMethod.GET, entity,
-                    TuitionClassListResponseWrapper.class);
-            var tuitionClassResponseList = Objects.requireNonNull(tuitionClassResponse.getBody()).getData().getLocations();
-            Map<String, TuitionClassResponseDto> tuitionClassDetailsMap = new HashMap<>();
-            for (TuitionClassResponseDto responseDto : tuitionClassResponseList) {
-                tuitionClassDetailsMap.put(responseDto.getTuitionClassId(), responseDto);
-            }
-            return tuitionClassDetailsMap;
-        } catch (ResourceAccessException e) {
-            throw new ConnectionException(CONNECTION_EXCEPTION_MESSAGE);
-        } catch (HttpClientErrorException e) {
-            throw new PaymentException("The requesting data is failed.", e);
+            return paymentRepository.findByPaymentPeriodAfter(pageable, paymentCursor.getUpdatedAt(),
+                    paymentCursor.getPaymentId(), paymentPeriod);
+        } catch (DataAccessException e) {
+            throw new PaymentException("Retrieving the payment reports from database is failed");
         }
     }
 
     /**
-     * Get students payment report for a given month
+     * Get the ids of the students who paid for a given month from the paid student index. It is not read-only, so a
+     * month is loaded from the primary. The index skips the payments of the months it has not loaded, and a month
+     * loaded from a lagging replica would miss a payment committed just before until it is reloaded.
      *
      * @param month month
      * @param year  year
-     * @return PaymentPage
+     * @return student ids
      */
-    public Page<Payment> getUserReport(String month, int year) {
+    public Set<String> getPaidStudentIds(String month, int year) {
+        int paymentPeriod = new PaymentMonthDto(month, year).getPeriod();
         try {
-            String paymentMonth = new PaymentMonthDto(month, year).getCombinedDate();
-            Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-            return paymentRepository.findByPaymentMonth(pageable, paymentMonth);
+            return paidStudentIndex.getPaidStudentIds(paymentPeriod);
         } catch (DataAccessException e) {
             throw new PaymentException("Retrieving the payment reports from database is failed");
         }
     }
 
+    /**
+     * Get the version of the payment data. Every payment write transaction advances it in commit order, so it changes
+     * with every payment made, updated or deleted. Read it before the page so a page is never tagged with a newer
+     * version than its content.
+     *
+     * @return version
+     */
+    @Transactional(readOnly = true)
+    public String getPaymentsVersion() {
+        try {
+            return Long.toString(paymentVersionRepository.findVersion(), 36);
+        } catch (DataAccessException e) {
+            throw new PaymentException("Retrieving the payment version from database is failed");
+        }
+    }
+
+    /**
+     * Get the entity tag of the payment list from the payment version and the versions of the cached directories, so
+     * it is checked before the page is read and enriched
+     *
+     * @param paymentsVersion payment version
+     * @return entity tag, or null when the directories are not cached
+     */
+    public String getPaymentsETag(String paymentsVersion) {
+        String directoryVersion = directoryService.getVersion();
+        return directoryVersion == null ? null : toETag(paymentsVersion, directoryVersion);
+    }
+
+    /**
+     * Get the entity tag of a page of the payment list from the payment version and the students and tuition classes
+     * mapped into the page, for the page enriched while the directories are not cached
+     *
+     * @param paymentsVersion payment version read before the page
+     * @param studentMap      students of the page
+     * @param tuitionClassMap tuition classes of the page
+     * @return entity tag
+     */
+    public String getPaymentsETag(String paymentsVersion, Map<String, StudentResponseDto> studentMap,
+                                  Map<String, TuitionClassResponseDto> tuitionClassMap) {
+        return toETag(paymentsVersion, Integer.toHexString(studentMap.hashCode()) + "."
+                + Integer.toHexString(tuitionClassMap.hashCode()));
+    }
+
+    /**
+     * Get the entity tag of the payment report of a month from the payment version and the versions of the cached
+     * directories
+     *
+     * @param month month
+     * @param year  year
+     * @return entity tag, or null when the directories are not cached
+     */
+    @Transactional(readOnly = true)
+    public String getReportETag(String month, int year) {
+        // The version is shared by all months, so an invalid month is rejected before it could be answered with 304
+        new PaymentMonthDto(month, year).getPeriod();
+        String directoryVersion = directoryService.getVersion();
+        if (directoryVersion == null) {
+            return null;
+        }
+        return toETag(getPaymentsVersion(), directoryVersion);
+    }
+
+    /**
+     * Get payment details slice for the months between the given months, both inclusive, after the given cursor
+     *
+     * @param from   first payment month
+     * @param to     last payment month
+     * @param cursor page cursor, null for the first page
+     * @param size   page size, null for the default size
+     * @return PaymentSlice
+     */
+    @Transactional(readOnly = true)
+    public Slice<Payment> getPaymentsByPeriod(PaymentMonthDto from, PaymentMonthDto to, String cursor, Integer size) {
+        int fromPeriod = from.getPeriod();
+        int toPeriod = to.getPeriod();
+        if (fromPeriod > toPeriod) {
+            throw new InvalidPaymentMonthException("The payment month " + from.getCombinedDate()
+                    + " is after " + to.getCombinedDate());
+        }
+        var paymentCursor = PaymentCursor.decode(cursor);
+        var pageable = getPageable(size);
+        try {
+            return paymentRepository.findByPaymentPeriodBetweenAfter(pageable, paymentCursor.getUpdatedAt(),
+                    paymentCursor.getPaymentId(), fromPeriod, toPeriod);
+        } catch (DataAccessException e) {
+            throw new PaymentException("Retrieving the payments between " + from.getCombinedDate() + " and "
+                    + to.getCombinedDate() + " from database is failed");
+        }
+    }
+
+    /**
+     * Run the action once the current transaction is committed, so a rolled back change never reaches the in-memory
+     * state. The action is run at once when there is no transaction.
+     *
+     * @param action action to run after the commit
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Get the first page request of the given size, capped at the maximum page size
+     *
+     * @param size page size, null for the default size
+     * @return Pageable
+     */
+    private Pageable getPageable(Integer size) {
+        if (size == null) {
+            return PageRequest.of(PAGE, defaultPageSize);
+        }
+        if (size < 1) {
+            throw new InvalidPageRequestException("Invalid page size : " + size);
+        }
+        return PageRequest.of(PAGE, Math.min(size, maxPageSize));
+    }
+
+    private static String toETag(String paymentVersion, String directoryVersion) {
+        return "\"" + paymentVersion + "-" + directoryVersion + "\"";
+    }
+
     /**
      * Check the exists of a payment
      *
@@ -269,32 +446,27 @@ public class PaymentService {
      */
     private boolean checkExistsPayment(PaymentMonthDto paymentMonth, String studentId, String paymentId) {
         try {
-            var paymentMonthAsString = paymentMonth.getCombinedDate();
-            if (paymentId == null) {
-                return paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(paymentMonthAsString, studentId);
-            } else {
-                return paymentRepository
-                        .existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(paymentMonthAsString, studentId, paymentId);
-            }
+            return paymentRepository
+                    .existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(paymentMonth.getPeriod(), studentId, paymentId);
         } catch (DataAccessException e) {
             throw new PaymentException("Checking the existing payment is failed");
         }
     }
 
     /**
-     * Check the existence of the student id
+     * Check whether a constraint violation is caused by the unique active payment per student and month index
      *
-     * @param uri       student service uri
-     * @param authToken access token
+     * @param exception data integrity violation exception
      * @return true/ false
      */
-    private boolean existsStudentId(String uri, String authToken) {
-        var headers = new HttpHeaders();
-        headers.set(Constants.TOKEN_HEADER, authToken);
-        var entity = new HttpEntity<String>(headers);
-        var studentResponse = restTemplate.exchange(uri, HttpMethod.GET, entity,
-                StudentResponseWrapper.class);
-        var statusCode = Objects.requireNonNull(studentResponse.getBody()).getStatusCode();
-        return statusCode == HttpStatus.OK.value();
+    static boolean isDuplicatePayment(DataIntegrityViolationException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            String constraintName = cause instanceof ConstraintViolationException
+                    ? ((ConstraintViolationException) cause).getConstraintName() : cause.getMessage();
+            if (constraintName != null && constraintName.toLowerCase().contains(UNIQUE_PAYMENT_CONSTRAINT)) {
+                return true;
+            }
+        }
+        return false;
     }
 }
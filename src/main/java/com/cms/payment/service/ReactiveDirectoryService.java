@@ -0,0 +1,225 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.PaymentException;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.StudentListResponseWrapper;
+import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking access to the student and tuition class directories for the reactive read API.
+ * <p>
+ * The snapshots cached by {@link DirectoryService} are served without a remote call, and the directories loaded here
+ * are cached there too. The remote calls are made with the web client, abandoned after {@code timeout} and retried
+ * with a jittered exponential backoff on connection failures, timeouts and 5xx responses. They are not made while the
+ * circuit of the service is open, and the last loaded directory is served while the service is unavailable.
+ */
+@Slf4j
+@Service
+public class ReactiveDirectoryService {
+
+    private static final String CONNECTION_EXCEPTION_MESSAGE = "The requested resource couldn't access due to unavailability";
+    private static final String STUDENT_IDS_REPLACE_PHRASE = "##STUDENT-IDS##";
+    private final WebClient webClient;
+    private final DirectoryService directoryService;
+    private final RemoteServiceGuard studentServiceGuard;
+    private final RemoteServiceGuard tuitionServiceGuard;
+    private final String getAllStudentDetails;
+    private final String getStudentsByIds;
+    private final String getAllLocationDetails;
+    private final int maxIdsPerLookup;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+
+    @Autowired
+    public ReactiveDirectoryService(@Qualifier("directoryWebClient") WebClient webClient,
+                                    DirectoryService directoryService,
+                                    @Qualifier("studentServiceGuard") RemoteServiceGuard studentServiceGuard,
+                                    @Qualifier("tuitionServiceGuard") RemoteServiceGuard tuitionServiceGuard,
+                                    @Value("${student.uri.baseUrl}") String studentBaseUrl,
+                                    @Value("${location.uri.baseUrl}") String locationBaseUrl,
+                                    @Value("${student.uri.getAllStudentDetails}") String getAllStudentDetails,
+                                    @Value("${student.uri.getStudentsByIds}") String getStudentsByIds,
+                                    @Value("${location.uri.getAllLocationDetails}") String getAllLocationDetails,
+                                    @Value("${directory.maxIdsPerLookup:100}") int maxIdsPerLookup,
+                                    @Value("${directory.resilience.timeout:PT5S}") Duration timeout,
+                                    @Value("${directory.resilience.maxAttempts:3}") int maxAttempts,
+                                    @Value("${directory.resilience.initialBackoff:PT0.2S}") Duration initialBackoff) {
+        this.webClient = webClient;
+        this.directoryService = directoryService;
+        this.studentServiceGuard = studentServiceGuard;
+        this.tuitionServiceGuard = tuitionServiceGuard;
+        this.getAllStudentDetails = studentBaseUrl + getAllStudentDetails;
+        this.getStudentsByIds = studentBaseUrl + getStudentsByIds;
+        this.getAllLocationDetails = locationBaseUrl + getAllLocationDetails;
+        this.maxIdsPerLookup = maxIdsPerLookup;
+        this.timeout = timeout;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+    }
+
+    /**
+     * Get the student details mapped with student id
+     *
+     * @param authToken access token of the caller, used only when no service token is configured
+     * @return StudentResponseDtoMap
+     */
+    public Mono<Map<String, StudentResponseDto>> getStudentsDetails(String authToken) {
+        var cachedStudents = directoryService.peekStudentsDetails();
+        if (cachedStudents != null) {
+            return Mono.just(cachedStudents);
+        }
+        String token = directoryService.resolveToken(authToken);
+        return guard(studentServiceGuard, "student", fetchStudentsDetails(getAllStudentDetails, token))
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new PaymentException("The requesting data is failed.", e))
+                .map(directoryService::cacheStudentsDetails)
+                .onErrorResume(ConnectionException.class,
+                        e -> getLastGood(directoryService.peekLastGoodStudentsDetails(), "student", e));
+    }
+
+    /**
+     * Get the details of the given students mapped with student id. The cached directory is used when it holds
+     * all of them, otherwise the students are requested in batches of at most {@code maxIdsPerLookup} ids.
+     *
+     * @param studentIds student ids
+     * @param authToken  access token of the caller, used only when no service token is configured
+     * @return StudentResponseDtoMap
+     */
+    public Mono<Map<String, StudentResponseDto>> getStudentsDetails(Collection<String> studentIds, String authToken) {
+        if (studentIds.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        var cachedStudents = directoryService.peekStudentsDetails();
+        if (cachedStudents != null && cachedStudents.keySet().containsAll(studentIds)) {
+            return Mono.just(DirectoryService.selectStudents(cachedStudents, studentIds));
+        }
+        String token = directoryService.resolveToken(authToken);
+        List<String> idList = new ArrayList<>(new LinkedHashSet<>(studentIds));
+        List<List<String>> batches = new ArrayList<>();
+        for (int from = 0; from < idList.size(); from += maxIdsPerLookup) {
+            batches.add(idList.subList(from, Math.min(from + maxIdsPerLookup, idList.size())));
+        }
+        return Flux.fromIterable(batches)
+                .flatMap(batch -> guard(studentServiceGuard, "student", fetchStudentsDetails(
+                        getStudentsByIds.replace(STUDENT_IDS_REPLACE_PHRASE, String.join(",", batch)), token)))
+                .collectList()
+                .map(studentMaps -> {
+                    Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
+                    studentMaps.forEach(studentDetailsMap::putAll);
+                    return studentDetailsMap;
+                })
+                .onErrorResume(WebClientResponseException.class, e -> {
+                    log.debug("Looking up students by ids is failed with {}. Using the student directory",
+                            e.getStatusCode());
+                    return getStudentsDetails(authToken)
+                            .map(students -> DirectoryService.selectStudents(students, studentIds));
+                })
+                .onErrorResume(ConnectionException.class,
+                        e -> getLastGood(directoryService.peekLastGoodStudentsDetails(), "student", e)
+                                .map(students -> DirectoryService.selectStudents(students, studentIds)));
+    }
+
+    /**
+     * Get the tuition class details mapped with tuition class id
+     *
+     * @param authToken access token of the caller, used only when no service token is configured
+     * @return TuitionClassResponseDtoMap
+     */
+    public Mono<Map<String, TuitionClassResponseDto>> getTuitionClassDetails(String authToken) {
+        var cachedTuitionClasses = directoryService.peekTuitionClassDetails();
+        if (cachedTuitionClasses != null) {
+            return Mono.just(cachedTuitionClasses);
+        }
+        String token = directoryService.resolveToken(authToken);
+        return guard(tuitionServiceGuard, "tuition", fetchTuitionClassDetails(token))
+                .onErrorMap(WebClientResponseException.class,
+                        e -> new PaymentException("The requesting data is failed.", e))
+                .map(directoryService::cacheTuitionClassDetails)
+                .onErrorResume(ConnectionException.class, e -> getLastGood(
+                        directoryService.peekLastGoodTuitionClassDetails(), "tuition class", e));
+    }
+
+    private Mono<Map<String, StudentResponseDto>> fetchStudentsDetails(String uri, String authToken) {
+        return webClient.get().uri(uri)
+                .header(Constants.TOKEN_HEADER, authToken)
+                .retrieve()
+                .bodyToMono(StudentListResponseWrapper.class)
+                .map(studentResponse -> {
+                    Map<String, StudentResponseDto> studentDetailsMap = new HashMap<>();
+                    for (StudentResponseDto responseDto : studentResponse.getData().getStudents()) {
+                        studentDetailsMap.put(responseDto.getStudentId(), responseDto);
+                    }
+                    return studentDetailsMap;
+                });
+    }
+
+    private Mono<Map<String, TuitionClassResponseDto>> fetchTuitionClassDetails(String authToken) {
+        return webClient.get().uri(getAllLocationDetails)
+                .header(Constants.TOKEN_HEADER, authToken)
+                .retrieve()
+                .bodyToMono(TuitionClassListResponseWrapper.class)
+                .map(tuitionClassResponse -> {
+                    Map<String, TuitionClassResponseDto> tuitionClassDetailsMap = new HashMap<>();
+                    for (TuitionClassResponseDto responseDto : tuitionClassResponse.getData().getLocations()) {
+                        tuitionClassDetailsMap.put(responseDto.getTuitionClassId(), responseDto);
+                    }
+                    return tuitionClassDetailsMap;
+                });
+    }
+
+    /**
+     * Apply the timeout and the retries to a remote call, and fail it at once while the circuit of the service is
+     * open. Transient failures are reported as {@link ConnectionException}.
+     *
+     * @param guard      guard of the remote service
+     * @param name       remote service name
+     * @param remoteCall remote call
+     * @param <T>        response type
+     * @return response
+     */
+    private <T> Mono<T> guard(RemoteServiceGuard guard, String name, Mono<T> remoteCall) {
+        return Mono.defer(() -> guard.isOpen()
+                        ? Mono.<T>error(new ConnectionException("The " + name + " service circuit is open"))
+                        : remoteCall.timeout(timeout))
+                .onErrorMap(ReactiveDirectoryService::isTransient,
+                        e -> new ConnectionException(CONNECTION_EXCEPTION_MESSAGE, e))
+                .retryWhen(Retry.backoff(maxAttempts - 1L, initialBackoff)
+                        .jitter(0.5)
+                        .filter(e -> e instanceof ConnectionException && !guard.isOpen())
+                        .onRetryExhaustedThrow((retrySpec, signal) -> signal.failure()));
+    }
+
+    private <V> Mono<Map<String, V>> getLastGood(Map<String, V> lastGood, String name, ConnectionException exception) {
+        if (lastGood == null) {
+            return Mono.error(exception);
+        }
+        log.warn("Serving the last loaded {} directory as the service is unavailable. Error message: {}", name,
+                exception.getMessage());
+        return Mono.just(lastGood);
+    }
+
+    private static boolean isTransient(Throwable throwable) {
+        return throwable instanceof WebClientRequestException || throwable instanceof TimeoutException
+                || throwable instanceof WebClientResponseException
+                && ((WebClientResponseException) throwable).getStatusCode().is5xxServerError();
+    }
+}
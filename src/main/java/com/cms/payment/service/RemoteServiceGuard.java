@@ -0,0 +1,267 @@
+package com.cms.payment.service;
+
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.PaymentException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkhead;
+import io.github.resilience4j.bulkhead.ThreadPoolBulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Guards the idempotent GET calls to a remote service.
+ * <p>
+ * Every call runs on a bounded thread pool bulkhead of its own instead of the request thread and is abandoned after
+ * {@code timeout}. Connection failures, timeouts and 5xx responses are retried with a jittered exponential backoff
+ * and recorded by a circuit breaker, which rejects the calls at once while it is open. A call rejected by a full
+ * bulkhead is a local overload, so it is neither retried nor recorded by the circuit breaker. All of them are reported
+ * as {@link ConnectionException}, so callers can fall back to the data they already have.
+ * <p>
+ * In the virtual thread mode the calls run on virtual threads of the given executor instead, and the bulkhead only
+ * limits the number of calls running at the same time to the pool size and the queue capacity together. A virtual
+ * thread call abandoned after the timeout is interrupted, while a pool thread call runs on until the HTTP read
+ * timeout ends it.
+ * <p>
+ * Every call is timed as {@code payment.remote.calls} tagged with the target service and the outcome, and the
+ * circuit state is published as {@code payment.remote.circuit.open}.
+ */
+@Slf4j
+public class RemoteServiceGuard {
+
+    private static final String UNAVAILABLE_MESSAGE = "The requested resource couldn't access due to unavailability";
+    private static final String CALL_TIMER = "payment.remote.calls";
+    private final String name;
+    private final long timeoutMillis;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadPoolBulkhead bulkhead;
+    private final Bulkhead callPermits;
+    private final ExecutorService callExecutor;
+    private final Retry retry;
+    private final MeterRegistry meterRegistry;
+
+    public RemoteServiceGuard(String name, Duration timeout, CircuitBreakerConfig circuitBreakerConfig,
+                              ThreadPoolBulkheadConfig bulkheadConfig, RetryConfig retryConfig,
+                              MeterRegistry meterRegistry) {
+        this(name, timeout, circuitBreakerConfig, bulkheadConfig, retryConfig, meterRegistry, null);
+    }
+
+    public RemoteServiceGuard(String name, Duration timeout, CircuitBreakerConfig circuitBreakerConfig,
+                              ThreadPoolBulkheadConfig bulkheadConfig, RetryConfig retryConfig,
+                              MeterRegistry meterRegistry, ExecutorService callExecutor) {
+        this.name = name;
+        this.timeoutMillis = timeout.toMillis();
+        this.circuitBreaker = CircuitBreaker.of(name, circuitBreakerConfig);
+        this.callExecutor = callExecutor;
+        if (callExecutor == null) {
+            this.bulkhead = ThreadPoolBulkhead.of(name, bulkheadConfig);
+            this.callPermits = null;
+        } else {
+            this.bulkhead = null;
+            this.callPermits = Bulkhead.of(name, BulkheadConfig.custom()
+                    .maxConcurrentCalls(bulkheadConfig.getMaxThreadPoolSize() + bulkheadConfig.getQueueCapacity())
+                    .maxWaitDuration(Duration.ZERO)
+                    .build());
+        }
+        this.retry = Retry.of(name, retryConfig);
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("payment.remote.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.OPEN ? 1 : 0)
+                .tag("target", name)
+                .register(meterRegistry);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("The {} service circuit moved {}", name, event.getStateTransition()));
+    }
+
+    /**
+     * Create a guard with the default settings: a 5 second timeout, 10 concurrent calls, 3 attempts and a circuit
+     * opened for 30 seconds when half of the last 20 calls failed
+     *
+     * @param name remote service name
+     * @return RemoteServiceGuard
+     */
+    public static RemoteServiceGuard ofDefaults(String name) {
+        return new RemoteServiceGuard(name, Duration.ofSeconds(5),
+                circuitBreakerConfig(50, 20, Duration.ofSeconds(30)),
+                bulkheadConfig(10, 20),
+                retryConfig(3, Duration.ofMillis(200)),
+                Metrics.globalRegistry);
+    }
+
+    /**
+     * Create the circuit breaker settings recording the failures of the remote service
+     *
+     * @param failureRateThreshold failure percentage opening the circuit
+     * @param slidingWindowSize    number of recent calls the failure rate is computed on
+     * @param waitInOpenState      time the circuit stays open before trying the service again
+     * @return CircuitBreakerConfig
+     */
+    public static CircuitBreakerConfig circuitBreakerConfig(float failureRateThreshold, int slidingWindowSize,
+                                                            Duration waitInOpenState) {
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(Math.min(slidingWindowSize, 10))
+                .waitDurationInOpenState(waitInOpenState)
+                .recordException(RemoteServiceGuard::isTransient)
+                .ignoreExceptions(BulkheadFullException.class, RejectedExecutionException.class)
+                .build();
+    }
+
+    /**
+     * Create the bulkhead settings
+     *
+     * @param maxConcurrentCalls maximum number of calls running at the same time
+     * @param queueCapacity      number of calls waiting for a free thread before the calls are rejected
+     * @return ThreadPoolBulkheadConfig
+     */
+    public static ThreadPoolBulkheadConfig bulkheadConfig(int maxConcurrentCalls, int queueCapacity) {
+        return ThreadPoolBulkheadConfig.custom()
+                .coreThreadPoolSize(maxConcurrentCalls)
+                .maxThreadPoolSize(maxConcurrentCalls)
+                .queueCapacity(queueCapacity)
+                .build();
+    }
+
+    /**
+     * Create the retry settings for the transient failures
+     *
+     * @param maxAttempts    number of attempts including the first call
+     * @param initialBackoff wait before the first retry, doubled and randomized by half for every next retry
+     * @return RetryConfig
+     */
+    public static RetryConfig retryConfig(int maxAttempts, Duration initialBackoff) {
+        return RetryConfig.custom()
+                .maxAttempts(maxAttempts)
+                .intervalFunction(IntervalFunction.ofExponentialRandomBackoff(initialBackoff, 2, 0.5))
+                .retryOnException(RemoteServiceGuard::isTransient)
+                .ignoreExceptions(BulkheadFullException.class, RejectedExecutionException.class)
+                .build();
+    }
+
+    /**
+     * Run the remote call through the retry, circuit breaker and bulkhead
+     *
+     * @param remoteCall remote call
+     * @param <T>        response type
+     * @return response
+     */
+    public <T> T call(Supplier<T> remoteCall) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T response = retry.executeSupplier(() -> circuitBreaker.executeSupplier(() -> isolate(remoteCall)));
+            outcome = "success";
+            return response;
+        } catch (CallNotPermittedException e) {
+            outcome = "rejected";
+            throw new ConnectionException("The " + name + " service circuit is open", e);
+        } catch (BulkheadFullException | RejectedExecutionException e) {
+            outcome = "rejected";
+            throw new ConnectionException("The " + name + " service calls exceeded the bulkhead", e);
+        } catch (ResourceAccessException | HttpServerErrorException e) {
+            throw new ConnectionException(UNAVAILABLE_MESSAGE, e);
+        } catch (HttpClientErrorException e) {
+            outcome = "client_error";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(CALL_TIMER)
+                    .tag("target", name)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Check whether the circuit currently rejects the calls
+     *
+     * @return true/ false
+     */
+    public boolean isOpen() {
+        return circuitBreaker.getState() == CircuitBreaker.State.OPEN;
+    }
+
+    public void shutdown() {
+        try {
+            if (bulkhead != null) {
+                bulkhead.close();
+            } else {
+                callExecutor.shutdownNow();
+            }
+        } catch (Exception e) {
+            log.warn("Closing the {} service bulkhead is failed. Error message: {}", name, e.getMessage());
+        }
+    }
+
+    private <T> T isolate(Supplier<T> remoteCall) {
+        Future<T> future = submit(remoteCall);
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            if (callExecutor != null) {
+                future.cancel(true);
+            }
+            throw new ConnectionException("The " + name + " service call exceeded the timeout", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentException("The " + name + " service call is interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PaymentException("The " + name + " service call is failed", cause);
+        }
+    }
+
+    private <T> Future<T> submit(Supplier<T> remoteCall) {
+        if (callExecutor == null) {
+            return bulkhead.executeSupplier(remoteCall).toCompletableFuture();
+        }
+        callPermits.acquirePermission();
+        var task = new FutureTask<T>(remoteCall::get) {
+            @Override
+            protected void done() {
+                callPermits.onComplete();
+            }
+        };
+        try {
+            callExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            callPermits.onComplete();
+            throw e;
+        }
+        return task;
+    }
+
+    private static boolean isTransient(Throwable throwable) {
+        return throwable instanceof ConnectionException || throwable instanceof ResourceAccessException
+                || throwable instanceof HttpServerErrorException;
+    }
+}
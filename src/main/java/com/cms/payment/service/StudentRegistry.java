@@ -0,0 +1,157 @@
+package com.cms.payment.service;
+
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.utills.Constants;
+import com.cms.payment.wrapper.StudentResponseWrapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local registry of the student ids used to validate the students of the payments.
+ * <p>
+ * A student id is looked up in the cached student directory, which is kept synchronized in the background when a
+ * service token is configured, and then in the ids resolved before. Only a miss on both is sent to the student
+ * service. Known ids are kept for {@code knownTtl} and unknown ids for the shorter {@code unknownTtl}, so a newly
+ * registered student is accepted soon after. Each of them holds at most {@code maxEntries} ids, evicting the ids least
+ * likely to be used again when full. While the student service is unavailable, the students of the last loaded
+ * directory are still accepted.
+ */
+@Slf4j
+@Service
+public class StudentRegistry {
+
+    private static final String STUDENT_ID_REPLACE_PHRASE = "##STUDENT-ID##";
+    private final DirectoryService directoryService;
+    private final RestTemplate restTemplate;
+    private final RemoteServiceGuard studentServiceGuard;
+    private final String getStudentByIdUrl;
+    private final ExpiringIds knownIds;
+    private final ExpiringIds unknownIds;
+
+    @Autowired
+    public StudentRegistry(DirectoryService directoryService, RestTemplate restTemplate,
+                           @Qualifier("studentServiceGuard") RemoteServiceGuard studentServiceGuard,
+                           @Value("${student.uri.baseUrl}") String studentBaseUrl,
+                           @Value("${student.uri.getStudentById}") String getStudentById,
+                           @Value("${student.registry.knownTtl:PT10M}") Duration knownTtl,
+                           @Value("${student.registry.unknownTtl:PT30S}") Duration unknownTtl,
+                           @Value("${student.registry.maxEntries:100000}") int maxEntries) {
+        this(directoryService, restTemplate, studentServiceGuard, studentBaseUrl, getStudentById, knownTtl, unknownTtl,
+                maxEntries, Clock.systemUTC());
+    }
+
+    public StudentRegistry(DirectoryService directoryService, RestTemplate restTemplate,
+                           RemoteServiceGuard studentServiceGuard, String studentBaseUrl, String getStudentById,
+                           Duration knownTtl, Duration unknownTtl, int maxEntries, Clock clock) {
+        this.directoryService = directoryService;
+        this.restTemplate = restTemplate;
+        this.studentServiceGuard = studentServiceGuard;
+        this.getStudentByIdUrl = studentBaseUrl + getStudentById;
+        this.knownIds = new ExpiringIds(knownTtl, maxEntries, clock);
+        this.unknownIds = new ExpiringIds(unknownTtl, maxEntries, clock);
+    }
+
+    /**
+     * Check the existence of the student id, requesting the student service only when the id is not resolved locally
+     *
+     * @param studentId student id
+     * @param authToken access token
+     * @return true/ false
+     */
+    public boolean exists(String studentId, String authToken) {
+        var students = directoryService.peekStudentsDetails();
+        if (students != null && students.containsKey(studentId)) {
+            return true;
+        }
+        if (knownIds.contains(studentId)) {
+            return true;
+        }
+        if (unknownIds.contains(studentId)) {
+            return false;
+        }
+        boolean exists;
+        try {
+            exists = studentServiceGuard.call(() -> existsStudentId(studentId, authToken));
+        } catch (ConnectionException e) {
+            var lastGoodStudents = directoryService.peekLastGoodStudentsDetails();
+            if (lastGoodStudents == null || !lastGoodStudents.containsKey(studentId)) {
+                throw e;
+            }
+            log.warn("Validating the student {} with the last loaded directory as the student service is "
+                    + "unavailable. Error message: {}", studentId, e.getMessage());
+            return true;
+        }
+        if (exists) {
+            knownIds.add(studentId);
+        } else {
+            unknownIds.add(studentId);
+        }
+        return exists;
+    }
+
+    /**
+     * Keep the student directory synchronized without waiting for a read. Runs only when a service token is configured.
+     */
+    @Scheduled(fixedDelayString = "${student.registry.syncInterval:60000}")
+    public void synchronize() {
+        try {
+            directoryService.refreshStudentsDetails();
+        } catch (RuntimeException e) {
+            log.warn("Synchronizing the student registry is failed. Error message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Check the existence of the student id in the student service
+     *
+     * @param studentId student id
+     * @param authToken access token
+     * @return true/ false
+     */
+    private boolean existsStudentId(String studentId, String authToken) {
+        var headers = new HttpHeaders();
+        headers.set(Constants.TOKEN_HEADER, authToken);
+        var entity = new HttpEntity<String>(headers);
+        String uri = getStudentByIdUrl.replace(STUDENT_ID_REPLACE_PHRASE, studentId);
+        var studentResponse = restTemplate.exchange(uri, HttpMethod.GET, entity,
+                StudentResponseWrapper.class);
+        var statusCode = Objects.requireNonNull(studentResponse.getBody()).getStatusCode();
+        return statusCode == HttpStatus.OK.value();
+    }
+
+    private static final class ExpiringIds {
+        private final Cache<String, Boolean> ids;
+
+        private ExpiringIds(Duration ttl, int maxEntries, Clock clock) {
+            this.ids = Caffeine.newBuilder()
+                    .maximumSize(Math.max(maxEntries, 0))
+                    .expireAfterWrite(ttl)
+                    .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                    .build();
+        }
+
+        private boolean contains(String id) {
+            return ids.getIfPresent(id) != null;
+        }
+
+        private void add(String id) {
+            ids.put(id, Boolean.TRUE);
+        }
+    }
+}
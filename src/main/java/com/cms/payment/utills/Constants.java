@@ -6,4 +6,8 @@ public class Constants {
     }
     public static final String TOKEN_HEADER = "access_token";
     public static final String SECRET_KEY = "accessKey";
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+    public static final String PAYMENT_CACHE_REGION = "payment";
+    public static final String STUDENT_PAYMENTS_CACHE_REGION = "payment-student-query";
 }
@@ -0,0 +1,47 @@
+package com.cms.payment.utills;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time ordered payment ids in the UUID version 7 layout. The first 48 bits hold the unix time in
+ * milliseconds and the next 12 bits a sequence within the millisecond, so the ids of new payments are appended at
+ * the end of the primary key index instead of being scattered over it. The text form keeps the "pid-" prefix and
+ * the fixed width UUID format, so it sorts in the order the ids are generated.
+ */
+public class PaymentIdGenerator {
+    public static final String PREFIX = "pid-";
+    private static final int SEQUENCE_BITS = 12;
+    private static final long VERSION = 0x7000L;
+    private static final long VARIANT = 0x8000000000000000L;
+    private static final long RANDOM_MASK = 0x3FFFFFFFFFFFFFFFL;
+    private static final AtomicLong LAST_TIMESTAMP = new AtomicLong();
+
+    private PaymentIdGenerator() {
+
+    }
+
+    /**
+     * Generate the next payment id
+     *
+     * @return payment id
+     */
+    public static String nextId() {
+        return PREFIX + nextUuid();
+    }
+
+    /**
+     * Generate the next time ordered uuid. The millisecond and sequence pair never goes back, even when the clock
+     * does or the sequence of a millisecond is exhausted, so the ids of one instance are strictly increasing.
+     *
+     * @return UUID
+     */
+    public static UUID nextUuid() {
+        long now = System.currentTimeMillis() << SEQUENCE_BITS;
+        long timestamp = LAST_TIMESTAMP.accumulateAndGet(now, (last, current) -> Math.max(last + 1, current));
+        long mostSigBits = (timestamp >>> SEQUENCE_BITS) << 16 | VERSION | (timestamp & 0xFFFL);
+        long leastSigBits = VARIANT | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
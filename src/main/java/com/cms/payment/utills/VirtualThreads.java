@@ -0,0 +1,63 @@
+package com.cms.payment.utills;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to the virtual threads of Java 21 while the service is still built for an older release. The API is looked
+ * up reflectively once. Enabling the virtual thread mode on an older runtime fails the startup, so the executors are
+ * only created on a runtime which supports them.
+ */
+public class VirtualThreads {
+    private static final Method OF_VIRTUAL = findOfVirtual();
+
+    private VirtualThreads() {
+
+    }
+
+    /**
+     * Check whether the runtime supports virtual threads
+     *
+     * @return true/ false
+     */
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * Create an executor starting a new virtual thread for every task
+     *
+     * @param namePrefix thread name prefix, followed by a counter
+     * @return ExecutorService
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String namePrefix) {
+        if (OF_VIRTUAL == null) {
+            throw new IllegalStateException("Virtual threads require Java 21 or later, but the service runs on Java "
+                    + Runtime.version().feature());
+        }
+        try {
+            Object builder = OF_VIRTUAL.invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            var threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor = Executors.class.getMethod("newThreadPerTaskExecutor",
+                    ThreadFactory.class);
+            return (ExecutorService) newThreadPerTaskExecutor.invoke(null, threadFactory);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Creating the virtual thread executor is failed", e);
+        }
+    }
+
+    private static Method findOfVirtual() {
+        if (Runtime.version().feature() < 21) {
+            return null;
+        }
+        try {
+            return Thread.class.getMethod("ofVirtual");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package db.migration;
+
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.exception.InvalidPaymentMonthException;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.SQLException;
+
+/**
+ * Fill the payment period of the existing payments from the "January 2023" payment month.
+ * Payment months which cannot be parsed are left without a period and logged.
+ */
+@Slf4j
+public class V4__BackfillPaymentPeriod extends BaseJavaMigration {
+    private static final int BATCH_SIZE = 500;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        var connection = context.getConnection();
+        try (var select = connection.createStatement();
+             var update = connection.prepareStatement("UPDATE payment SET payment_period = ? WHERE payment_id = ?");
+             var payments = select.executeQuery("SELECT payment_id, payment_month FROM payment")) {
+            int pending = 0;
+            while (payments.next()) {
+                String paymentId = payments.getString(1);
+                String paymentMonth = payments.getString(2);
+                Integer period = toPeriod(paymentMonth);
+                if (period == null) {
+                    log.warn("The payment month '{}' of the payment {} is not a valid period", paymentMonth, paymentId);
+                    continue;
+                }
+                update.setInt(1, period);
+                update.setString(2, paymentId);
+                update.addBatch();
+                if (++pending == BATCH_SIZE) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    private static Integer toPeriod(String paymentMonth) {
+        if (paymentMonth == null) {
+            return null;
+        }
+        String[] parts = paymentMonth.trim().split("\\s+");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new PaymentMonthDto(parts[0], Integer.parseInt(parts[1])).getPeriod();
+        } catch (NumberFormatException | InvalidPaymentMonthException e) {
+            return null;
+        }
+    }
+}
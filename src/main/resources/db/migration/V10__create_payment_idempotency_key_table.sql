@@ -0,0 +1,15 @@
+-- Idempotency keys of the payment requests. A key is claimed before the request is processed and holds the response
+-- once the request is completed, so the retries of the request are answered with the stored response.
+-- Keys are deleted after the retention of the idempotency service.
+CREATE TABLE IF NOT EXISTS payment_idempotency_key (
+    idempotency_key  VARCHAR(100)  NOT NULL,
+    request_hash     VARCHAR(64)   NOT NULL,
+    status_code      INT,
+    response_message VARCHAR(255),
+    response_body    VARCHAR(4000),
+    created_at       DATETIME(6)   NOT NULL,
+    completed_at     DATETIME(6),
+    PRIMARY KEY (idempotency_key)
+);
+
+CREATE INDEX idx_payment_idempotency_key_created ON payment_idempotency_key (created_at);
@@ -0,0 +1,18 @@
+-- Version of the payment data for conditional requests. Every payment write transaction advances the single row as
+-- its last statement, and the row lock makes the writers advance it in commit order, so a reader never sees a version
+-- before the changes it counts are committed. The latest modified_at could miss a change stamped earlier but committed
+-- later than another one.
+CREATE TABLE IF NOT EXISTS payment_version (
+    version_id INT    NOT NULL,
+    version    BIGINT NOT NULL,
+    PRIMARY KEY (version_id)
+);
+
+INSERT INTO payment_version (version_id, version) VALUES (1, 0);
+
+-- modified_at no longer versions the listings
+DROP INDEX idx_payment_modified ON payment;
+
+DROP INDEX idx_payment_student_modified ON payment;
+
+DROP INDEX idx_payment_period_modified ON payment;
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS payment (
+    payment_id    VARCHAR(50) NOT NULL,
+    is_deleted    BIT         NOT NULL,
+    paid_date     DATE,
+    payment_month VARCHAR(20),
+    student_id    VARCHAR(50),
+    updated_at    DATE,
+    PRIMARY KEY (payment_id)
+);
@@ -0,0 +1,15 @@
+-- Keep the first active payment of a student for a month and soft delete the duplicates made by the old
+-- check-then-insert race, otherwise the unique index below cannot be created.
+UPDATE payment
+SET is_deleted = TRUE
+WHERE is_deleted = FALSE
+  AND payment_id NOT IN (SELECT keep_id
+                         FROM (SELECT MIN(payment_id) AS keep_id
+                               FROM payment
+                               WHERE is_deleted = FALSE
+                               GROUP BY student_id, payment_month) active_payment);
+
+-- NULL for soft deleted rows, so only active payments take part in the unique index
+ALTER TABLE payment ADD COLUMN active_flag TINYINT GENERATED ALWAYS AS (CASE WHEN is_deleted THEN NULL ELSE 1 END);
+
+CREATE UNIQUE INDEX uk_payment_student_month_active ON payment (student_id, payment_month, active_flag);
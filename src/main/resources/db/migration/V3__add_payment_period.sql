@@ -0,0 +1,2 @@
+-- Billing period as yyyymm, filled from payment_month by V4
+ALTER TABLE payment ADD COLUMN payment_period INT;
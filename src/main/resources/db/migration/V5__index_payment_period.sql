@@ -0,0 +1,19 @@
+-- Payment months differing only in case ("march 2023", "March 2023") share a period now, so soft delete
+-- all but the first active payment of a student for a period before the unique index is moved.
+UPDATE payment
+SET is_deleted = TRUE
+WHERE is_deleted = FALSE
+  AND payment_period IS NOT NULL
+  AND payment_id NOT IN (SELECT keep_id
+                         FROM (SELECT MIN(payment_id) AS keep_id
+                               FROM payment
+                               WHERE is_deleted = FALSE
+                                 AND payment_period IS NOT NULL
+                               GROUP BY student_id, payment_period) active_payment);
+
+DROP INDEX uk_payment_student_month_active ON payment;
+
+CREATE UNIQUE INDEX uk_payment_student_period_active ON payment (student_id, payment_period, active_flag);
+
+-- Month reports and period range queries scan this index instead of comparing payment_month strings
+CREATE INDEX idx_payment_period ON payment (payment_period);
@@ -0,0 +1,8 @@
+-- Keyset pagination walks (updated_at, payment_id) descending, so each listing filter leads an index in that order
+CREATE INDEX idx_payment_updated ON payment (is_deleted, updated_at, payment_id);
+
+CREATE INDEX idx_payment_student_updated ON payment (student_id, updated_at, payment_id);
+
+DROP INDEX idx_payment_period ON payment;
+
+CREATE INDEX idx_payment_period_updated ON payment (payment_period, updated_at, payment_id);
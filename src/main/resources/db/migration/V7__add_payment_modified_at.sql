@@ -0,0 +1,11 @@
+-- Every insert, update and soft delete advances modified_at, so the latest modification time of a listing versions it
+-- for conditional requests. Deleted payments are included, as a delete has to change the version too.
+ALTER TABLE payment ADD COLUMN modified_at DATETIME(6);
+
+UPDATE payment SET modified_at = updated_at WHERE modified_at IS NULL;
+
+CREATE INDEX idx_payment_modified ON payment (modified_at);
+
+CREATE INDEX idx_payment_student_modified ON payment (student_id, modified_at);
+
+CREATE INDEX idx_payment_period_modified ON payment (payment_period, modified_at);
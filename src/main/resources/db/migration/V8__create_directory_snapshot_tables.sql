@@ -0,0 +1,34 @@
+-- Local read model of the student and tuition class directories, fed by the directory snapshot sync. The latest
+-- updated_at of a table is the watermark the next sync pulls the remote changes from.
+CREATE TABLE IF NOT EXISTS student_snapshot (
+    student_id       VARCHAR(50) NOT NULL,
+    first_name       VARCHAR(100),
+    last_name        VARCHAR(100),
+    address          VARCHAR(255),
+    gender           VARCHAR(20),
+    age              INT         NOT NULL,
+    grade            INT         NOT NULL,
+    phone_number     INT         NOT NULL,
+    student_status   VARCHAR(50),
+    tuition_class_id VARCHAR(50),
+    joined_date      DATE,
+    updated_at       DATE,
+    is_deleted       BIT         NOT NULL,
+    PRIMARY KEY (student_id)
+);
+
+CREATE INDEX idx_student_snapshot_updated ON student_snapshot (updated_at);
+
+CREATE TABLE IF NOT EXISTS tuition_class_snapshot (
+    tuition_class_id VARCHAR(50) NOT NULL,
+    location_name    VARCHAR(100),
+    address          VARCHAR(255),
+    district         VARCHAR(100),
+    province         VARCHAR(100),
+    created_at       DATE,
+    updated_at       DATE,
+    is_deleted       BIT         NOT NULL,
+    PRIMARY KEY (tuition_class_id)
+);
+
+CREATE INDEX idx_tuition_class_snapshot_updated ON tuition_class_snapshot (updated_at);
@@ -0,0 +1,16 @@
+-- Payment events written in the transaction of the payment change and published by the outbox relay in event_id order.
+-- Published events are kept until the retention of the relay passes.
+CREATE TABLE IF NOT EXISTS payment_outbox (
+    event_id       BIGINT      NOT NULL AUTO_INCREMENT,
+    event_type     VARCHAR(20) NOT NULL,
+    payment_id     VARCHAR(50) NOT NULL,
+    student_id     VARCHAR(50) NOT NULL,
+    payment_month  VARCHAR(20),
+    payment_period INT,
+    paid_date      DATE,
+    created_at     DATETIME(6) NOT NULL,
+    published_at   DATETIME(6),
+    PRIMARY KEY (event_id)
+);
+
+CREATE INDEX idx_payment_outbox_published ON payment_outbox (published_at, event_id);
@@ -0,0 +1,80 @@
+package com.cms.payment.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class DirectoryCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+    private static final Duration REFRESH_AFTER = Duration.ofMinutes(1);
+
+    @Mock
+    private Clock clock;
+    private ThreadPoolExecutor refreshExecutor;
+    private DirectoryCache<String> directoryCache;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        refreshExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+        directoryCache = new DirectoryCache<>("student", TTL, REFRESH_AFTER, 100, refreshExecutor, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    @Test
+    void Should_RefreshAgain_When_RefreshWasRejectedBySaturatedExecutor() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        directoryCache.get(() -> Map.of("sid-1", "load-" + loads.incrementAndGet()));
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch drained = new CountDownLatch(2);
+        refreshExecutor.execute(() -> awaitQuietly(blocker, drained));
+        refreshExecutor.execute(() -> awaitQuietly(blocker, drained));
+        when(clock.millis()).thenReturn(REFRESH_AFTER.toMillis());
+
+        assertEquals("load-1", directoryCache.get(() -> Map.of("sid-1", "load-" + loads.incrementAndGet()))
+                .get("sid-1"));
+        assertEquals(1, loads.get());
+
+        blocker.countDown();
+        assertTrue(drained.await(5, TimeUnit.SECONDS));
+        CountDownLatch refreshed = new CountDownLatch(1);
+        directoryCache.get(() -> {
+            refreshed.countDown();
+            return Map.of("sid-1", "load-" + loads.incrementAndGet());
+        });
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+        refreshExecutor.shutdown();
+        assertTrue(refreshExecutor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals("load-2", directoryCache.peek().get("sid-1"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch, CountDownLatch drained) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drained.countDown();
+    }
+}
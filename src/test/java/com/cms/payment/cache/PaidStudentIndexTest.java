@@ -0,0 +1,68 @@
+package com.cms.payment.cache;
+
+import com.cms.payment.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaidStudentIndexTest {
+
+    private static final int PAYMENT_PERIOD = 202303;
+    private static final int OTHER_PAYMENT_PERIOD = 202304;
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final String OTHER_STUDENT_ID = "sid-3658-9654-1254";
+    private static final long TTL_MILLIS = 60000;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private Clock clock;
+    private PaidStudentIndex paidStudentIndex;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        when(paymentRepository.findPaidStudentIds(PAYMENT_PERIOD)).thenReturn(List.of(STUDENT_ID));
+        paidStudentIndex = new PaidStudentIndex(paymentRepository, Duration.ofMillis(TTL_MILLIS), 1, clock);
+    }
+
+    @Test
+    void Should_ApplyPaymentChanges_When_MonthIsLoaded() {
+        assertEquals(Set.of(STUDENT_ID), paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD));
+        paidStudentIndex.markPaid(PAYMENT_PERIOD, OTHER_STUDENT_ID);
+        paidStudentIndex.markUnpaid(PAYMENT_PERIOD, STUDENT_ID);
+        Set<String> paidStudentIds = paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD);
+        assertEquals(Set.of(OTHER_STUDENT_ID), paidStudentIds);
+        assertFalse(paidStudentIds.contains(STUDENT_ID));
+        assertFalse(paidStudentIds.contains(null));
+        verify(paymentRepository, times(1)).findPaidStudentIds(PAYMENT_PERIOD);
+    }
+
+    @Test
+    void Should_ReloadMonth_When_MonthIsExpired() {
+        paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD);
+        when(clock.millis()).thenReturn(TTL_MILLIS);
+        paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD);
+        verify(paymentRepository, times(2)).findPaidStudentIds(PAYMENT_PERIOD);
+    }
+
+    @Test
+    void Should_DropLeastRecentlyReadMonth_When_MonthLimitIsExceeded() {
+        paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD);
+        when(clock.millis()).thenReturn(1L);
+        paidStudentIndex.getPaidStudentIds(OTHER_PAYMENT_PERIOD);
+        paidStudentIndex.markPaid(PAYMENT_PERIOD, OTHER_STUDENT_ID);
+        assertEquals(Set.of(STUDENT_ID), paidStudentIndex.getPaidStudentIds(PAYMENT_PERIOD));
+        verify(paymentRepository, times(2)).findPaidStudentIds(PAYMENT_PERIOD);
+    }
+}
@@ -0,0 +1,109 @@
+package com.cms.payment.configuration;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.cms.payment.cache.VerifiedTokenCache;
+import com.cms.payment.utills.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Clock;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class JwtValidatorTest {
+
+    private static final String KEY = "accessKey";
+    private static final String USER_NAME = "danushan";
+    private static final long TOKEN_LIFETIME_MILLIS = 60000;
+
+    @Mock
+    private Clock clock;
+    private VerifiedTokenCache tokenCache;
+    private JwtValidator jwtValidator;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(System.currentTimeMillis());
+        tokenCache = new VerifiedTokenCache(10, clock);
+        jwtValidator = new JwtValidator(KEY, tokenCache);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void Should_ReuseAuthentication_When_SameTokenIsUsedAgain() throws ServletException, IOException {
+        String token = getSampleToken(new Date(System.currentTimeMillis() + TOKEN_LIFETIME_MILLIS));
+        Authentication authentication = filter(token);
+        assertEquals("\"" + USER_NAME + "\"", authentication.getName());
+        assertEquals(1, authentication.getAuthorities().size());
+        assertSame(authentication, filter(token));
+        assertEquals(1, tokenCache.size());
+    }
+
+    @Test
+    void Should_VerifyTokenAgain_When_CachedTokenIsExpired() throws ServletException, IOException {
+        long expiresAt = System.currentTimeMillis() + TOKEN_LIFETIME_MILLIS;
+        String token = getSampleToken(new Date(expiresAt));
+        Authentication authentication = filter(token);
+        when(clock.millis()).thenReturn(expiresAt + 1000);
+        assertNotSame(authentication, filter(token));
+        assertEquals(0, tokenCache.size());
+    }
+
+    @Test
+    void Should_NotCacheToken_When_TokenHasNoExpiry() throws ServletException, IOException {
+        String token = getSampleToken(null);
+        assertNotSame(filter(token), filter(token));
+        assertEquals(0, tokenCache.size());
+    }
+
+    /**
+     * This method runs the filter with the given token
+     *
+     * @param token access token
+     * @return Authentication set by the filter
+     * @throws ServletException when the filter is failed
+     * @throws IOException      when the filter is failed
+     */
+    private Authentication filter(String token) throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/payment/");
+        request.addHeader(Constants.TOKEN_HEADER, token);
+        jwtValidator.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    /**
+     * This method return sample access token
+     *
+     * @param expiresAt token expiry, null for a token without expiry
+     * @return access token
+     */
+    private String getSampleToken(Date expiresAt) {
+        JWTCreator.Builder builder = JWT.create().withClaim("username", USER_NAME)
+                .withClaim("authorities", List.of("ADMIN"));
+        if (expiresAt != null) {
+            builder.withExpiresAt(expiresAt);
+        }
+        return builder.sign(Algorithm.HMAC256(KEY));
+    }
+}
@@ -0,0 +1,102 @@
+package com.cms.payment.configuration;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private static final String NODE_QUERY = "SELECT name FROM node";
+    private DataSource primary;
+    private DataSource firstReplica;
+    private DataSource secondReplica;
+
+    @BeforeEach
+    void setUp() {
+        primary = createDatabase("primary");
+        firstReplica = createDatabase("replica-1");
+        secondReplica = createDatabase("replica-2");
+    }
+
+    @Test
+    void Should_UsePrimary_When_TransactionIsNotReadOnly() {
+        var routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica), Duration.ofSeconds(30),
+                Clock.systemUTC());
+        assertEquals("primary", queryNode(routingDataSource, false));
+        assertEquals("primary", new JdbcTemplate(routingDataSource).queryForObject(NODE_QUERY, String.class));
+    }
+
+    @Test
+    void Should_BalanceReplicas_When_TransactionIsReadOnly() {
+        var routingDataSource = new ReplicaRoutingDataSource(primary, List.of(firstReplica, secondReplica),
+                Duration.ofSeconds(30), Clock.systemUTC());
+        assertEquals("replica-1", queryNode(routingDataSource, true));
+        assertEquals("replica-2", queryNode(routingDataSource, true));
+        assertEquals("replica-1", queryNode(routingDataSource, true));
+    }
+
+    @Test
+    void Should_SkipReplica_When_ReplicaIsDown() throws SQLException {
+        DataSource downReplica = mock(DataSource.class);
+        when(downReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        var routingDataSource = new ReplicaRoutingDataSource(primary, List.of(downReplica, secondReplica),
+                Duration.ofSeconds(30), Clock.systemUTC());
+        assertEquals("replica-2", queryNode(routingDataSource, true));
+        assertEquals("replica-2", queryNode(routingDataSource, true));
+        assertEquals("replica-2", queryNode(routingDataSource, true));
+        verify(downReplica, times(1)).getConnection();
+    }
+
+    @Test
+    void Should_FallBackToPrimary_When_NoReplicaIsAvailable() throws SQLException {
+        DataSource downReplica = mock(DataSource.class);
+        when(downReplica.getConnection()).thenThrow(new SQLException("Connection refused"));
+        var routingDataSource = new ReplicaRoutingDataSource(primary, List.of(downReplica), Duration.ofSeconds(30),
+                Clock.systemUTC());
+        assertEquals("primary", queryNode(routingDataSource, true));
+    }
+
+    /**
+     * Query the name of the database serving a transaction started through a lazy connection proxy
+     *
+     * @param routingDataSource routing data source
+     * @param readOnly          read-only transaction
+     * @return database name
+     */
+    private String queryNode(ReplicaRoutingDataSource routingDataSource, boolean readOnly) {
+        var dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject(NODE_QUERY, String.class));
+    }
+
+    /**
+     * Create an in-memory database which tells its name
+     *
+     * @param name database name
+     * @return DataSource
+     */
+    private DataSource createDatabase(String name) {
+        var dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbcTemplate.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
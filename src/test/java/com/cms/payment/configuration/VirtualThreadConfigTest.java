@@ -0,0 +1,34 @@
+package com.cms.payment.configuration;
+
+import com.cms.payment.utills.VirtualThreads;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.source.InvalidConfigurationPropertyValueException;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(VirtualThreadConfig.class);
+
+    @Test
+    void Should_NotCustomizeTomcat_When_VirtualThreadsAreDisabled() {
+        contextRunner.run(context -> assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class));
+    }
+
+    @Test
+    void Should_FailStartupOrUseVirtualThreads_When_VirtualThreadsAreEnabled() {
+        contextRunner.withPropertyValues("payment.virtualThreads.enabled=true").run(context -> {
+            if (VirtualThreads.isSupported()) {
+                assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+            } else {
+                assertThat(context).hasFailed();
+                assertThat(context.getStartupFailure())
+                        .hasRootCauseInstanceOf(InvalidConfigurationPropertyValueException.class)
+                        .hasStackTraceContaining("Virtual threads require Java 21 or later");
+            }
+        });
+    }
+}
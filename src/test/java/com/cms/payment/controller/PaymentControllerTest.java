@@ -1,40 +1,75 @@
 package com.cms.payment.controller;
 
+import com.cms.payment.cache.IdempotencyCache;
+import com.cms.payment.domain.entity.IdempotencyRecord;
 import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentCursor;
 import com.cms.payment.domain.request.PaymentMonthDto;
 import com.cms.payment.domain.request.PaymentRequestDto;
 import com.cms.payment.domain.request.UpdatePaymentRequestDto;
+import com.cms.payment.domain.response.PaymentBatchItemResponseDto;
+import com.cms.payment.domain.response.PaymentBatchResponseDto;
 import com.cms.payment.domain.response.StudentResponseDto;
 import com.cms.payment.domain.response.TuitionClassResponseDto;
 import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.ExportFormat;
 import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.GlobalExceptionHandler;
+import com.cms.payment.exception.InvalidPageRequestException;
 import com.cms.payment.exception.InvalidPaymentException;
+import com.cms.payment.exception.InvalidPaymentMonthException;
 import com.cms.payment.exception.InvalidStudentException;
 import com.cms.payment.exception.PaymentException;
+import com.cms.payment.repository.IdempotencyRecordRepository;
+import com.cms.payment.service.EnrichmentExecutor;
+import com.cms.payment.service.IdempotencyService;
+import com.cms.payment.service.PaymentBatchService;
+import com.cms.payment.service.PaymentExportService;
 import com.cms.payment.service.PaymentService;
 import com.cms.payment.utills.Constants;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.nio.charset.StandardCharsets;
 import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 class PaymentControllerTest {
@@ -43,6 +78,8 @@ class PaymentControllerTest {
     private static final String DELETE_PAYMENT_URL = "/api/v1/payment/##PAYMENT-ID##";
     private static final String GET_STUDENT_PAYMENTS_URL = "/api/v1/payment/student/##STUDENT-ID##";
     private static final String GET_PAYMENTS_REPORT_URL = "/api/v1/payment/student/report/##MONTH##/##YEAR##";
+    private static final String EXPORT_URL = "/api/v1/payment/export";
+    private static final String BATCH_PAYMENT_URL = "/api/v1/payment/batch";
     private static final String REPLACE_STUDENT_ID = "##STUDENT-ID##";
     private static final String REPLACE_PAYMENT_ID = "##PAYMENT-ID##";
     private static final String REPLACE_MONTH = "##MONTH##";
@@ -67,16 +104,36 @@ class PaymentControllerTest {
     private static final int PHONE_NUMBER = 771109101;
     private static final int AGE = 27;
     private static final int GRADE = 12;
+    private static final String PAYMENTS_ETAG = "\"1.1-2.3\"";
+    private static final String PAYMENTS_VERSION = "1.2";
+    private static final String IDEMPOTENCY_KEY = "8e4f1c2a-6b7d-4e5f-9a0b-1c2d3e4f5a6b";
 
     @Mock
     private PaymentService paymentService;
+    @Mock
+    private PaymentExportService paymentExportService;
+    @Mock
+    private PaymentBatchService paymentBatchService;
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
     private MockMvc mockMvc;
+    private MeterRegistry meterRegistry;
 
     @BeforeEach
     void setUp() {
         openMocks(this);
-        PaymentController paymentController = new PaymentController(paymentService);
-        mockMvc = MockMvcBuilders.standaloneSetup(paymentController).build();
+        meterRegistry = new SimpleMeterRegistry();
+        EnrichmentExecutor enrichmentExecutor = new EnrichmentExecutor(2, 8, Duration.ofSeconds(5));
+        IdempotencyService idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+                new TransactionTemplate(transactionManager), Jackson2ObjectMapperBuilder.json().build(),
+                new IdempotencyCache(100, Duration.ofDays(1), Clock.systemUTC()), Duration.ofDays(1),
+                Duration.ofMinutes(1), meterRegistry, Clock.systemUTC());
+        PaymentController paymentController = new PaymentController(paymentService, enrichmentExecutor,
+                paymentExportService, paymentBatchService, idempotencyService);
+        mockMvc = MockMvcBuilders.standaloneSetup(paymentController)
+                .setControllerAdvice(new GlobalExceptionHandler(meterRegistry)).build();
     }
 
     @AfterEach
@@ -117,6 +174,89 @@ class PaymentControllerTest {
 
 
 
+    @Test
+    void Should_ReplayStoredResponse_When_PaymentIsRetriedWithSameIdempotencyKey() throws Exception {
+        PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
+        Payment payment = getSamplePayment();
+        when(paymentService.makePayment(any(PaymentRequestDto.class), anyString())).thenReturn(payment);
+        when(idempotencyRecordRepository.complete(eq(IDEMPOTENCY_KEY), any(Timestamp.class), anyInt(), anyString(),
+                anyString(), any(Timestamp.class))).thenReturn(1);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(MockMvcRequestBuilders.post(PAYMENT_BASE_URL)
+                            .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                            .header(Constants.IDEMPOTENCY_KEY_HEADER, IDEMPOTENCY_KEY)
+                            .content(paymentRequestDto.toJson())
+                            .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.message").value(SuccessResponseStatus.PAID_SUCCESSFUL.getMessage()))
+                    .andExpect(jsonPath("$.statusCode").value(HttpStatus.CREATED.value()))
+                    .andExpect(jsonPath("$.data.paymentId").value(PAYMENT_ID));
+        }
+        verify(paymentService, times(1)).makePayment(any(PaymentRequestDto.class), anyString());
+        verify(idempotencyRecordRepository, times(1)).saveAndFlush(any(IdempotencyRecord.class));
+        verify(idempotencyRecordRepository, times(1)).complete(eq(IDEMPOTENCY_KEY), any(Timestamp.class),
+                eq(HttpStatus.CREATED.value()), anyString(), anyString(), any(Timestamp.class));
+    }
+
+    @Test
+    void Should_ReturnConflict_When_PaymentWithSameIdempotencyKeyIsInProgress() throws Exception {
+        PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
+        AtomicReference<IdempotencyRecord> claimedRecord = new AtomicReference<>();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            claimedRecord.set(invocation.getArgument(0));
+            throw new DataIntegrityViolationException("Duplicate idempotency key");
+        });
+        when(idempotencyRecordRepository.findById(IDEMPOTENCY_KEY))
+                .thenAnswer(invocation -> Optional.of(claimedRecord.get()));
+        mockMvc.perform(MockMvcRequestBuilders.post(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, IDEMPOTENCY_KEY)
+                        .content(paymentRequestDto.toJson())
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.IDEMPOTENCY_KEY_IN_PROGRESS.getMessage()))
+                .andExpect(jsonPath("$.data", nullValue()));
+        verify(paymentService, never()).makePayment(any(PaymentRequestDto.class), anyString());
+    }
+
+    @Test
+    void Should_ReturnUnprocessableEntity_When_IdempotencyKeyIsReusedForDifferentPayment() throws Exception {
+        PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("Duplicate idempotency key"));
+        when(idempotencyRecordRepository.findById(IDEMPOTENCY_KEY)).thenReturn(Optional.of(
+                new IdempotencyRecord(IDEMPOTENCY_KEY, "other-request-hash", new Timestamp(System.currentTimeMillis()))));
+        mockMvc.perform(MockMvcRequestBuilders.post(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(Constants.IDEMPOTENCY_KEY_HEADER, IDEMPOTENCY_KEY)
+                        .content(paymentRequestDto.toJson())
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.IDEMPOTENCY_KEY_REUSED.getMessage()));
+        verify(paymentService, never()).makePayment(any(PaymentRequestDto.class), anyString());
+    }
+
+    @Test
+    void Should_ReturnOk_When_PaymentBatchIsProcessed() throws Exception {
+        PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
+        var paidResult = new PaymentBatchItemResponseDto(0, STUDENT_ID, PAYMENT_MONTH);
+        paidResult.paid(PAYMENT_ID);
+        var failedResult = new PaymentBatchItemResponseDto(1, STUDENT_ID, PAYMENT_MONTH);
+        failedResult.failed(ErrorResponseStatus.ALREADY_PAID);
+        when(paymentBatchService.makePayments(anyList(), eq(ACCESS_TOKEN)))
+                .thenReturn(new PaymentBatchResponseDto(List.of(paidResult, failedResult)));
+        mockMvc.perform(MockMvcRequestBuilders.post(BATCH_PAYMENT_URL)
+                        .content("[" + paymentRequestDto.toJson() + "," + paymentRequestDto.toJson() + "]")
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(SuccessResponseStatus.PAYMENT_BATCH_PROCESSED.getMessage()))
+                .andExpect(jsonPath("$.data.paidCount").value(1))
+                .andExpect(jsonPath("$.data.failedCount").value(1))
+                .andExpect(jsonPath("$.data.results[0].paymentId").value(PAYMENT_ID))
+                .andExpect(jsonPath("$.data.results[1].message").value(ErrorResponseStatus.ALREADY_PAID.getMessage()));
+    }
+
     @Test
     void Should_ReturnOk_When_UpdatePaymentSuccessful() throws Exception {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
@@ -150,11 +290,11 @@ class PaymentControllerTest {
 
     @Test
     void Should_ReturnOk_When_GetAllPaymentDetails() throws Exception {
-        Page<Payment> paymentPage = getSamplePaymentPage();
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
         Map<String, StudentResponseDto> studentResponseDtoMap = getSampleStudentsMaps();
         Map<String, TuitionClassResponseDto> tuitionClassResponseDtoMap = getSampleTuitionClassMaps();
-        when(paymentService.getAllPayment()).thenReturn(paymentPage);
-        when(paymentService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(studentResponseDtoMap);
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenReturn(studentResponseDtoMap);
         when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(tuitionClassResponseDtoMap);
         mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
                         .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
@@ -166,13 +306,127 @@ class PaymentControllerTest {
                 .andExpect(jsonPath("$.data.payments[0].paymentId").value(PAYMENT_ID));
     }
 
+    @Test
+    void Should_ReturnETag_When_PaymentListIsModified() throws Exception {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        when(paymentService.getPaymentsVersion()).thenReturn(PAYMENTS_VERSION);
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenReturn(getSampleStudentsMaps());
+        when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(getSampleTuitionClassMaps());
+        when(paymentService.getPaymentsETag(any(), any(), any())).thenCallRealMethod();
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, PAYMENTS_ETAG)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"" + PAYMENTS_VERSION + "-")))
+                .andExpect(jsonPath("$.data.payments[0].paymentId").value(PAYMENT_ID));
+    }
+
+    @Test
+    void Should_ReturnNotModified_When_PaymentListIsNotModified() throws Exception {
+        when(paymentService.getPaymentsVersion()).thenReturn(PAYMENTS_VERSION);
+        when(paymentService.getPaymentsETag(PAYMENTS_VERSION)).thenReturn(PAYMENTS_ETAG);
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, PAYMENTS_ETAG)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, PAYMENTS_ETAG))
+                .andExpect(content().string(""));
+        verify(paymentService, never()).getAllPayment(any(), any());
+        verify(paymentService, never()).getTuitionClassDetails(any());
+    }
+
+    @Test
+    void Should_ReturnNotModified_When_PaymentListIsNotModifiedAndStudentsAreNotCached() throws Exception {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        when(paymentService.getPaymentsVersion()).thenReturn(PAYMENTS_VERSION);
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenReturn(getSampleStudentsMaps());
+        when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(getSampleTuitionClassMaps());
+        when(paymentService.getPaymentsETag(any(), any(), any())).thenCallRealMethod();
+        String eTag = mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, eTag))
+                .andExpect(content().string(""));
+        verify(paymentService, never()).getStudentsDetails(any(String.class));
+    }
+
+    @Test
+    void Should_ReturnNotModified_When_PaymentReportIsNotModified() throws Exception {
+        when(paymentService.getReportETag(MONTH, YEAR)).thenReturn(PAYMENTS_ETAG);
+        String url = GET_PAYMENTS_REPORT_URL.replace(REPLACE_MONTH, MONTH).replace(REPLACE_YEAR, String.valueOf(YEAR));
+        mockMvc.perform(MockMvcRequestBuilders.get(url)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .header(HttpHeaders.IF_NONE_MATCH, PAYMENTS_ETAG)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified());
+        verify(paymentService, never()).getUserReport(any(), anyInt(), any(), any());
+        verify(paymentService, never()).getStudentsDetails(any(String.class));
+    }
+
+    @Test
+    void Should_ReturnNextCursor_When_MorePaymentsAreAvailable() throws Exception {
+        Payment payment = getSamplePayment();
+        payment.setUpdatedAt(PAID_DATE);
+        Slice<Payment> paymentSlice = new SliceImpl<>(List.of(payment), PageRequest.of(0, 1), true);
+        String cursor = new PaymentCursor(PAID_DATE, PAYMENT_ID).encode();
+        when(paymentService.getAllPayment(null, 1)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenReturn(getSampleStudentsMaps());
+        when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(getSampleTuitionClassMaps());
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL).param("size", "1")
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.payments[0].paymentId").value(PAYMENT_ID))
+                .andExpect(jsonPath("$.data.next").value(cursor));
+    }
+
+    @Test
+    void Should_ReturnBadRequest_When_InvalidCursorIsProvided() throws Exception {
+        when(paymentService.getAllPayment("invalid", null)).thenThrow(new InvalidPageRequestException("Invalid page cursor : invalid"));
+        when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(getSampleTuitionClassMaps());
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL).param("cursor", "invalid")
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INVALID_PAGE_REQUEST.getMessage()));
+    }
+
+    @Test
+    void Should_ReturnBadRequest_When_StudentServiceIsNotAvailableForGetAllPaymentDetails() throws Exception {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        Map<String, TuitionClassResponseDto> tuitionClassResponseDtoMap = getSampleTuitionClassMaps();
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenThrow(new ConnectionException("ERROR"));
+        when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(tuitionClassResponseDtoMap);
+        mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INTER_CONNECTION_FAILED.getMessage()))
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
+        assertEquals(1, meterRegistry.get("payment.exceptions").tag("exception", "ConnectionException")
+                .counter().count());
+    }
+
     @Test
     void Should_ReturnOk_When_GetAllStudentPaymentDetails() throws Exception {
-        Page<Payment> paymentPage = getSamplePaymentPage();
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
         Map<String, StudentResponseDto> studentResponseDtoMap = getSampleStudentsMaps();
         Map<String, TuitionClassResponseDto> tuitionClassResponseDtoMap = getSampleTuitionClassMaps();
-        when(paymentService.getPaymentsByStudentId(STUDENT_ID)).thenReturn(paymentPage);
-        when(paymentService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(studentResponseDtoMap);
+        when(paymentService.getPaymentsByStudentId(STUDENT_ID, null, null)).thenReturn(paymentSlice);
+        when(paymentService.getStudentsDetails(paymentSlice, ACCESS_TOKEN)).thenReturn(studentResponseDtoMap);
         when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(tuitionClassResponseDtoMap);
         String url = GET_STUDENT_PAYMENTS_URL.replace(REPLACE_STUDENT_ID, STUDENT_ID);
         mockMvc.perform(MockMvcRequestBuilders.get(url)
@@ -201,10 +455,11 @@ class PaymentControllerTest {
 
     @Test
     void Should_ReturnOk_When_GetPaymentReportSuccessfully() throws Exception {
-        Page<Payment> paymentPage = getSamplePaymentPage();
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
         Map<String, StudentResponseDto> studentResponseDtoMap = getSampleStudentsMaps();
         Map<String, TuitionClassResponseDto> tuitionClassResponseDtoMap = getSampleTuitionClassMaps();
-        when(paymentService.getUserReport(MONTH, YEAR)).thenReturn(paymentPage);
+        when(paymentService.getUserReport(MONTH, YEAR, null, null)).thenReturn(paymentSlice);
+        when(paymentService.getPaidStudentIds(MONTH, YEAR)).thenReturn(Set.of(STUDENT_ID));
         when(paymentService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(studentResponseDtoMap);
         when(paymentService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(tuitionClassResponseDtoMap);
         String url = GET_PAYMENTS_REPORT_URL.replace(REPLACE_MONTH, MONTH).replace(REPLACE_YEAR, String.valueOf(YEAR));
@@ -218,6 +473,42 @@ class PaymentControllerTest {
                 .andExpect(jsonPath("$.data.paidUsers[0].paymentId").value(PAYMENT_ID));
     }
 
+    @Test
+    void Should_ReturnBadRequest_When_InvalidMonthIsProvidedForGetPaymentReport() throws Exception {
+        when(paymentService.getUserReport("Marc", YEAR, null, null)).thenThrow(new InvalidPaymentMonthException("Invalid payment month : Marc"));
+        String url = GET_PAYMENTS_REPORT_URL.replace(REPLACE_MONTH, "Marc").replace(REPLACE_YEAR, String.valueOf(YEAR));
+        mockMvc.perform(MockMvcRequestBuilders.get(url)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INVALID_PAYMENT_MONTH.getMessage()));
+    }
+
+    @Test
+    void Should_StreamPayments_When_ExportIsRequested() throws Exception {
+        StreamingResponseBody body = outputStream -> outputStream.write("{}\n".getBytes(StandardCharsets.UTF_8));
+        when(paymentExportService.export(ExportFormat.CSV, null, STUDENT_ID, ACCESS_TOKEN)).thenReturn(body);
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(EXPORT_URL)
+                        .param("format", "csv").param("studentId", STUDENT_ID)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments.csv\""))
+                .andExpect(content().string("{}\n"));
+    }
+
+    @Test
+    void Should_ReturnBadRequest_When_UnsupportedExportFormatIsProvided() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get(EXPORT_URL).param("format", "xml")
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INVALID_EXPORT_FORMAT.getMessage()));
+        verifyNoInteractions(paymentExportService);
+    }
+
     /**
      * This method return sample payment
      *
@@ -284,11 +575,11 @@ class PaymentControllerTest {
      *
      * @return PaymentPage
      */
-    private Page<Payment> getSamplePaymentPage() {
+    private Slice<Payment> getSamplePaymentSlice() {
         List<Payment> payments = new ArrayList<>();
         Payment payment = getSamplePayment();
         payments.add(payment);
-        return new PageImpl<>(payments);
+        return new SliceImpl<>(payments);
     }
 
     /**
@@ -0,0 +1,182 @@
+package com.cms.payment.controller;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.exception.GlobalExceptionHandler;
+import com.cms.payment.exception.InvalidPaymentMonthException;
+import com.cms.payment.service.PaymentService;
+import com.cms.payment.service.ReactiveDirectoryService;
+import com.cms.payment.utills.Constants;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ReactivePaymentControllerTest {
+
+    private static final String PAYMENT_BASE_URL = "/reactive/api/v1/payment";
+    private static final String GET_PAYMENTS_REPORT_URL = "/reactive/api/v1/payment/student/report/March/2023";
+    private static final String PAYMENT_ID = "pid-1248=2598-7569-7458";
+    private static final String PAYMENT_MONTH = "March 2023";
+    private static final String MONTH = "March";
+    private static final int YEAR = 2023;
+    private static final Date PAID_DATE = Date.valueOf("2023-03-15");
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final String ACCESS_TOKEN = "ey1365651-14156-51";
+    private static final String TUITION_CLASS_ID = "tid-1254-9654-7854-8955";
+
+    @Mock
+    private PaymentService paymentService;
+    @Mock
+    private ReactiveDirectoryService reactiveDirectoryService;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        ReactivePaymentController reactivePaymentController = new ReactivePaymentController(paymentService,
+                reactiveDirectoryService, Schedulers.immediate(), Duration.ofSeconds(5));
+        mockMvc = MockMvcBuilders.standaloneSetup(reactivePaymentController)
+                .setControllerAdvice(new GlobalExceptionHandler(new SimpleMeterRegistry())).build();
+    }
+
+    @Test
+    void Should_ReturnOk_When_GetAllPaymentDetails() throws Exception {
+        Slice<Payment> paymentSlice = new SliceImpl<>(List.of(getSamplePayment()));
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(reactiveDirectoryService.getStudentsDetails(Set.of(STUDENT_ID), ACCESS_TOKEN))
+                .thenReturn(Mono.just(getSampleStudentsMaps()));
+        when(reactiveDirectoryService.getTuitionClassDetails(ACCESS_TOKEN))
+                .thenReturn(Mono.just(getSampleTuitionClassMaps()));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(SuccessResponseStatus.READ_LIST_PAYMENT.getMessage()))
+                .andExpect(jsonPath("$.data.payments[0].paymentId").value(PAYMENT_ID))
+                .andExpect(jsonPath("$.data.payments[0].studentDetails.studentId").value(STUDENT_ID));
+    }
+
+    @Test
+    void Should_ReturnBadRequest_When_StudentServiceIsNotAvailableForGetAllPaymentDetails() throws Exception {
+        Slice<Payment> paymentSlice = new SliceImpl<>(List.of(getSamplePayment()));
+        when(paymentService.getAllPayment(null, null)).thenReturn(paymentSlice);
+        when(reactiveDirectoryService.getStudentsDetails(Set.of(STUDENT_ID), ACCESS_TOKEN))
+                .thenReturn(Mono.error(new ConnectionException("ERROR")));
+        when(reactiveDirectoryService.getTuitionClassDetails(ACCESS_TOKEN))
+                .thenReturn(Mono.just(getSampleTuitionClassMaps()));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(PAYMENT_BASE_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INTER_CONNECTION_FAILED.getMessage()))
+                .andExpect(jsonPath("$.statusCode").value(HttpStatus.BAD_REQUEST.value()));
+    }
+
+    @Test
+    void Should_ReturnOk_When_GetPaymentReportSuccessfully() throws Exception {
+        Slice<Payment> paymentSlice = new SliceImpl<>(List.of(getSamplePayment()));
+        when(paymentService.getUserReport(MONTH, YEAR, null, null)).thenReturn(paymentSlice);
+        when(paymentService.getPaidStudentIds(MONTH, YEAR)).thenReturn(Set.of(STUDENT_ID));
+        when(reactiveDirectoryService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(Mono.just(getSampleStudentsMaps()));
+        when(reactiveDirectoryService.getTuitionClassDetails(ACCESS_TOKEN))
+                .thenReturn(Mono.just(getSampleTuitionClassMaps()));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(GET_PAYMENTS_REPORT_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(SuccessResponseStatus.READ_STUDENT_PAYMENT_REPORT.getMessage()))
+                .andExpect(jsonPath("$.data.paidUsers[0].paymentId").value(PAYMENT_ID));
+    }
+
+    @Test
+    void Should_ReturnBadRequest_When_InvalidMonthIsProvidedForGetPaymentReport() throws Exception {
+        when(paymentService.getUserReport(MONTH, YEAR, null, null))
+                .thenThrow(new InvalidPaymentMonthException("Invalid payment month : March"));
+        when(reactiveDirectoryService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(Mono.just(getSampleStudentsMaps()));
+        when(reactiveDirectoryService.getTuitionClassDetails(ACCESS_TOKEN))
+                .thenReturn(Mono.just(getSampleTuitionClassMaps()));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get(GET_PAYMENTS_REPORT_URL)
+                        .header(Constants.TOKEN_HEADER, ACCESS_TOKEN)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(ErrorResponseStatus.INVALID_PAYMENT_MONTH.getMessage()));
+    }
+
+    /**
+     * This method return sample payment
+     *
+     * @return Payment
+     */
+    private Payment getSamplePayment() {
+        Payment payment = new Payment();
+        payment.setPaymentId(PAYMENT_ID);
+        payment.setPaymentMonth(PAYMENT_MONTH);
+        payment.setPaidDate(PAID_DATE);
+        payment.setStudentId(STUDENT_ID);
+        payment.setDeleted(false);
+        return payment;
+    }
+
+    /**
+     * This method creates sample student details map
+     *
+     * @return StudentMap
+     */
+    private Map<String, StudentResponseDto> getSampleStudentsMaps() {
+        StudentResponseDto studentResponseDto = new StudentResponseDto();
+        studentResponseDto.setStudentId(STUDENT_ID);
+        studentResponseDto.setFirstName("Danushan");
+        studentResponseDto.setTuitionClassId(TUITION_CLASS_ID);
+        return Map.of(STUDENT_ID, studentResponseDto);
+    }
+
+    /**
+     * This method creates sample tuition class details map
+     *
+     * @return TuitionMap
+     */
+    private Map<String, TuitionClassResponseDto> getSampleTuitionClassMaps() {
+        TuitionClassResponseDto tuitionClassResponseDto = new TuitionClassResponseDto();
+        tuitionClassResponseDto.setTuitionClassId(TUITION_CLASS_ID);
+        tuitionClassResponseDto.setLocationName("Elegance");
+        return Map.of(TUITION_CLASS_ID, tuitionClassResponseDto);
+    }
+}
@@ -0,0 +1,99 @@
+package com.cms.payment.outbox;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.entity.PaymentEvent;
+import com.cms.payment.enums.PaymentEventType;
+import com.cms.payment.repository.PaymentEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentOutboxRelayTest {
+
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final int BATCH_SIZE = 2;
+
+    @Mock
+    private PaymentEventRepository paymentEventRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+    }
+
+    @Test
+    void Should_PublishEventsInOrder_When_OutboxHasPendingEvents() {
+        var inMemoryPaymentEventSink = new InMemoryPaymentEventSink(10);
+        when(paymentEventRepository.findUnpublished(any(Pageable.class)))
+                .thenReturn(List.of(getSampleEvent(1L, PaymentEventType.PAYMENT_MADE),
+                        getSampleEvent(2L, PaymentEventType.PAYMENT_UPDATED)))
+                .thenReturn(List.of(getSampleEvent(3L, PaymentEventType.PAYMENT_DELETED)));
+        getRelay(inMemoryPaymentEventSink).relay();
+        assertEquals(List.of(1L, 2L, 3L), inMemoryPaymentEventSink.getEvents().stream()
+                .map(PaymentEvent::getEventId).collect(Collectors.toList()));
+        verify(paymentEventRepository, times(1)).markPublished(eq(List.of(1L, 2L)), any(Timestamp.class));
+        verify(paymentEventRepository, times(1)).markPublished(eq(List.of(3L)), any(Timestamp.class));
+        assertEquals(3, meterRegistry.get("payment.outbox.published").counter().count());
+    }
+
+    @Test
+    void Should_KeepEventsUnpublished_When_SinkFails() {
+        PaymentEventSink paymentEventSink = mock(PaymentEventSink.class);
+        doThrow(new IllegalStateException("Sink is unavailable")).when(paymentEventSink).publish(anyList());
+        when(paymentEventRepository.findUnpublished(any(Pageable.class)))
+                .thenReturn(List.of(getSampleEvent(1L, PaymentEventType.PAYMENT_MADE)));
+        getRelay(paymentEventSink).relay();
+        verify(paymentEventRepository, never()).markPublished(anyList(), any(Timestamp.class));
+        verify(transactionManager, times(1)).rollback(any());
+        assertEquals(1, meterRegistry.get("payment.outbox.failed.batches").counter().count());
+    }
+
+    /**
+     * This method creates a relay publishing to the given sink
+     *
+     * @param paymentEventSink payment event sink
+     * @return PaymentOutboxRelay
+     */
+    private PaymentOutboxRelay getRelay(PaymentEventSink paymentEventSink) {
+        return new PaymentOutboxRelay(paymentEventRepository, paymentEventSink,
+                new TransactionTemplate(transactionManager), BATCH_SIZE, Duration.ofDays(7), meterRegistry,
+                Clock.systemUTC());
+    }
+
+    /**
+     * This method creates a sample payment event
+     *
+     * @param eventId   event id
+     * @param eventType event type
+     * @return PaymentEvent
+     */
+    private PaymentEvent getSampleEvent(long eventId, PaymentEventType eventType) {
+        Payment payment = new Payment();
+        payment.setPaymentId("pid-" + eventId);
+        payment.setStudentId(STUDENT_ID);
+        payment.setPaymentMonth("March 2023");
+        payment.setPaymentPeriod(202303);
+        PaymentEvent paymentEvent = new PaymentEvent(eventType, payment);
+        paymentEvent.setEventId(eventId);
+        return paymentEvent;
+    }
+}
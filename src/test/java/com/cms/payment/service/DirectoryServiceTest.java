@@ -0,0 +1,122 @@
+package com.cms.payment.service;
+
+import com.cms.payment.exception.ConnectionException;
+import com.cms.payment.support.StubStudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirectoryServiceTest {
+
+    private static final String GET_ALL_STUDENT_URL = "student/api/v1/student";
+    private static final String GET_STUDENTS_BY_IDS_URL = "student/api/v1/student?ids=##STUDENT-IDS##";
+    private static final String GET_ALL_LOCATION_URL = "tuition/api/v1/tuition/";
+    private static final String ACCESS_TOKEN = "ey1365651-14156-51";
+    private static final int ROSTER_SIZE = 5000;
+    private static final int MAX_IDS_PER_LOOKUP = 100;
+
+    private StubStudentService studentService;
+    private DirectoryService directoryService;
+
+    @BeforeEach
+    void setUp() {
+        studentService = StubStudentService.start(ROSTER_SIZE, 10);
+        directoryService = new DirectoryService(new RestTemplate(), RemoteServiceGuard.ofDefaults("student"),
+                RemoteServiceGuard.ofDefaults("tuition"), studentService.getBaseUrl(),
+                studentService.getBaseUrl(), GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL,
+                MAX_IDS_PER_LOOKUP, Duration.ofMinutes(5), Duration.ofMinutes(1), ROSTER_SIZE, "");
+    }
+
+    @AfterEach
+    void tearDown() {
+        directoryService.shutdown();
+        studentService.close();
+    }
+
+    @Test
+    void Should_RequestOnlyPageStudents_When_StudentIdsAreProvided() {
+        List<String> studentIds = List.of("sid-1", "sid-42", "sid-4999");
+        var result = directoryService.getStudentsDetails(studentIds, ACCESS_TOKEN);
+        assertEquals(3, result.size());
+        assertEquals("First42", result.get("sid-42").getFirstName());
+        assertEquals(1, studentService.getRequestedUris().size());
+        assertTrue(studentService.getRequestedUris().get(0).contains("ids="));
+    }
+
+    @Test
+    void Should_LeaveOutUnknownStudents_When_StudentIdsAreNotInRoster() {
+        var result = directoryService.getStudentsDetails(List.of("sid-1", "sid-unknown"), ACCESS_TOKEN);
+        assertEquals(1, result.size());
+        assertNull(result.get("sid-unknown"));
+    }
+
+    @Test
+    void Should_SplitLookupIntoBoundedBatches_When_ManyStudentIdsAreProvided() {
+        List<String> studentIds = IntStream.range(0, 250).mapToObj(index -> "sid-" + index)
+                .collect(Collectors.toList());
+        var result = directoryService.getStudentsDetails(studentIds, ACCESS_TOKEN);
+        assertEquals(250, result.size());
+        assertEquals(3, studentService.getRequestedUris().size());
+    }
+
+    @Test
+    void Should_UseStudentDirectory_When_IdsLookupIsNotSupported() {
+        studentService.withoutIdsLookup();
+        var result = directoryService.getStudentsDetails(List.of("sid-7", "sid-8"), ACCESS_TOKEN);
+        assertEquals(2, result.size());
+        assertEquals(2, studentService.getRequestedUris().size());
+    }
+
+    @Test
+    void Should_NotCallStudentService_When_CachedDirectoryHasAllStudents() {
+        directoryService.getStudentsDetails(ACCESS_TOKEN);
+        studentService.clearRequestedUris();
+        var result = directoryService.getStudentsDetails(List.of("sid-3", "sid-4"), ACCESS_TOKEN);
+        assertEquals(2, result.size());
+        assertTrue(studentService.getRequestedUris().isEmpty());
+    }
+
+    @Test
+    void Should_ServeLastLoadedDirectory_When_StudentServiceIsUnavailable() {
+        directoryService.shutdown();
+        directoryService = new DirectoryService(new RestTemplate(), RemoteServiceGuard.ofDefaults("student"),
+                RemoteServiceGuard.ofDefaults("tuition"), studentService.getBaseUrl(), studentService.getBaseUrl(),
+                GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL, MAX_IDS_PER_LOOKUP,
+                Duration.ZERO, Duration.ZERO, ROSTER_SIZE, "");
+        directoryService.getStudentsDetails(ACCESS_TOKEN);
+        studentService.withErrorRate(1);
+        studentService.clearRequestedUris();
+        var result = directoryService.getStudentsDetails(ACCESS_TOKEN);
+        assertEquals(ROSTER_SIZE, result.size());
+        assertEquals(3, studentService.getRequestedUris().size());
+    }
+
+    @Test
+    void Should_NotRefreshAhead_When_ServiceTokenIsNotConfigured() throws InterruptedException {
+        directoryService.shutdown();
+        directoryService = new DirectoryService(new RestTemplate(), RemoteServiceGuard.ofDefaults("student"),
+                RemoteServiceGuard.ofDefaults("tuition"), studentService.getBaseUrl(), studentService.getBaseUrl(),
+                GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL, MAX_IDS_PER_LOOKUP,
+                Duration.ofMinutes(5), Duration.ZERO, ROSTER_SIZE, "");
+        directoryService.getStudentsDetails(ACCESS_TOKEN);
+        studentService.clearRequestedUris();
+        var result = directoryService.getStudentsDetails(ACCESS_TOKEN);
+        Thread.sleep(200);
+        assertEquals(ROSTER_SIZE, result.size());
+        assertTrue(studentService.getRequestedUris().isEmpty());
+    }
+
+    @Test
+    void Should_ThrowConnectionException_When_StudentServiceIsUnavailableWithoutLoadedDirectory() {
+        studentService.withErrorRate(1);
+        assertThrows(ConnectionException.class, () -> directoryService.getStudentsDetails(ACCESS_TOKEN));
+    }
+}
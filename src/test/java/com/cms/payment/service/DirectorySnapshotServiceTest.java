@@ -0,0 +1,157 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.entity.StudentSnapshot;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.repository.StudentSnapshotRepository;
+import com.cms.payment.repository.TuitionClassSnapshotRepository;
+import com.cms.payment.support.StubStudentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class DirectorySnapshotServiceTest {
+
+    private static final String GET_ALL_STUDENT_URL = "student/api/v1/student";
+    private static final String GET_STUDENTS_BY_IDS_URL = "student/api/v1/student?ids=##STUDENT-IDS##";
+    private static final String GET_STUDENTS_UPDATED_SINCE_URL = "student/api/v1/student?updatedSince=##UPDATED-SINCE##";
+    private static final String GET_ALL_LOCATION_URL = "tuition/api/v1/tuition/";
+    private static final String GET_LOCATIONS_UPDATED_SINCE_URL = "tuition/api/v1/tuition/?updatedSince=##UPDATED-SINCE##";
+    private static final String SYNC_LAG_GAUGE = "payment.directory.sync.lag";
+    private static final String SERVICE_TOKEN = "service-token";
+    private static final String STUDENT_ID = "sid-3";
+    private static final int ROSTER_SIZE = 10;
+    private static final int TUITION_CLASS_COUNT = 2;
+
+    @Mock
+    private StudentSnapshotRepository studentSnapshotRepository;
+    @Mock
+    private TuitionClassSnapshotRepository tuitionClassSnapshotRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private Clock clock;
+    @Captor
+    private ArgumentCaptor<List<StudentSnapshot>> snapshotCaptor;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private StubStudentService studentService;
+    private DirectoryService directoryService;
+    private DirectorySnapshotService directorySnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        studentService = StubStudentService.start(ROSTER_SIZE, TUITION_CLASS_COUNT);
+        directoryService = new DirectoryService(new RestTemplate(), RemoteServiceGuard.ofDefaults("student"),
+                RemoteServiceGuard.ofDefaults("tuition"), studentService.getBaseUrl(), studentService.getBaseUrl(),
+                GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL, 100, Duration.ofMinutes(5),
+                Duration.ofMinutes(1), 1000, "");
+        directorySnapshotService = new DirectorySnapshotService(directoryService, studentSnapshotRepository,
+                tuitionClassSnapshotRepository, new TransactionTemplate(transactionManager), new RestTemplate(),
+                RemoteServiceGuard.ofDefaults("student"), RemoteServiceGuard.ofDefaults("tuition"),
+                studentService.getBaseUrl() + GET_ALL_STUDENT_URL,
+                studentService.getBaseUrl() + GET_STUDENTS_UPDATED_SINCE_URL,
+                studentService.getBaseUrl() + GET_ALL_LOCATION_URL,
+                studentService.getBaseUrl() + GET_LOCATIONS_UPDATED_SINCE_URL, SERVICE_TOKEN, 500, meterRegistry,
+                clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        directoryService.shutdown();
+        studentService.close();
+    }
+
+    @Test
+    void Should_LoadWholeDirectory_When_SnapshotIsEmpty() {
+        directorySnapshotService.synchronize();
+        verify(studentSnapshotRepository, times(1)).saveAll(argThat(snapshots -> size(snapshots) == ROSTER_SIZE));
+        verify(tuitionClassSnapshotRepository, times(1))
+                .saveAll(argThat(snapshots -> size(snapshots) == TUITION_CLASS_COUNT));
+        assertTrue(studentService.getRequestedUris().contains(StubStudentService.STUDENT_PATH));
+        assertEquals(ROSTER_SIZE, directoryService.peekStudentsDetails().size());
+        assertEquals(TUITION_CLASS_COUNT, directoryService.peekTuitionClassDetails().size());
+        assertEquals(0, getLag("student"));
+    }
+
+    @Test
+    void Should_SaveOnlyChangedStudents_When_ChangesArePulledSinceWatermark() {
+        directorySnapshotService.synchronize();
+        reset(studentSnapshotRepository);
+        when(studentSnapshotRepository.findWatermark()).thenReturn(StubStudentService.UPDATED_AT);
+        studentService.renameStudent(STUDENT_ID, "Renamed", Date.valueOf("2023-03-02"));
+        studentService.clearRequestedUris();
+        when(clock.millis()).thenReturn(30000L);
+        directorySnapshotService.synchronize();
+        verify(studentSnapshotRepository, times(1)).saveAll(snapshotCaptor.capture());
+        assertEquals(List.of(STUDENT_ID), snapshotCaptor.getValue().stream().map(StudentSnapshot::getStudentId)
+                .collect(Collectors.toList()));
+        assertTrue(studentService.getRequestedUris()
+                .contains(StubStudentService.STUDENT_PATH + "?updatedSince=" + StubStudentService.UPDATED_AT));
+        assertEquals("Renamed", directoryService.peekStudentsDetails().get(STUDENT_ID).getFirstName());
+        assertEquals(ROSTER_SIZE, directoryService.peekStudentsDetails().size());
+    }
+
+    @Test
+    void Should_LeaveStudentOutOfCache_When_StudentIsDeleted() {
+        directorySnapshotService.synchronize();
+        reset(studentSnapshotRepository);
+        when(studentSnapshotRepository.findWatermark()).thenReturn(StubStudentService.UPDATED_AT);
+        studentService.deleteStudent(STUDENT_ID, Date.valueOf("2023-03-02"));
+        directorySnapshotService.synchronize();
+        verify(studentSnapshotRepository, times(1)).saveAll(snapshotCaptor.capture());
+        assertTrue(snapshotCaptor.getValue().get(0).toResponseDto().isDeleted());
+        assertFalse(directoryService.peekStudentsDetails().containsKey(STUDENT_ID));
+        assertEquals(ROSTER_SIZE - 1, directoryService.peekStudentsDetails().size());
+    }
+
+    @Test
+    void Should_ServeLocalSnapshot_When_StudentServiceIsUnavailable() {
+        var student = new StudentResponseDto();
+        student.setStudentId(STUDENT_ID);
+        student.setFirstName("Danushan");
+        when(studentSnapshotRepository.findAll()).thenReturn(List.of(new StudentSnapshot(student)));
+        studentService.withErrorRate(1);
+        directorySnapshotService.synchronize();
+        verify(studentSnapshotRepository, never()).saveAll(anyList());
+        assertEquals("Danushan", directoryService.peekStudentsDetails().get(STUDENT_ID).getFirstName());
+        assertTrue(Double.isNaN(getLag("student")));
+    }
+
+    /**
+     * This method reads the sync lag gauge of a directory
+     *
+     * @param directory directory name
+     * @return lag in milliseconds
+     */
+    private double getLag(String directory) {
+        return meterRegistry.get(SYNC_LAG_GAUGE).tag("directory", directory).timeGauge().value(TimeUnit.MILLISECONDS);
+    }
+
+    private static int size(Iterable<?> iterable) {
+        int size = 0;
+        for (Object ignored : iterable) {
+            size++;
+        }
+        return size;
+    }
+}
@@ -0,0 +1,175 @@
+package com.cms.payment.service;
+
+import com.cms.payment.cache.IdempotencyCache;
+import com.cms.payment.domain.entity.IdempotencyRecord;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import com.cms.payment.domain.response.PaymentResponseDto;
+import com.cms.payment.exception.PaymentAlreadyExistsException;
+import com.cms.payment.repository.IdempotencyRecordRepository;
+import com.cms.payment.wrapper.ResponseWrapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class IdempotencyServiceTest {
+
+    private static final String IDEMPOTENCY_KEY = "8e4f1c2a-6b7d-4e5f-9a0b-1c2d3e4f5a6b";
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final Duration IN_FLIGHT_TIMEOUT = Duration.ofMinutes(1);
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long TAKEN_OVER_AT = NOW + 2 * IN_FLIGHT_TIMEOUT.toMillis();
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private Clock clock;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private IdempotencyService idempotencyService;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(NOW);
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+                new TransactionTemplate(transactionManager), Jackson2ObjectMapperBuilder.json().build(),
+                new IdempotencyCache(100, Duration.ofDays(1), clock), Duration.ofDays(1), IN_FLIGHT_TIMEOUT,
+                meterRegistry, clock);
+    }
+
+    @Test
+    void Should_ReleaseIdempotencyKey_When_RequestFails() {
+        var paymentRequestDto = getSamplePaymentRequestDto();
+        assertThrows(PaymentAlreadyExistsException.class, () -> idempotencyService.execute(IDEMPOTENCY_KEY,
+                paymentRequestDto, PaymentResponseDto.class, () -> {
+                    throw new PaymentAlreadyExistsException("The payment is already made");
+                }));
+        verify(idempotencyRecordRepository, times(1)).release(IDEMPOTENCY_KEY, new Timestamp(NOW));
+        verify(idempotencyRecordRepository, never()).complete(any(), any(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    void Should_TakeOverIdempotencyKey_When_ClaimIsNotCompletedWithinInFlightTimeout() {
+        var paymentRequestDto = getSamplePaymentRequestDto();
+        AtomicReference<IdempotencyRecord> claimedRecord = new AtomicReference<>();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            claimedRecord.set(invocation.getArgument(0));
+            throw new DataIntegrityViolationException("Duplicate idempotency key");
+        });
+        when(idempotencyRecordRepository.findById(IDEMPOTENCY_KEY))
+                .thenAnswer(invocation -> Optional.of(claimedRecord.get()));
+        var claimedBefore = new Timestamp(NOW - IN_FLIGHT_TIMEOUT.toMillis());
+        when(idempotencyRecordRepository.takeOver(IDEMPOTENCY_KEY, new Timestamp(NOW), claimedBefore)).thenReturn(1);
+        var response = idempotencyService.execute(IDEMPOTENCY_KEY, paymentRequestDto, PaymentResponseDto.class,
+                () -> new ResponseEntity<>(new ResponseWrapper("Paid", HttpStatus.CREATED.value(), null),
+                        HttpStatus.CREATED));
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRecordRepository, times(1)).complete(eq(IDEMPOTENCY_KEY), eq(new Timestamp(NOW)),
+                eq(HttpStatus.CREATED.value()), eq("Paid"), isNull(), any(Timestamp.class));
+        assertEquals(1, meterRegistry.get("payment.idempotency.requests").tag("result", "taken_over").counter()
+                .count());
+    }
+
+    @Test
+    void Should_KeepResponseOfNewOwner_When_StaleOwnerCompletesAfterTakeOver() {
+        var paymentRequestDto = getSamplePaymentRequestDto();
+        mockTakeOver();
+        var response = idempotencyService.execute(IDEMPOTENCY_KEY, paymentRequestDto, PaymentResponseDto.class,
+                () -> {
+                    takeOver(paymentRequestDto);
+                    return new ResponseEntity<>(new ResponseWrapper("Stale", HttpStatus.CREATED.value(), null),
+                            HttpStatus.CREATED);
+                });
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRecordRepository, times(1)).complete(eq(IDEMPOTENCY_KEY), eq(new Timestamp(NOW)),
+                eq(HttpStatus.CREATED.value()), eq("Stale"), isNull(), any(Timestamp.class));
+        assertEquals(1, meterRegistry.get("payment.idempotency.requests").tag("result", "lost").counter().count());
+        var replayed = idempotencyService.execute(IDEMPOTENCY_KEY, paymentRequestDto, PaymentResponseDto.class,
+                () -> {
+                    throw new IllegalStateException("The request is processed again");
+                });
+        assertEquals("Paid", Objects.requireNonNull(replayed.getBody()).getMessage());
+    }
+
+    @Test
+    void Should_KeepClaimOfNewOwner_When_StaleOwnerFailsAfterTakeOver() {
+        var paymentRequestDto = getSamplePaymentRequestDto();
+        mockTakeOver();
+        assertThrows(PaymentAlreadyExistsException.class, () -> idempotencyService.execute(IDEMPOTENCY_KEY,
+                paymentRequestDto, PaymentResponseDto.class, () -> {
+                    takeOver(paymentRequestDto);
+                    throw new PaymentAlreadyExistsException("The payment is already made");
+                }));
+        verify(idempotencyRecordRepository, times(1)).release(IDEMPOTENCY_KEY, new Timestamp(NOW));
+        verify(idempotencyRecordRepository, never()).release(IDEMPOTENCY_KEY, new Timestamp(TAKEN_OVER_AT));
+        verify(idempotencyRecordRepository, times(1)).complete(eq(IDEMPOTENCY_KEY), eq(new Timestamp(TAKEN_OVER_AT)),
+                eq(HttpStatus.CREATED.value()), eq("Paid"), isNull(), any(Timestamp.class));
+    }
+
+    /**
+     * This method mocks the repository so the key claimed at NOW is taken over at TAKEN_OVER_AT, and only the claim
+     * of the new owner is completed
+     */
+    private void mockTakeOver() {
+        AtomicReference<IdempotencyRecord> claimedRecord = new AtomicReference<>();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            claimedRecord.set(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        }).thenThrow(new DataIntegrityViolationException("Duplicate idempotency key"));
+        when(idempotencyRecordRepository.findById(IDEMPOTENCY_KEY))
+                .thenAnswer(invocation -> Optional.of(claimedRecord.get()));
+        when(idempotencyRecordRepository.takeOver(IDEMPOTENCY_KEY, new Timestamp(TAKEN_OVER_AT),
+                new Timestamp(TAKEN_OVER_AT - IN_FLIGHT_TIMEOUT.toMillis()))).thenReturn(1);
+        when(idempotencyRecordRepository.complete(eq(IDEMPOTENCY_KEY), eq(new Timestamp(TAKEN_OVER_AT)), anyInt(),
+                any(), any(), any(Timestamp.class))).thenReturn(1);
+    }
+
+    /**
+     * This method retries the request after the in flight timeout, which takes over the key and pays
+     *
+     * @param paymentRequestDto payment request dto
+     */
+    private void takeOver(PaymentRequestDto paymentRequestDto) {
+        when(clock.millis()).thenReturn(TAKEN_OVER_AT);
+        var response = idempotencyService.execute(IDEMPOTENCY_KEY, paymentRequestDto, PaymentResponseDto.class,
+                () -> new ResponseEntity<>(new ResponseWrapper("Paid", HttpStatus.CREATED.value(), null),
+                        HttpStatus.CREATED));
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+    }
+
+    /**
+     * This method return sample payment request dto
+     *
+     * @return PaymentRequestDto
+     */
+    private PaymentRequestDto getSamplePaymentRequestDto() {
+        var paymentMonthDto = new PaymentMonthDto();
+        paymentMonthDto.setMonth("March");
+        paymentMonthDto.setYear(2023);
+        var paymentRequestDto = new PaymentRequestDto();
+        paymentRequestDto.setStudentId(STUDENT_ID);
+        paymentRequestDto.setPaymentMonth(paymentMonthDto);
+        return paymentRequestDto;
+    }
+}
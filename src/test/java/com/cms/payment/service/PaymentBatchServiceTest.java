@@ -0,0 +1,158 @@
+package com.cms.payment.service;
+
+import com.cms.payment.cache.PaidStudentIndex;
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.request.PaymentRequestDto;
+import com.cms.payment.domain.response.PaymentBatchItemResponseDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.SuccessResponseStatus;
+import com.cms.payment.exception.InvalidPaymentBatchException;
+import com.cms.payment.outbox.PaymentOutbox;
+import com.cms.payment.repository.PaymentRepository;
+import com.cms.payment.repository.PaymentVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentBatchServiceTest {
+
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final String OTHER_STUDENT_ID = "sid-3658-9654-1254";
+    private static final String UNKNOWN_STUDENT_ID = "sid-0000-0000-0000";
+    private static final String ACCESS_TOKEN = "ey1365651-14156-51";
+    private static final int MAX_BATCH_SIZE = 10;
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private PaymentVersionRepository paymentVersionRepository;
+    @Mock
+    private DirectoryService directoryService;
+    @Mock
+    private PaymentOutbox paymentOutbox;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private PaymentBatchService paymentBatchService;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        paymentBatchService = new PaymentBatchService(paymentRepository, paymentVersionRepository, directoryService,
+                new PaidStudentIndex(paymentRepository, Duration.ofMinutes(5), 12, Clock.systemUTC()), paymentOutbox,
+                transactionManager, MAX_BATCH_SIZE, CHUNK_SIZE);
+        when(directoryService.getStudentsDetails(anyCollection(), eq(ACCESS_TOKEN)))
+                .thenReturn(getSampleStudentsMaps(STUDENT_ID, OTHER_STUDENT_ID));
+        when(paymentRepository.saveAllAndFlush(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void Should_InsertPaymentsInChunks_When_AllPaymentsAreValid() {
+        var batch = List.of(getSamplePaymentRequestDto(STUDENT_ID, "March"),
+                getSamplePaymentRequestDto(STUDENT_ID, "April"), getSamplePaymentRequestDto(OTHER_STUDENT_ID, "March"));
+        var response = paymentBatchService.makePayments(batch, ACCESS_TOKEN);
+        assertEquals(3, response.getPaidCount());
+        assertEquals(0, response.getFailedCount());
+        for (PaymentBatchItemResponseDto result : response.getResults()) {
+            assertEquals(201, result.getStatusCode());
+            assertEquals(SuccessResponseStatus.PAID_SUCCESSFUL.getMessage(), result.getMessage());
+            assertNotNull(result.getPaymentId());
+        }
+        verify(paymentRepository, times(2)).saveAllAndFlush(anyList());
+        verify(paymentVersionRepository, times(2)).advance();
+        verify(directoryService, times(1)).getStudentsDetails(anyCollection(), eq(ACCESS_TOKEN));
+        verify(paymentRepository, times(1)).findByStudentIdsAndPaymentPeriods(anyCollection(), anyCollection());
+    }
+
+    @Test
+    void Should_ReportEveryFailure_When_BatchHasInvalidPayments() {
+        var paidPayment = new Payment(getSamplePaymentRequestDto(OTHER_STUDENT_ID, "March"));
+        when(paymentRepository.findByStudentIdsAndPaymentPeriods(anyCollection(), anyCollection()))
+                .thenReturn(List.of(paidPayment));
+        var missingStudent = getSamplePaymentRequestDto(null, "March");
+        var batch = Arrays.asList(getSamplePaymentRequestDto(STUDENT_ID, "March"), missingStudent,
+                getSamplePaymentRequestDto(STUDENT_ID, "Marc"), getSamplePaymentRequestDto(STUDENT_ID, "march"),
+                getSamplePaymentRequestDto(UNKNOWN_STUDENT_ID, "March"),
+                getSamplePaymentRequestDto(OTHER_STUDENT_ID, "March"), null);
+        var results = paymentBatchService.makePayments(batch, ACCESS_TOKEN).getResults();
+        assertEquals(201, results.get(0).getStatusCode());
+        assertEquals(ErrorResponseStatus.MISSING_REQUIRED_FIELDS.getMessage(), results.get(1).getMessage());
+        assertEquals(ErrorResponseStatus.INVALID_PAYMENT_MONTH.getMessage(), results.get(2).getMessage());
+        assertEquals(ErrorResponseStatus.ALREADY_PAID.getMessage(), results.get(3).getMessage());
+        assertEquals(ErrorResponseStatus.INVALID_STUDENT.getMessage(), results.get(4).getMessage());
+        assertEquals(ErrorResponseStatus.ALREADY_PAID.getMessage(), results.get(5).getMessage());
+        assertEquals(ErrorResponseStatus.MISSING_REQUIRED_FIELDS.getMessage(), results.get(6).getMessage());
+        assertEquals(400, results.get(6).getStatusCode());
+    }
+
+    @Test
+    void Should_SavePaymentsOneByOne_When_ChunkIsRejected() {
+        when(paymentRepository.saveAllAndFlush(anyList())).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry for key 'payment.uk_payment_student_period_active'"));
+        when(paymentRepository.saveAndFlush(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException(
+                        "Duplicate entry for key 'payment.uk_payment_student_period_active'"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        var batch = List.of(getSamplePaymentRequestDto(STUDENT_ID, "March"),
+                getSamplePaymentRequestDto(OTHER_STUDENT_ID, "March"));
+        var response = paymentBatchService.makePayments(batch, ACCESS_TOKEN);
+        assertEquals(ErrorResponseStatus.ALREADY_PAID.getMessage(), response.getResults().get(0).getMessage());
+        assertEquals(201, response.getResults().get(1).getStatusCode());
+        assertEquals(1, response.getPaidCount());
+    }
+
+    @Test
+    void Should_ThrowInvalidPaymentBatchException_When_BatchIsTooLarge() {
+        List<PaymentRequestDto> batch = new ArrayList<>();
+        for (int index = 0; index <= MAX_BATCH_SIZE; index++) {
+            batch.add(getSamplePaymentRequestDto(STUDENT_ID, "March"));
+        }
+        InvalidPaymentBatchException exception = assertThrows(InvalidPaymentBatchException.class, () ->
+                paymentBatchService.makePayments(batch, ACCESS_TOKEN));
+        assertEquals("The payment batch size should be between 1 and " + MAX_BATCH_SIZE, exception.getMessage());
+        verifyNoInteractions(paymentRepository, directoryService);
+    }
+
+    /**
+     * This method return sample payment request dto
+     *
+     * @param studentId student id
+     * @param month     month
+     * @return PaymentRequestDto
+     */
+    private PaymentRequestDto getSamplePaymentRequestDto(String studentId, String month) {
+        PaymentRequestDto paymentRequestDto = new PaymentRequestDto();
+        paymentRequestDto.setStudentId(studentId);
+        paymentRequestDto.setPaymentMonth(new PaymentMonthDto(month, 2023));
+        return paymentRequestDto;
+    }
+
+    /**
+     * This method creates sample student details map
+     *
+     * @param studentIds student ids
+     * @return StudentMap
+     */
+    private Map<String, StudentResponseDto> getSampleStudentsMaps(String... studentIds) {
+        Map<String, StudentResponseDto> studentMap = new HashMap<>();
+        for (String studentId : studentIds) {
+            StudentResponseDto studentResponseDto = new StudentResponseDto();
+            studentResponseDto.setStudentId(studentId);
+            studentMap.put(studentId, studentResponseDto);
+        }
+        return studentMap;
+    }
+}
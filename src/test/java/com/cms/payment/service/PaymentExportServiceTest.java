@@ -0,0 +1,174 @@
+package com.cms.payment.service;
+
+import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentMonthDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.enums.ExportFormat;
+import com.cms.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class PaymentExportServiceTest {
+
+    private static final String PAYMENT_ID = "pid-1248=2598-7569-7458";
+    private static final String OTHER_PAYMENT_ID = "pid-3658-9654-1254-8547";
+    private static final String PAYMENT_MONTH = "March 2023";
+    private static final Date PAID_DATE = Date.valueOf("2023-03-15");
+    private static final String STUDENT_ID = "sid-1254-7854-6485";
+    private static final String UNKNOWN_STUDENT_ID = "sid-0000-0000-0000";
+    private static final String ACCESS_TOKEN = "ey1365651-14156-51";
+    private static final String FIRST_NAME = "Danushan";
+    private static final String LAST_NAME = "Kanagasingam, Jr";
+    private static final String TUITION_CLASS_ID = "tid-1254-9654-7854-8955";
+    private static final String LOCATION_NAME = "Elegance";
+
+    @Mock
+    private PaymentRepository paymentRepository;
+    @Mock
+    private DirectoryService directoryService;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private PaymentExportService paymentExportService;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        paymentExportService = new PaymentExportService(paymentRepository, directoryService, entityManager,
+                transactionManager, new ObjectMapper());
+        when(directoryService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(getSampleStudentsMaps());
+        when(directoryService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(getSampleTuitionClassMaps());
+    }
+
+    @Test
+    void Should_WriteOneJsonLinePerPayment_When_NdjsonExportIsRequested() throws IOException {
+        Payment payment = getSamplePayment(PAYMENT_ID, STUDENT_ID);
+        Payment otherPayment = getSamplePayment(OTHER_PAYMENT_ID, UNKNOWN_STUDENT_ID);
+        when(paymentRepository.streamAll(null, null)).thenReturn(Stream.of(payment, otherPayment));
+        String[] lines = export(ExportFormat.NDJSON, null, null).split("\n", -1);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"paymentId\":\"" + PAYMENT_ID + "\""));
+        assertTrue(lines[0].contains("\"firstName\":\"" + FIRST_NAME + "\""));
+        assertTrue(lines[0].contains("\"locationName\":\"" + LOCATION_NAME + "\""));
+        assertTrue(lines[1].contains("\"paymentId\":\"" + OTHER_PAYMENT_ID + "\""));
+        assertTrue(lines[1].contains("\"studentDetails\":null"));
+        assertEquals("", lines[2]);
+        verify(entityManager).detach(payment);
+        verify(entityManager).detach(otherPayment);
+    }
+
+    @Test
+    void Should_WriteHeaderAndQuotedRows_When_CsvExportIsRequested() throws IOException {
+        when(paymentRepository.streamAll(null, null)).thenReturn(Stream.of(getSamplePayment(PAYMENT_ID, STUDENT_ID),
+                getSamplePayment(OTHER_PAYMENT_ID, UNKNOWN_STUDENT_ID)));
+        String csv = export(ExportFormat.CSV, null, null);
+        assertEquals("paymentId,paymentMonth,paidDate,updatedAt,studentId,firstName,lastName,tuitionClassId,locationName\n"
+                + PAYMENT_ID + "," + PAYMENT_MONTH + ",2023-03-15,2023-03-15," + STUDENT_ID + "," + FIRST_NAME
+                + ",\"" + LAST_NAME + "\"," + TUITION_CLASS_ID + "," + LOCATION_NAME + "\n"
+                + OTHER_PAYMENT_ID + "," + PAYMENT_MONTH + ",2023-03-15,2023-03-15," + UNKNOWN_STUDENT_ID + ",,,,\n", csv);
+    }
+
+    @Test
+    void Should_EscapeFormulaCells_When_DirectoryValuesStartWithFormulaCharacter() throws IOException {
+        var student = getSampleStudentsMaps().get(STUDENT_ID);
+        student.setFirstName("=HYPERLINK(\"http://example.com\",\"Pay\")");
+        student.setLastName("@SUM(A1:A2)");
+        when(directoryService.getStudentsDetails(ACCESS_TOKEN)).thenReturn(Map.of(STUDENT_ID, student));
+        var tuitionClass = getSampleTuitionClassMaps().get(TUITION_CLASS_ID);
+        tuitionClass.setLocationName("+94-Elegance");
+        when(directoryService.getTuitionClassDetails(ACCESS_TOKEN)).thenReturn(Map.of(TUITION_CLASS_ID, tuitionClass));
+        when(paymentRepository.streamAll(null, null)).thenReturn(Stream.of(getSamplePayment(PAYMENT_ID, STUDENT_ID)));
+        String row = export(ExportFormat.CSV, null, null).split("\n")[1];
+        assertEquals(PAYMENT_ID + "," + PAYMENT_MONTH + ",2023-03-15,2023-03-15," + STUDENT_ID
+                + ",\"'=HYPERLINK(\"\"http://example.com\"\",\"\"Pay\"\")\",'@SUM(A1:A2)," + TUITION_CLASS_ID
+                + ",'+94-Elegance", row);
+    }
+
+    @Test
+    void Should_FilterByPeriodAndStudent_When_FiltersAreProvided() throws IOException {
+        when(paymentRepository.streamAll(202303, STUDENT_ID)).thenReturn(Stream.empty());
+        assertEquals("", export(ExportFormat.NDJSON, new PaymentMonthDto("march", 2023), STUDENT_ID));
+        verify(paymentRepository).streamAll(202303, STUDENT_ID);
+    }
+
+    /**
+     * This method runs the export into a string
+     *
+     * @param format       export format
+     * @param paymentMonth payment month filter
+     * @param studentId    student id filter
+     * @return exported content
+     * @throws IOException when the export is failed
+     */
+    private String export(ExportFormat format, PaymentMonthDto paymentMonth, String studentId) throws IOException {
+        var outputStream = new ByteArrayOutputStream();
+        paymentExportService.export(format, paymentMonth, studentId, ACCESS_TOKEN).writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * This method return sample payment
+     *
+     * @param paymentId payment id
+     * @param studentId student id
+     * @return Payment
+     */
+    private Payment getSamplePayment(String paymentId, String studentId) {
+        Payment payment = new Payment();
+        payment.setPaymentId(paymentId);
+        payment.setPaymentMonth(PAYMENT_MONTH);
+        payment.setPaymentPeriod(202303);
+        payment.setPaidDate(PAID_DATE);
+        payment.setUpdatedAt(PAID_DATE);
+        payment.setStudentId(studentId);
+        return payment;
+    }
+
+    /**
+     * This method creates sample student details map
+     *
+     * @return StudentMap
+     */
+    private Map<String, StudentResponseDto> getSampleStudentsMaps() {
+        StudentResponseDto studentResponseDto = new StudentResponseDto();
+        studentResponseDto.setStudentId(STUDENT_ID);
+        studentResponseDto.setFirstName(FIRST_NAME);
+        studentResponseDto.setLastName(LAST_NAME);
+        studentResponseDto.setTuitionClassId(TUITION_CLASS_ID);
+        Map<String, StudentResponseDto> studentMap = new HashMap<>();
+        studentMap.put(STUDENT_ID, studentResponseDto);
+        return studentMap;
+    }
+
+    /**
+     * This method creates sample tuition class details map
+     *
+     * @return TuitionClassMap
+     */
+    private Map<String, TuitionClassResponseDto> getSampleTuitionClassMaps() {
+        TuitionClassResponseDto tuitionClassResponseDto = new TuitionClassResponseDto();
+        tuitionClassResponseDto.setTuitionClassId(TUITION_CLASS_ID);
+        tuitionClassResponseDto.setLocationName(LOCATION_NAME);
+        Map<String, TuitionClassResponseDto> tuitionClassMap = new HashMap<>();
+        tuitionClassMap.put(TUITION_CLASS_ID, tuitionClassResponseDto);
+        return tuitionClassMap;
+    }
+}
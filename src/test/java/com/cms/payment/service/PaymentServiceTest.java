@@ -1,6 +1,8 @@
 package com.cms.payment.service;
 
+import com.cms.payment.cache.PaidStudentIndex;
 import com.cms.payment.domain.entity.Payment;
+import com.cms.payment.domain.request.PaymentCursor;
 import com.cms.payment.domain.request.PaymentMonthDto;
 import com.cms.payment.domain.request.PaymentRequestDto;
 import com.cms.payment.domain.request.UpdatePaymentRequestDto;
@@ -9,31 +11,42 @@ import com.cms.payment.domain.response.StudentResponseDto;
 import com.cms.payment.domain.response.TuitionClassListResponseDto;
 import com.cms.payment.domain.response.TuitionClassResponseDto;
 import com.cms.payment.enums.ErrorResponseStatus;
+import com.cms.payment.enums.PaymentEventType;
 import com.cms.payment.enums.SuccessResponseStatus;
 import com.cms.payment.exception.*;
+import com.cms.payment.outbox.PaymentOutbox;
 import com.cms.payment.repository.PaymentRepository;
+import com.cms.payment.repository.PaymentVersionRepository;
 import com.cms.payment.wrapper.StudentListResponseWrapper;
 import com.cms.payment.wrapper.StudentResponseWrapper;
 import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
 import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.*;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import java.sql.Date;
+import java.time.Clock;
+import java.time.Duration;
 import java.util.*;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -46,9 +59,12 @@ class PaymentServiceTest {
     private static final String GET_STUDENT_BY_ID_URL = "api/v1/student/##STUDENT-ID##";
     private static final String GET_ALL_LOCATION_URL = "api/v1/tuition/";
     private static final String GET_ALL_STUDENT_URL = "api/v1/student";
+    private static final String GET_STUDENTS_BY_IDS_URL = "api/v1/student?ids=##STUDENT-IDS##";
     private static final String PAYMENT_ID = "pid-1248=2598-7569-7458";
     private static final String PAYMENT_MONTH = "March 2023";
     private static final String UPDATED_PAYMENT_MONTH = "April 2023";
+    private static final int PAYMENT_PERIOD = 202303;
+    private static final int UPDATED_PAYMENT_PERIOD = 202304;
     private static final Date PAID_DATE = Date.valueOf("2023-03-15");
     private static final String STUDENT_ID = "sid-1254-7854-6485";
     private static final String ACCESS_TOKEN = "ey1365651-14156-51";
@@ -66,20 +82,34 @@ class PaymentServiceTest {
     private static final int GRADE = 12;
     private static final int PAGE = 0;
     private static final int SIZE = 100;
-    private static final String DEFAULT_SORT = "updated_at";
+    private static final int MAX_SIZE = 500;
 
     @Mock
     private PaymentRepository paymentRepository;
     @Mock
+    private PaymentVersionRepository paymentVersionRepository;
+    @Mock
     private RestTemplate restTemplate;
+    @Mock
+    private PaymentOutbox paymentOutbox;
     private PaymentService paymentService;
 
 
     @BeforeEach
     void setUp() {
         openMocks(this);
-        paymentService = new PaymentService(paymentRepository, restTemplate, STUDENT_BASE_URL, LOCATION_BASE_URL,
-                GET_STUDENT_BY_ID_URL, GET_ALL_LOCATION_URL, GET_ALL_STUDENT_URL);
+        RemoteServiceGuard studentServiceGuard = RemoteServiceGuard.ofDefaults("student");
+        DirectoryService directoryService = new DirectoryService(restTemplate, studentServiceGuard,
+                RemoteServiceGuard.ofDefaults("tuition"), STUDENT_BASE_URL, LOCATION_BASE_URL,
+                GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL, 100, Duration.ofMinutes(5),
+                Duration.ofMinutes(1), 1000, "");
+        PaidStudentIndex paidStudentIndex = new PaidStudentIndex(paymentRepository, Duration.ofMinutes(5), 12,
+                Clock.systemUTC());
+        StudentRegistry studentRegistry = new StudentRegistry(directoryService, restTemplate, studentServiceGuard,
+                STUDENT_BASE_URL, GET_STUDENT_BY_ID_URL, Duration.ofMinutes(10), Duration.ofSeconds(30), 1000,
+                Clock.systemUTC());
+        paymentService = new PaymentService(paymentRepository, paymentVersionRepository, directoryService,
+                studentRegistry, paidStudentIndex, paymentOutbox, SIZE, MAX_SIZE);
     }
 
     @AfterEach
@@ -92,31 +122,98 @@ class PaymentServiceTest {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
         Payment payment = getSamplePayment();
         StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
         assertEquals(payment, paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN));
+        verify(paymentOutbox, times(1)).record(PaymentEventType.PAYMENT_MADE, payment);
+        verify(paymentVersionRepository, times(1)).advance();
+    }
+
+    @Test
+    void Should_MarkStudentPaidAfterCommit_When_PaymentIsMadeInTransaction() {
+        when(paymentRepository.findPaidStudentIds(PAYMENT_PERIOD)).thenReturn(List.of());
+        assertEquals(Set.of(), paymentService.getPaidStudentIds("March", 2023));
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentResponseWrapper.class)))
+                .thenReturn(ResponseEntity.of(Optional.of(getSampleStudentResponseWrapper())));
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(getSamplePayment());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paymentService.makePayment(getSamplePaymentRequestDto(), ACCESS_TOKEN);
+            assertEquals(Set.of(), paymentService.getPaidStudentIds("March", 2023));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(Set.of(STUDENT_ID), paymentService.getPaidStudentIds("March", 2023));
+    }
+
+    @Test
+    void Should_KeepPaidIndex_When_DeletePaymentIsRolledBack() {
+        when(paymentRepository.findPaidStudentIds(PAYMENT_PERIOD)).thenReturn(List.of(STUDENT_ID));
+        assertEquals(Set.of(STUDENT_ID), paymentService.getPaidStudentIds("March", 2023));
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(getSamplePayment()));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            paymentService.deletePayment(PAYMENT_ID);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(synchronization -> synchronization.afterCompletion(
+                            TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(Set.of(STUDENT_ID), paymentService.getPaidStudentIds("March", 2023));
+    }
+
+    @Test
+    void Should_RecordServiceTimer_When_PaymentServiceMethodIsCalled() {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(paymentService);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(new TimedAspect(meterRegistry));
+        PaymentService timedPaymentService = proxyFactory.getProxy();
+        when(paymentRepository.findPaidStudentIds(202303)).thenReturn(List.of(STUDENT_ID));
+        assertEquals(Set.of(STUDENT_ID), timedPaymentService.getPaidStudentIds("March", 2023));
+        assertEquals(1, meterRegistry.get("payment.service").tag("method", "getPaidStudentIds")
+                .tag("exception", "none").timer().count());
     }
 
     @Test
     void Should_ThrowPaymentAlreadyExistsException_When_AlreadyPaymentIsMade() {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(true);
+        StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException(
+                "Duplicate entry for key 'payment.uk_payment_student_period_active'"));
         PaymentAlreadyExistsException exception = assertThrows(PaymentAlreadyExistsException.class, () ->
                 paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN));
         assertEquals("The payment already made for : " + PAYMENT_MONTH, exception.getMessage());
     }
 
     @Test
-    void Should_ThrowPaymentException_When_CheckingPaymentExistsIsFailed() {
+    void Should_ThrowPaymentException_When_SavingPaymentViolatesOtherConstraint() {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID))
-                .thenThrow(new DataAccessException("ERROR") {
-                });
+        StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataIntegrityViolationException(
+                "Column 'student_id' cannot be null"));
         PaymentException exception = assertThrows(PaymentException.class, () ->
                 paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN));
-        assertEquals("Checking the existing payment is failed", exception.getMessage());
+        assertEquals("Saving payment details into database is failed.", exception.getMessage());
+    }
+
+    @Test
+    void Should_InsertPaymentWithoutExistenceCheck_When_MakingPayment() {
+        PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
+        StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
+        paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN);
+        verify(paymentRepository, times(1)).saveAndFlush(argThat(Payment::isNew));
+        verify(paymentRepository, never()).findById(anyString());
     }
 
     @Test
@@ -124,7 +221,6 @@ class PaymentServiceTest {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
         StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
         studentResponseWrapper.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
         InvalidStudentException exception = assertThrows(InvalidStudentException.class, () ->
@@ -135,7 +231,6 @@ class PaymentServiceTest {
     @Test
     void Should_ThrowConnectionException_When_StudentServiceNotAvailable() {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenThrow(new ResourceAccessException("ERROR"));
         ConnectionException exception = assertThrows(ConnectionException.class, () ->
@@ -146,7 +241,6 @@ class PaymentServiceTest {
     @Test
     void Should_ThrowPaymentException_When_CheckStudentInStudentServiceIsFailed() {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
         PaymentException exception = assertThrows(PaymentException.class, () ->
@@ -159,10 +253,9 @@ class PaymentServiceTest {
         PaymentRequestDto paymentRequestDto = getSamplePaymentRequestDto();
         Payment payment = getSamplePayment();
         StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
-        when(paymentRepository.save(any(Payment.class))).thenThrow(new DataAccessException("ERROR") {
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataAccessException("ERROR") {
         });
         PaymentException exception = assertThrows(PaymentException.class, () ->
                 paymentService.makePayment(paymentRequestDto, ACCESS_TOKEN));
@@ -177,10 +270,10 @@ class PaymentServiceTest {
         StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
         assertEquals(payment, paymentService.updatePayment(updatePaymentRequestDto, ACCESS_TOKEN));
     }
 
@@ -193,6 +286,18 @@ class PaymentServiceTest {
         assertEquals("Invalid payment Id : " + PAYMENT_ID, exception.getMessage());
     }
 
+    @Test
+    void Should_ThrowInvalidPaymentException_When_DeletedPaymentIdIsProvidedForUpdatePayment() {
+        UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
+        Payment payment = getSamplePayment();
+        payment.setDeleted(true);
+        when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
+        InvalidPaymentException exception = assertThrows(InvalidPaymentException.class, () ->
+                paymentService.updatePayment(updatePaymentRequestDto, ACCESS_TOKEN));
+        assertEquals("Invalid payment Id : " + PAYMENT_ID, exception.getMessage());
+        verify(paymentRepository, never()).saveAndFlush(any(Payment.class));
+    }
+
     @Test
     void Should_ThrowPaymentException_When_GettingPaymentFromDatabaseIsFailed() {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
@@ -208,7 +313,7 @@ class PaymentServiceTest {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(UPDATED_PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(true);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(UPDATED_PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(true);
         PaymentAlreadyExistsException exception = assertThrows(PaymentAlreadyExistsException.class, () ->
                 paymentService.updatePayment(updatePaymentRequestDto, ACCESS_TOKEN));
         assertEquals("The payment already made for : " + UPDATED_PAYMENT_MONTH, exception.getMessage());
@@ -219,7 +324,7 @@ class PaymentServiceTest {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(UPDATED_PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID))
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(UPDATED_PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID))
                 .thenThrow(new DataAccessException("ERROR") {
                 });
         PaymentException exception = assertThrows(PaymentException.class, () ->
@@ -234,7 +339,7 @@ class PaymentServiceTest {
         studentResponseWrapper.setStatusCode(HttpStatus.INTERNAL_SERVER_ERROR.value());
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
         InvalidStudentException exception = assertThrows(InvalidStudentException.class, () ->
@@ -247,7 +352,7 @@ class PaymentServiceTest {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenThrow(new ResourceAccessException("ERROR"));
         ConnectionException exception = assertThrows(ConnectionException.class, () ->
@@ -260,7 +365,7 @@ class PaymentServiceTest {
         UpdatePaymentRequestDto updatePaymentRequestDto = getSampleUpdatePaymentRequestDto();
         Payment payment = getSamplePayment();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST));
         PaymentException exception = assertThrows(PaymentException.class, () ->
@@ -274,10 +379,10 @@ class PaymentServiceTest {
         Payment payment = getSamplePayment();
         StudentResponseWrapper studentResponseWrapper = getSampleStudentResponseWrapper();
         when(paymentRepository.findById(PAYMENT_ID)).thenReturn(Optional.of(payment));
-        when(paymentRepository.existsByPaymentMonthAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_MONTH, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
+        when(paymentRepository.existsByPaymentPeriodAndStudentIdAndPaymentIdAndIsDeletedFalse(PAYMENT_PERIOD, STUDENT_ID, PAYMENT_ID)).thenReturn(false);
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
                 eq(StudentResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentResponseWrapper)));
-        when(paymentRepository.save(any(Payment.class))).thenThrow(new DataAccessException("ERROR") {
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenThrow(new DataAccessException("ERROR") {
         });
         PaymentException exception = assertThrows(PaymentException.class, () ->
                 paymentService.updatePayment(updatePaymentRequestDto, ACCESS_TOKEN));
@@ -304,38 +409,72 @@ class PaymentServiceTest {
     }
 
     @Test
-    void Should_ReturnPaymentPage() {
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        Page<Payment> paymentPage = getSamplePaymentPage();
-        when(paymentRepository.findAll(pageable)).thenReturn(paymentPage);
-        assertEquals(paymentPage, paymentService.getAllPayment());
+    void Should_ReturnPaymentSlice() {
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        when(paymentRepository.findAllAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "")).thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getAllPayment(null, null));
+    }
+
+    @Test
+    void Should_ReturnPaymentSliceAfterCursor_When_CursorIsProvided() {
+        Pageable pageable = PageRequest.of(PAGE, 20);
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        String cursor = new PaymentCursor(PAID_DATE, PAYMENT_ID).encode();
+        when(paymentRepository.findAllAfter(pageable, PAID_DATE, PAYMENT_ID)).thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getAllPayment(cursor, 20));
+    }
+
+    @Test
+    void Should_CapPageSize_When_PageSizeExceedsTheLimit() {
+        Pageable pageable = PageRequest.of(PAGE, MAX_SIZE);
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        when(paymentRepository.findAllAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "")).thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getAllPayment(null, 10000));
+    }
+
+    @Test
+    void Should_ThrowInvalidPageRequestException_When_InvalidCursorIsProvided() {
+        InvalidPageRequestException exception = assertThrows(InvalidPageRequestException.class, () ->
+                paymentService.getAllPayment("not-a-cursor", null));
+        assertEquals("Invalid page cursor : not-a-cursor", exception.getMessage());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void Should_ThrowInvalidPageRequestException_When_InvalidPageSizeIsProvided() {
+        InvalidPageRequestException exception = assertThrows(InvalidPageRequestException.class, () ->
+                paymentService.getAllPayment(null, 0));
+        assertEquals("Invalid page size : 0", exception.getMessage());
     }
 
     @Test
     void Should_ThrowPaymentException_When_GetAllPaymentsIsFailed() {
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        when(paymentRepository.findAll(pageable)).thenThrow(new DataAccessException("ERROR") {
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findAllAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "")).thenThrow(new DataAccessException("ERROR") {
         });
         PaymentException exception = assertThrows(PaymentException.class, () ->
-                paymentService.getAllPayment());
+                paymentService.getAllPayment(null, null));
         assertEquals("Retrieving Payment list from database is failed.", exception.getMessage());
     }
 
     @Test
-    void Should_ReturnPaymentPage_When_StudentIdIsProvided() {
-        Page<Payment> paymentPage = getSamplePaymentPage();
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        when(paymentRepository.findByStudentId(pageable, STUDENT_ID)).thenReturn(paymentPage);
-        assertEquals(paymentPage, paymentService.getPaymentsByStudentId(STUDENT_ID));
+    void Should_ReturnPaymentSlice_When_StudentIdIsProvided() {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByStudentIdAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "", STUDENT_ID))
+                .thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getPaymentsByStudentId(STUDENT_ID, null, null));
     }
 
     @Test
     void Should_ThrowPaymentException_When_GetPaymentDetailsFromDatabaseIsFailed() {
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        when(paymentRepository.findByStudentId(pageable, STUDENT_ID)).thenThrow(new DataAccessException("ERROR") {
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByStudentIdAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "", STUDENT_ID))
+                .thenThrow(new DataAccessException("ERROR") {
         });
         PaymentException exception = assertThrows(PaymentException.class, () ->
-                paymentService.getPaymentsByStudentId(STUDENT_ID));
+                paymentService.getPaymentsByStudentId(STUDENT_ID, null, null));
         assertEquals("Retrieving Payment list for student id: " + STUDENT_ID
                 + " from database is failed.", exception.getMessage());
     }
@@ -351,6 +490,18 @@ class PaymentServiceTest {
         assertEquals(LAST_NAME, result.get(STUDENT_ID).getLastName());
     }
 
+    @Test
+    void Should_ReturnCachedStudentMap_When_StudentDetailsAreRequestedAgain() {
+        StudentListResponseWrapper studentListResponseWrapper = getSampleStudentListResponseWrapper();
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentListResponseWrapper.class))).thenReturn(ResponseEntity.of(Optional.of(studentListResponseWrapper)));
+        paymentService.getStudentsDetails(ACCESS_TOKEN);
+        var result = paymentService.getStudentsDetails(ACCESS_TOKEN);
+        assertEquals(FIRST_NAME, result.get(STUDENT_ID).getFirstName());
+        verify(restTemplate, times(1)).exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentListResponseWrapper.class));
+    }
+
     @Test
     void Should_ThrowConnectionException_When_StudentServiceNotAvailableForGetStudentDetails() {
         when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
@@ -400,19 +551,98 @@ class PaymentServiceTest {
     }
 
     @Test
-    void Should_ReturnPaymentPage_When_WhenMonthAndYearIsProvided() {
-        Page<Payment> paymentPage = getSamplePaymentPage();
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        when(paymentRepository.findByPaymentMonth(pageable, PAYMENT_MONTH)).thenReturn(paymentPage);
-        assertEquals(paymentPage, paymentService.getUserReport("March", 2023));
+    void Should_ReturnNullETag_When_DirectoriesAreNotCached() {
+        assertNull(paymentService.getReportETag("March", 2023));
+        verifyNoInteractions(paymentRepository, paymentVersionRepository);
+    }
+
+    @Test
+    void Should_ChangePaymentsETag_When_StudentOfThePageIsUpdated() {
+        when(paymentVersionRepository.findVersion()).thenReturn(42L);
+        String paymentsVersion = paymentService.getPaymentsVersion();
+        StudentResponseDto studentResponseDto = getSampleStudentRequestDto();
+        Map<String, StudentResponseDto> studentMap = Map.of(STUDENT_ID, studentResponseDto);
+        String eTag = paymentService.getPaymentsETag(paymentsVersion, studentMap, Map.of());
+        assertEquals(eTag, paymentService.getPaymentsETag(paymentsVersion, Map.of(STUDENT_ID,
+                getSampleStudentRequestDto()), Map.of()));
+        studentResponseDto.setAddress("New address");
+        assertNotEquals(eTag, paymentService.getPaymentsETag(paymentsVersion, studentMap, Map.of()));
+    }
+
+    @Test
+    void Should_ChangeReportETag_When_PaymentVersionIsAdvanced() {
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(StudentListResponseWrapper.class)))
+                .thenReturn(ResponseEntity.of(Optional.of(getSampleStudentListResponseWrapper())));
+        when(restTemplate.exchange(anyString(), any(HttpMethod.class), any(HttpEntity.class),
+                eq(TuitionClassListResponseWrapper.class)))
+                .thenReturn(ResponseEntity.of(Optional.of(getSampleTuitionClassListResponseWrapper())));
+        paymentService.getStudentsDetails(ACCESS_TOKEN);
+        paymentService.getTuitionClassDetails(ACCESS_TOKEN);
+        when(paymentVersionRepository.findVersion()).thenReturn(41L, 41L, 42L);
+        String eTag = paymentService.getReportETag("March", 2023);
+        assertNotNull(eTag);
+        assertEquals(eTag, paymentService.getReportETag("March", 2023));
+        assertNotEquals(eTag, paymentService.getReportETag("March", 2023));
+    }
+
+    @Test
+    void Should_ReturnPaymentSlice_When_WhenMonthAndYearIsProvided() {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByPaymentPeriodAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "", PAYMENT_PERIOD))
+                .thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getUserReport("March", 2023, null, null));
+    }
+
+    @Test
+    void Should_ReturnPaidStudentIds_When_WhenMonthAndYearIsProvided() {
+        when(paymentRepository.findPaidStudentIds(PAYMENT_PERIOD)).thenReturn(List.of(STUDENT_ID));
+        assertEquals(Set.of(STUDENT_ID), paymentService.getPaidStudentIds("March", 2023));
+    }
+
+    @Test
+    void Should_ReturnPaymentSlice_When_MonthIsProvidedInDifferentCase() {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByPaymentPeriodAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "", PAYMENT_PERIOD))
+                .thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getUserReport("mARCH", 2023, null, null));
+    }
+
+    @Test
+    void Should_ThrowInvalidPaymentMonthException_When_InvalidMonthIsProvidedForReport() {
+        InvalidPaymentMonthException exception = assertThrows(InvalidPaymentMonthException.class, () ->
+                paymentService.getUserReport("Marc", 2023, null, null));
+        assertEquals("Invalid payment month : Marc", exception.getMessage());
+        verifyNoInteractions(paymentRepository);
+    }
+
+    @Test
+    void Should_ReturnPaymentSlice_When_PeriodRangeIsProvided() {
+        Slice<Payment> paymentSlice = getSamplePaymentSlice();
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByPaymentPeriodBetweenAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "",
+                202301, 202306)).thenReturn(paymentSlice);
+        assertEquals(paymentSlice, paymentService.getPaymentsByPeriod(new PaymentMonthDto("January", 2023),
+                new PaymentMonthDto("June", 2023), null, null));
+    }
+
+    @Test
+    void Should_ThrowInvalidPaymentMonthException_When_PeriodRangeIsReversed() {
+        InvalidPaymentMonthException exception = assertThrows(InvalidPaymentMonthException.class, () ->
+                paymentService.getPaymentsByPeriod(new PaymentMonthDto("June", 2023), new PaymentMonthDto("January", 2023),
+                        null, null));
+        assertEquals("The payment month June 2023 is after January 2023", exception.getMessage());
     }
 
     @Test
     void Should_ThrowPaymentException_When_GetStudentReportIsFailed() {
-        Pageable pageable = PageRequest.of(PAGE, SIZE, Sort.by(DEFAULT_SORT).descending());
-        when(paymentRepository.findByPaymentMonth(pageable, PAYMENT_MONTH)).thenThrow(new DataAccessException("ERROR") { });
+        Pageable pageable = PageRequest.of(PAGE, SIZE);
+        when(paymentRepository.findByPaymentPeriodAfter(pageable, PaymentCursor.FIRST.getUpdatedAt(), "", PAYMENT_PERIOD))
+                .thenThrow(new DataAccessException("ERROR") { });
         PaymentException exception = assertThrows(PaymentException.class, () ->
-                paymentService.getUserReport("March", 2023));
+                paymentService.getUserReport("March", 2023, null, null));
         assertEquals("Retrieving the payment reports from database is failed", exception.getMessage());
     }
 
@@ -426,6 +656,7 @@ class PaymentServiceTest {
         Payment payment = new Payment();
         payment.setPaymentId(PAYMENT_ID);
         payment.setPaymentMonth(PAYMENT_MONTH);
+        payment.setPaymentPeriod(PAYMENT_PERIOD);
         payment.setPaidDate(PAID_DATE);
         payment.setStudentId(STUDENT_ID);
         payment.setDeleted(false);
@@ -497,11 +728,11 @@ class PaymentServiceTest {
      *
      * @return PaymentPage
      */
-    private Page<Payment> getSamplePaymentPage() {
+    private Slice<Payment> getSamplePaymentSlice() {
         List<Payment> payments = new ArrayList<>();
         Payment payment = getSamplePayment();
         payments.add(payment);
-        return new PageImpl<>(payments);
+        return new SliceImpl<>(payments);
     }
 
     /**
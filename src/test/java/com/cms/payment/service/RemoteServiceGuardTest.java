@@ -0,0 +1,200 @@
+package com.cms.payment.service;
+
+import com.cms.payment.exception.ConnectionException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RemoteServiceGuardTest {
+
+    private static final String RESPONSE = "response";
+    private static final int SLIDING_WINDOW_SIZE = 4;
+    private static final int MAX_ATTEMPTS = 2;
+
+    private RemoteServiceGuard remoteServiceGuard;
+    private AtomicInteger callCount;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        remoteServiceGuard = new RemoteServiceGuard("student", Duration.ofMillis(200),
+                RemoteServiceGuard.circuitBreakerConfig(50, SLIDING_WINDOW_SIZE, Duration.ofMinutes(1)),
+                RemoteServiceGuard.bulkheadConfig(2, 2),
+                RemoteServiceGuard.retryConfig(MAX_ATTEMPTS, Duration.ofMillis(10)), meterRegistry);
+        callCount = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        remoteServiceGuard.shutdown();
+    }
+
+    @Test
+    void Should_RetryCall_When_CallFailsTransiently() {
+        String response = remoteServiceGuard.call(() -> {
+            if (callCount.incrementAndGet() == 1) {
+                throw new ResourceAccessException("Connection refused");
+            }
+            return RESPONSE;
+        });
+        assertEquals(RESPONSE, response);
+        assertEquals(2, callCount.get());
+        assertEquals(1, meterRegistry.get("payment.remote.calls")
+                .tags("target", "student", "outcome", "success").timer().count());
+    }
+
+    @Test
+    void Should_NotRetryCall_When_CallIsRejectedByService() {
+        assertThrows(HttpClientErrorException.class, () -> remoteServiceGuard.call(() -> {
+            callCount.incrementAndGet();
+            throw new HttpClientErrorException(HttpStatus.UNAUTHORIZED);
+        }));
+        assertEquals(1, callCount.get());
+        assertFalse(remoteServiceGuard.isOpen());
+    }
+
+    @Test
+    void Should_RejectCallsWithoutCallingService_When_CircuitIsOpen() {
+        for (int index = 0; index < SLIDING_WINDOW_SIZE / MAX_ATTEMPTS; index++) {
+            assertThrows(ConnectionException.class, () -> remoteServiceGuard.call(() -> {
+                callCount.incrementAndGet();
+                throw new ResourceAccessException("Connection refused");
+            }));
+        }
+        assertTrue(remoteServiceGuard.isOpen());
+        callCount.set(0);
+        ConnectionException exception = assertThrows(ConnectionException.class, () ->
+                remoteServiceGuard.call(() -> callCount.incrementAndGet()));
+        assertEquals("The student service circuit is open", exception.getMessage());
+        assertEquals(0, callCount.get());
+        assertEquals(1, meterRegistry.get("payment.remote.circuit.open").tags("target", "student").gauge().value());
+        assertEquals(1, meterRegistry.get("payment.remote.calls")
+                .tags("target", "student", "outcome", "rejected").timer().count());
+    }
+
+    @Test
+    void Should_ThrowConnectionException_When_CallExceedsTimeout() {
+        ConnectionException exception = assertThrows(ConnectionException.class, () -> remoteServiceGuard.call(() -> {
+            callCount.incrementAndGet();
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return RESPONSE;
+        }));
+        assertEquals("The student service call exceeded the timeout", exception.getMessage());
+        assertEquals(MAX_ATTEMPTS, callCount.get());
+    }
+
+    @Test
+    void Should_RejectCall_When_CallPermitsOfCallExecutorAreTaken() throws InterruptedException {
+        ExecutorService callExecutor = Executors.newCachedThreadPool();
+        var guard = new RemoteServiceGuard("tuition", Duration.ofSeconds(5),
+                RemoteServiceGuard.circuitBreakerConfig(50, SLIDING_WINDOW_SIZE, Duration.ofMinutes(1)),
+                RemoteServiceGuard.bulkheadConfig(1, 1),
+                RemoteServiceGuard.retryConfig(1, Duration.ofMillis(10)), meterRegistry, callExecutor);
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(2);
+        var runningCalls = Executors.newFixedThreadPool(2);
+        try {
+            for (int index = 0; index < 2; index++) {
+                runningCalls.execute(() -> guard.call(() -> {
+                    started.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            ConnectionException exception = assertThrows(ConnectionException.class, () ->
+                    guard.call(() -> callCount.incrementAndGet()));
+            assertEquals("The tuition service calls exceeded the bulkhead", exception.getMessage());
+            assertEquals(0, callCount.get());
+            release.countDown();
+            runningCalls.shutdown();
+            assertTrue(runningCalls.awaitTermination(5, TimeUnit.SECONDS));
+            assertEquals(RESPONSE, guard.call(() -> RESPONSE));
+        } finally {
+            release.countDown();
+            runningCalls.shutdownNow();
+            guard.shutdown();
+        }
+    }
+
+    @Test
+    void Should_NotRetryOrOpenCircuit_When_CallsAreRejectedByFullBulkhead() throws InterruptedException {
+        var release = new CountDownLatch(1);
+        var started = new CountDownLatch(2);
+        var runningCalls = Executors.newFixedThreadPool(4);
+        try {
+            for (int index = 0; index < 4; index++) {
+                runningCalls.execute(() -> remoteServiceGuard.call(() -> {
+                    started.countDown();
+                    try {
+                        return release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            for (int index = 0; index < SLIDING_WINDOW_SIZE; index++) {
+                ConnectionException exception = assertThrows(ConnectionException.class, () ->
+                        remoteServiceGuard.call(() -> callCount.incrementAndGet()));
+                assertEquals("The student service calls exceeded the bulkhead", exception.getMessage());
+            }
+            assertEquals(0, callCount.get());
+            assertFalse(remoteServiceGuard.isOpen());
+            assertEquals(SLIDING_WINDOW_SIZE, meterRegistry.get("payment.remote.calls")
+                    .tags("target", "student", "outcome", "rejected").timer().count());
+        } finally {
+            release.countDown();
+            runningCalls.shutdownNow();
+        }
+    }
+
+    @Test
+    void Should_InterruptCall_When_CallOfCallExecutorExceedsTimeout() throws InterruptedException {
+        ExecutorService callExecutor = Executors.newCachedThreadPool();
+        var guard = new RemoteServiceGuard("tuition", Duration.ofMillis(100),
+                RemoteServiceGuard.circuitBreakerConfig(50, SLIDING_WINDOW_SIZE, Duration.ofMinutes(1)),
+                RemoteServiceGuard.bulkheadConfig(1, 1),
+                RemoteServiceGuard.retryConfig(1, Duration.ofMillis(10)), meterRegistry, callExecutor);
+        var interrupted = new CountDownLatch(1);
+        try {
+            assertThrows(ConnectionException.class, () -> guard.call(() -> {
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+                return RESPONSE;
+            }));
+            assertTrue(interrupted.await(1, TimeUnit.SECONDS));
+            assertEquals(RESPONSE, guard.call(() -> RESPONSE));
+        } finally {
+            guard.shutdown();
+        }
+    }
+}
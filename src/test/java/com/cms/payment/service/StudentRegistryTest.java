@@ -0,0 +1,104 @@
+package com.cms.payment.service;
+
+import com.cms.payment.support.StubStudentService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.openMocks;
+
+class StudentRegistryTest {
+
+    private static final String GET_STUDENT_BY_ID_URL = "student/api/v1/student/##STUDENT-ID##";
+    private static final String GET_ALL_STUDENT_URL = "student/api/v1/student";
+    private static final String GET_STUDENTS_BY_IDS_URL = "student/api/v1/student?ids=##STUDENT-IDS##";
+    private static final String GET_ALL_LOCATION_URL = "tuition/api/v1/tuition/";
+    private static final String ACCESS_TOKEN = "ey1365651-14156-51";
+    private static final String STUDENT_ID = "sid-42";
+    private static final String UNKNOWN_STUDENT_ID = "sid-unknown";
+    private static final int ROSTER_SIZE = 100;
+    private static final long UNKNOWN_TTL_MILLIS = 30000;
+
+    @Mock
+    private Clock clock;
+    private final RemoteServiceGuard studentServiceGuard = RemoteServiceGuard.ofDefaults("student");
+    private StubStudentService studentService;
+    private DirectoryService directoryService;
+    private StudentRegistry studentRegistry;
+
+    @BeforeEach
+    void setUp() {
+        openMocks(this);
+        when(clock.millis()).thenReturn(0L);
+        studentService = StubStudentService.start(ROSTER_SIZE, 1);
+        directoryService = getDirectoryService("");
+        studentRegistry = getStudentRegistry(directoryService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        directoryService.shutdown();
+        studentService.close();
+    }
+
+    @Test
+    void Should_RequestStudentServiceOnce_When_SameStudentIsValidatedAgain() {
+        assertTrue(studentRegistry.exists(STUDENT_ID, ACCESS_TOKEN));
+        assertTrue(studentRegistry.exists(STUDENT_ID, ACCESS_TOKEN));
+        assertEquals(1, studentService.getRequestedUris().size());
+    }
+
+    @Test
+    void Should_CacheUnknownStudentUntilExpiry_When_StudentIsNotInRoster() {
+        assertFalse(studentRegistry.exists(UNKNOWN_STUDENT_ID, ACCESS_TOKEN));
+        assertFalse(studentRegistry.exists(UNKNOWN_STUDENT_ID, ACCESS_TOKEN));
+        assertEquals(1, studentService.getRequestedUris().size());
+        when(clock.millis()).thenReturn(UNKNOWN_TTL_MILLIS);
+        assertFalse(studentRegistry.exists(UNKNOWN_STUDENT_ID, ACCESS_TOKEN));
+        assertEquals(2, studentService.getRequestedUris().size());
+    }
+
+    @Test
+    void Should_ValidateWithoutRemoteCall_When_DirectoryIsSynchronized() {
+        directoryService.shutdown();
+        directoryService = getDirectoryService("service-token");
+        studentRegistry = getStudentRegistry(directoryService);
+        studentRegistry.synchronize();
+        studentService.clearRequestedUris();
+        assertTrue(studentRegistry.exists(STUDENT_ID, ACCESS_TOKEN));
+        assertTrue(studentRegistry.exists("sid-7", ACCESS_TOKEN));
+        assertTrue(studentService.getRequestedUris().isEmpty());
+    }
+
+    /**
+     * This method creates a directory service for the stubbed student service
+     *
+     * @param serviceToken service token
+     * @return DirectoryService
+     */
+    private DirectoryService getDirectoryService(String serviceToken) {
+        return new DirectoryService(new RestTemplate(), studentServiceGuard,
+                RemoteServiceGuard.ofDefaults("tuition"), studentService.getBaseUrl(), studentService.getBaseUrl(),
+                GET_ALL_STUDENT_URL, GET_STUDENTS_BY_IDS_URL, GET_ALL_LOCATION_URL, 100, Duration.ofMinutes(5),
+                Duration.ofMinutes(1), ROSTER_SIZE, serviceToken);
+    }
+
+    /**
+     * This method creates a student registry for the stubbed student service
+     *
+     * @param directoryService directory service
+     * @return StudentRegistry
+     */
+    private StudentRegistry getStudentRegistry(DirectoryService directoryService) {
+        return new StudentRegistry(directoryService, new RestTemplate(), studentServiceGuard,
+                studentService.getBaseUrl(), GET_STUDENT_BY_ID_URL, Duration.ofMinutes(10),
+                Duration.ofMillis(UNKNOWN_TTL_MILLIS), 1000, clock);
+    }
+}
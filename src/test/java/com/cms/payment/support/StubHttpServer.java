@@ -0,0 +1,139 @@
+package com.cms.payment.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Local stand-in http server for the services the payment service depends on
+ */
+public class StubHttpServer implements AutoCloseable {
+    static {
+        // without TCP_NODELAY keep-alive responses stall on delayed acknowledgements
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicLong requestCount = new AtomicLong();
+    private volatile long latencyMillis;
+
+    private StubHttpServer(int port, int threads) {
+        try {
+            this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server.setExecutor(executor);
+    }
+
+    /**
+     * Start a stub server on a free port
+     *
+     * @return StubHttpServer
+     */
+    public static StubHttpServer start() {
+        return start(0, 32);
+    }
+
+    /**
+     * Start a stub server
+     *
+     * @param port    port, 0 for a free port
+     * @param threads worker threads
+     * @return StubHttpServer
+     */
+    public static StubHttpServer start(int port, int threads) {
+        var stub = new StubHttpServer(port, threads);
+        stub.server.start();
+        return stub;
+    }
+
+    /**
+     * Serve a JSON body for every request under the given path
+     *
+     * @param path    path prefix
+     * @param handler builds the response for a request
+     * @return this
+     */
+    public StubHttpServer route(String path, Function<HttpExchange, StubResponse> handler) {
+        server.createContext(path, exchange -> {
+            requestCount.incrementAndGet();
+            try (exchange) {
+                pause();
+                var response = handler.apply(exchange);
+                byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(response.getStatus(), body.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(body);
+                }
+            }
+        });
+        return this;
+    }
+
+    public StubHttpServer withLatency(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+    }
+
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void pause() {
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Stub response status and body
+     */
+    public static class StubResponse {
+        private final int status;
+        private final String body;
+
+        public StubResponse(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public static StubResponse ok(String body) {
+            return new StubResponse(200, body);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.cms.payment.support;
+
+import com.cms.payment.domain.response.StudentListResponseDto;
+import com.cms.payment.domain.response.StudentResponseDto;
+import com.cms.payment.domain.response.TuitionClassListResponseDto;
+import com.cms.payment.domain.response.TuitionClassResponseDto;
+import com.cms.payment.wrapper.StudentListResponseWrapper;
+import com.cms.payment.wrapper.StudentResponseWrapper;
+import com.cms.payment.wrapper.TuitionClassListResponseWrapper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.UncheckedIOException;
+import java.sql.Date;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Local stand-in for the student and tuition class services with a generated roster
+ */
+public class StubStudentService implements AutoCloseable {
+    public static final String STUDENT_PATH = "/student/api/v1/student";
+    public static final String TUITION_PATH = "/tuition/api/v1/tuition/";
+    public static final String STUDENT_ID_PREFIX = "sid-";
+    public static final String TUITION_CLASS_ID_PREFIX = "tid-";
+    public static final Date UPDATED_AT = Date.valueOf("2023-03-01");
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final StubHttpServer server;
+    private final Map<String, StudentResponseDto> students = new LinkedHashMap<>();
+    private final List<TuitionClassResponseDto> tuitionClasses = new ArrayList<>();
+    private final Queue<String> requestedUris = new ConcurrentLinkedQueue<>();
+    private volatile boolean idsLookupSupported = true;
+    private volatile double errorRate;
+
+    private StubStudentService(StubHttpServer server, int rosterSize, int tuitionClassCount) {
+        this.server = server;
+        for (int index = 0; index < tuitionClassCount; index++) {
+            var tuitionClass = new TuitionClassResponseDto();
+            tuitionClass.setTuitionClassId(TUITION_CLASS_ID_PREFIX + index);
+            tuitionClass.setLocationName("Location " + index);
+            tuitionClass.setDistrict("Colombo");
+            tuitionClass.setProvince("Western");
+            tuitionClass.setUpdatedAt(UPDATED_AT);
+            tuitionClasses.add(tuitionClass);
+        }
+        for (int index = 0; index < rosterSize; index++) {
+            var student = new StudentResponseDto();
+            student.setStudentId(STUDENT_ID_PREFIX + index);
+            student.setFirstName("First" + index);
+            student.setLastName("Last" + index);
+            student.setTuitionClassId(TUITION_CLASS_ID_PREFIX + (index % Math.max(1, tuitionClassCount)));
+            student.setUpdatedAt(UPDATED_AT);
+            students.put(student.getStudentId(), student);
+        }
+        server.route(STUDENT_PATH, this::handleStudents).route(TUITION_PATH, this::handleTuitionClasses);
+    }
+
+    /**
+     * Start a stand-in on a free port
+     *
+     * @param rosterSize        number of students
+     * @param tuitionClassCount number of tuition classes
+     * @return StubStudentService
+     */
+    public static StubStudentService start(int rosterSize, int tuitionClassCount) {
+        return new StubStudentService(StubHttpServer.start(), rosterSize, tuitionClassCount);
+    }
+
+    /**
+     * Start a stand-in on a given port
+     *
+     * @param port              port
+     * @param threads           worker threads
+     * @param rosterSize        number of students
+     * @param tuitionClassCount number of tuition classes
+     * @return StubStudentService
+     */
+    public static StubStudentService start(int port, int threads, int rosterSize, int tuitionClassCount) {
+        return new StubStudentService(StubHttpServer.start(port, threads), rosterSize, tuitionClassCount);
+    }
+
+    public StubStudentService withLatency(long latencyMillis) {
+        server.withLatency(latencyMillis);
+        return this;
+    }
+
+    public StubStudentService withErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    public StubStudentService withoutIdsLookup() {
+        this.idsLookupSupported = false;
+        return this;
+    }
+
+    /**
+     * Rename a student as the student service would on an update
+     *
+     * @param studentId student id
+     * @param firstName new first name
+     * @param updatedAt update date
+     * @return StubStudentService
+     */
+    public StubStudentService renameStudent(String studentId, String firstName, Date updatedAt) {
+        var student = students.get(studentId);
+        student.setFirstName(firstName);
+        student.setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    /**
+     * Delete a student as the student service would, which keeps the student with the deleted flag set
+     *
+     * @param studentId student id
+     * @param updatedAt update date
+     * @return StubStudentService
+     */
+    public StubStudentService deleteStudent(String studentId, Date updatedAt) {
+        var student = students.get(studentId);
+        student.setDeleted(true);
+        student.setUpdatedAt(updatedAt);
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return server.getBaseUrl();
+    }
+
+    public List<String> getRequestedUris() {
+        return new ArrayList<>(requestedUris);
+    }
+
+    public void clearRequestedUris() {
+        requestedUris.clear();
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    private StubHttpServer.StubResponse handleStudents(HttpExchange exchange) {
+        var uri = exchange.getRequestURI();
+        requestedUris.add(uri.toString());
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return new StubHttpServer.StubResponse(503, "{}");
+        }
+        String path = uri.getPath();
+        if (path.length() > STUDENT_PATH.length() + 1) {
+            return findStudent(path.substring(STUDENT_PATH.length() + 1));
+        }
+        String query = uri.getQuery();
+        if (query != null && query.startsWith("ids=")) {
+            if (!idsLookupSupported) {
+                return new StubHttpServer.StubResponse(404, "{}");
+            }
+            var selectedStudents = Arrays.stream(query.substring("ids=".length()).split(","))
+                    .map(students::get).filter(Objects::nonNull).collect(Collectors.toList());
+            return studentList(selectedStudents);
+        }
+        if (query != null && query.startsWith("updatedSince=")) {
+            var updatedSince = Date.valueOf(query.substring("updatedSince=".length()));
+            return studentList(students.values().stream()
+                    .filter(student -> !student.getUpdatedAt().before(updatedSince)).collect(Collectors.toList()));
+        }
+        return studentList(new ArrayList<>(students.values()));
+    }
+
+    private StubHttpServer.StubResponse findStudent(String studentId) {
+        var student = students.get(studentId);
+        var wrapper = new StudentResponseWrapper();
+        wrapper.setStatusCode(student == null ? 404 : 200);
+        wrapper.setMessage(student == null ? "The student Id is invalid" : "Student retrieved successfully");
+        wrapper.setData(student);
+        return new StubHttpServer.StubResponse(200, toJson(wrapper));
+    }
+
+    private StubHttpServer.StubResponse studentList(List<StudentResponseDto> studentList) {
+        var data = new StudentListResponseDto();
+        data.setStudents(studentList);
+        var wrapper = new StudentListResponseWrapper();
+        wrapper.setStatusCode(200);
+        wrapper.setMessage("Students details retrieved successfully");
+        wrapper.setData(data);
+        return StubHttpServer.StubResponse.ok(toJson(wrapper));
+    }
+
+    private StubHttpServer.StubResponse handleTuitionClasses(HttpExchange exchange) {
+        requestedUris.add(exchange.getRequestURI().toString());
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return new StubHttpServer.StubResponse(503, "{}");
+        }
+        var data = new TuitionClassListResponseDto();
+        data.setLocations(tuitionClasses);
+        var wrapper = new TuitionClassListResponseWrapper();
+        wrapper.setStatusCode(200);
+        wrapper.setMessage("All location details retrieved successfully");
+        wrapper.setData(data);
+        return StubHttpServer.StubResponse.ok(toJson(wrapper));
+    }
+
+    private static String toJson(Object value) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.cms.payment.utills;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentIdGeneratorTest {
+
+    private static final int ID_COUNT = 10000;
+
+    @Test
+    void Should_GenerateIncreasingIds_When_IdsAreGeneratedInTheSameMillisecond() {
+        String previousId = PaymentIdGenerator.nextId();
+        for (int index = 0; index < ID_COUNT; index++) {
+            String paymentId = PaymentIdGenerator.nextId();
+            assertTrue(paymentId.compareTo(previousId) > 0, paymentId + " is not after " + previousId);
+            previousId = paymentId;
+        }
+    }
+
+    @Test
+    void Should_GenerateVersion7Uuid_When_IdIsGenerated() {
+        long before = System.currentTimeMillis();
+        String paymentId = PaymentIdGenerator.nextId();
+        assertTrue(paymentId.startsWith(PaymentIdGenerator.PREFIX));
+        UUID uuid = UUID.fromString(paymentId.substring(PaymentIdGenerator.PREFIX.length()));
+        assertEquals(7, uuid.version());
+        assertEquals(2, uuid.variant());
+        assertTrue((uuid.getMostSignificantBits() >>> 16) >= before);
+    }
+}